@@ -0,0 +1,91 @@
+package com.github.cosycode.common.ext.hub;
+
+import com.github.cosycode.common.lang.RuntimeExtException;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * <b>Description : </b> 按 key 合并并发调用: 多个线程同时以相同的 key 调用 {@link #execute(Object, Supplier)} 时, 只有第一个线程执行,
+ * 其它线程阻塞等待并得到相同的结果或异常; 执行结束后不保留结果
+ * <p>
+ * key 按 equals 判断是否相同, 可以为 null. 同一个线程在执行过程中以相同的 key 递归调用时抛出 IllegalStateException, 避免永久等待自己.
+ * <br> 被 BoundedCache 的加载和 SingleFlightClosureProxy 共用.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class SingleFlight<K, V> {
+
+    /**
+     * null key 在 map 中的替代对象
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private final ConcurrentMap<Object, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * 执行 supplier, 或者等待正在以相同 key 执行的调用结束
+     *
+     * @param key      key
+     * @param supplier 执行函数
+     * @return 执行结果
+     */
+    public V execute(K key, @NonNull Supplier<? extends V> supplier) {
+        final Object k = key == null ? NULL_KEY : key;
+        final Flight<V> flight = new Flight<>();
+        final Flight<V> existing = flights.putIfAbsent(k, flight);
+        if (existing != null) {
+            return existing.await();
+        }
+        try {
+            final V v = supplier.get();
+            flight.complete(v);
+            return v;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(k, flight);
+        }
+    }
+
+    /**
+     * @return 正在执行的调用数量(按 key 去重后)
+     */
+    public int getInFlightCount() {
+        return flights.size();
+    }
+
+    /**
+     * 一次正在进行的执行, 记录执行线程以检测递归调用
+     */
+    private static final class Flight<V> extends CompletableFuture<V> {
+        private final Thread owner = Thread.currentThread();
+
+        V await() {
+            if (owner == Thread.currentThread()) {
+                throw new IllegalStateException("recursive call with the same key");
+            }
+            try {
+                return join();
+            } catch (CompletionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeExtException("shared call failed", cause);
+            }
+        }
+    }
+
+}
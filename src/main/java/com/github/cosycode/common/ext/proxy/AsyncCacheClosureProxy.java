@@ -0,0 +1,80 @@
+package com.github.cosycode.common.ext.proxy;
+
+import com.github.cosycode.common.ext.hub.AbstractClosureProxy;
+import com.github.cosycode.common.ext.struct.BoundedCache;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * <b>Description : </b> 异步缓存闭包代理, 缓存被代理方法返回的 CompletableFuture
+ * <p> 相同参数的调用共享同一个 future; future 异常完成后从缓存中删除, 下一次调用重新执行, 因此失败的结果不会被一直缓存.
+ * <br> 被代理方法同步抛出的异常也会转换为异常完成的 future.
+ * <br> 返回的是缓存中共享的 future, 调用方不应当主动 complete 或 cancel 它.
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class AsyncCacheClosureProxy<P, R> extends AbstractClosureProxy<Function<P, CompletableFuture<R>>, P, CompletableFuture<R>> {
+
+    @Getter
+    private final BoundedCache<P, CompletableFuture<R>> cache;
+
+    private final Function<P, CompletableFuture<R>> loader = this::invoke;
+
+    public AsyncCacheClosureProxy(Function<P, CompletableFuture<R>> functional) {
+        this(functional, new BoundedCache<P, CompletableFuture<R>>().setAllowNullKeys(true));
+    }
+
+    /**
+     * @param functional 被代理的方法
+     * @param cache      缓存, 应当是未使用过的
+     */
+    public AsyncCacheClosureProxy(Function<P, CompletableFuture<R>> functional, @NonNull BoundedCache<P, CompletableFuture<R>> cache) {
+        super(functional);
+        this.cache = cache;
+    }
+
+    private CompletableFuture<R> invoke(P params) {
+        CompletableFuture<R> future;
+        try {
+            future = biFunction.apply(functional, params);
+            if (future == null) {
+                throw new NullPointerException("the proxied function returned a null future, params: " + params);
+            }
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        // 放入缓存之后才异常完成的 future 在这里删除
+        final CompletableFuture<R> f = future;
+        f.whenComplete((r, t) -> {
+            if (t != null) {
+                cache.invalidate(params, f);
+            }
+        });
+        return f;
+    }
+
+    @Override
+    public CompletableFuture<R> closureFunction(P params) {
+        final CompletableFuture<R> future = cache.get(params, loader);
+        // 放入缓存之前就已经异常完成的 future, 回调执行时还不在缓存中, 在这里删除
+        if (future.isCompletedExceptionally()) {
+            cache.invalidate(params, future);
+        }
+        return future;
+    }
+
+    public static <P, R> Function<P, CompletableFuture<R>> of(Function<P, CompletableFuture<R>> function) {
+        return new AsyncCacheClosureProxy<>(function).proxy();
+    }
+
+    public static <P, R> Function<P, CompletableFuture<R>> of(Function<P, CompletableFuture<R>> function, BoundedCache<P, CompletableFuture<R>> cache) {
+        return new AsyncCacheClosureProxy<>(function, cache).proxy();
+    }
+
+}
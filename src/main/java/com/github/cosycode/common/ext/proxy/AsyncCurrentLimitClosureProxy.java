@@ -0,0 +1,134 @@
+package com.github.cosycode.common.ext.proxy;
+
+import com.github.cosycode.common.ext.hub.AbstractClosureProxy;
+import lombok.NonNull;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <b>Description : </b> 异步限流闭包代理类
+ * <p> 被代理方法返回 CompletableFuture, 同一时间内最多只有 limit 个 future 未完成; 超出的调用不阻塞线程, 而是进入等待队列并立即返回一个 future,
+ * 前面的 future 完成后再按顺序执行队列中的调用. 与 {@link CurrentLimitClosureProxy} 的 Semaphore.acquire() 相比, 适合非阻塞的 I/O 调用链.
+ * <br> 排队期间返回的 future 已被取消或完成时, 该调用不再执行.
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class AsyncCurrentLimitClosureProxy<T, P, R> extends AbstractClosureProxy<T, P, CompletableFuture<R>> {
+
+    private final int limit;
+
+    /**
+     * 正在执行(future 未完成)的调用数量
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 排空等待队列的线程标记, 保证同一时间只有一个线程在启动调用, 也避免同步完成的 future 造成递归
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    public AsyncCurrentLimitClosureProxy(int limit, @NonNull T then) {
+        super(then);
+        check(limit);
+        this.limit = limit;
+    }
+
+    public AsyncCurrentLimitClosureProxy(int limit, @NonNull T then, @NonNull BiFunction<T, P, CompletableFuture<R>> function) {
+        super(then, function);
+        check(limit);
+        this.limit = limit;
+    }
+
+    private void check(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit cannot less than 1");
+        }
+    }
+
+    @Override
+    public CompletableFuture<R> closureFunction(P params) {
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        waiting.offer(() -> start(params, result));
+        drain();
+        return result;
+    }
+
+    private void start(P params, CompletableFuture<R> result) {
+        if (result.isDone()) {
+            release();
+            return;
+        }
+        final CompletableFuture<R> future;
+        try {
+            future = biFunction.apply(functional, params);
+            if (future == null) {
+                throw new NullPointerException("the proxied function returned a null future, params: " + params);
+            }
+        } catch (Throwable e) {
+            // 不能抛出, 否则 drain 的 wip 标记无法复位
+            release();
+            result.completeExceptionally(e);
+            return;
+        }
+        future.whenComplete((r, t) -> {
+            release();
+            if (t == null) {
+                result.complete(r);
+            } else {
+                result.completeExceptionally(t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+            }
+        });
+    }
+
+    private void release() {
+        active.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (active.get() < limit) {
+                final Runnable task = waiting.poll();
+                if (task == null) {
+                    break;
+                }
+                active.incrementAndGet();
+                task.run();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * @return 正在执行的调用数量
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * @return 排队等待的调用数量
+     */
+    public int getQueueSize() {
+        return waiting.size();
+    }
+
+    public static <P, R> Function<P, CompletableFuture<R>> of(int limit, Function<P, CompletableFuture<R>> function) {
+        return new AsyncCurrentLimitClosureProxy<Function<P, CompletableFuture<R>>, P, R>(limit, function).proxy();
+    }
+
+}
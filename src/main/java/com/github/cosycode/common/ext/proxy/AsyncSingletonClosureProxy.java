@@ -0,0 +1,77 @@
+package com.github.cosycode.common.ext.proxy;
+
+import com.github.cosycode.common.ext.hub.AbstractClosureProxy;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * <b>Description : </b> 异步单例闭包代理
+ * <p> 被代理方法返回 CompletableFuture, 第一次调用的 future 被之后的所有调用共享;
+ * 与 {@link SingletonClosureProxy} 不同, 该 future 异常完成后会被丢弃, 下一次调用重新执行, 初始化失败不会导致单例永久不可用.
+ * <br> 被代理方法同步抛出的异常也会转换为异常完成的 future.
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class AsyncSingletonClosureProxy<T, P, R> extends AbstractClosureProxy<T, P, CompletableFuture<R>> {
+
+    private final AtomicReference<CompletableFuture<R>> future = new AtomicReference<>();
+
+    public AsyncSingletonClosureProxy(@NonNull T then) {
+        super(then);
+    }
+
+    public AsyncSingletonClosureProxy(@NonNull T then, @NonNull BiFunction<T, P, CompletableFuture<R>> function) {
+        super(then, function);
+    }
+
+    @Override
+    public CompletableFuture<R> closureFunction(P params) {
+        for (;;) {
+            final CompletableFuture<R> current = future.get();
+            if (current != null && !current.isCompletedExceptionally()) {
+                return current;
+            }
+            // 先占位, 保证同一时间只有一个线程执行被代理的方法
+            final CompletableFuture<R> promise = new CompletableFuture<>();
+            if (!future.compareAndSet(current, promise)) {
+                continue;
+            }
+            try {
+                final CompletableFuture<R> f = biFunction.apply(functional, params);
+                if (f == null) {
+                    throw new NullPointerException("the proxied function returned a null future");
+                }
+                f.whenComplete((r, t) -> {
+                    if (t != null) {
+                        promise.completeExceptionally(t);
+                    } else {
+                        promise.complete(r);
+                    }
+                });
+            } catch (Throwable e) {
+                // Error 也要完成占位的 future 并将其丢弃, 否则之后的调用会一直等待一个永远不会完成的 future
+                promise.completeExceptionally(e);
+                future.compareAndSet(promise, null);
+            }
+            return promise;
+        }
+    }
+
+    /**
+     * 丢弃当前的单例, 下一次调用重新执行
+     */
+    public void reset() {
+        future.set(null);
+    }
+
+    public static <R> Supplier<CompletableFuture<R>> of(Supplier<CompletableFuture<R>> supplier) {
+        return new AsyncSingletonClosureProxy<Supplier<CompletableFuture<R>>, Object, R>(supplier).proxy();
+    }
+
+}
@@ -1,14 +1,15 @@
 package com.github.cosycode.common.ext.proxy;
 
 import com.github.cosycode.common.ext.hub.AbstractClosureProxy;
+import com.github.cosycode.common.ext.struct.BoundedCache;
+import lombok.Getter;
+import lombok.NonNull;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
- * <b>Description : </b>
- * <p>
+ * <b>Description : </b> 缓存闭包代理, 相同参数的调用只执行一次, 之后直接返回缓存的结果
+ * <p> 默认使用不限容量, 不过期的缓存; 可以传入配置好的 {@link BoundedCache} 限制容量, 设置过期时间, 异步刷新, 软/弱引用, 缓存 null 结果和异常, 并通过 {@link #getCache()} 获取命中统计.
  * <b>created in </b> 2021/4/12
  *
  * @author CPF
@@ -16,15 +17,46 @@ import java.util.function.Function;
  **/
 public class CacheClosureProxy<P, R> extends AbstractClosureProxy<Function<P,R>, P, R> {
 
-    private final Map<P, R> cache = new ConcurrentHashMap<>();
+    /**
+     * @since 1.13
+     */
+    @Getter
+    private final BoundedCache<P, R> cache;
 
+    private final Function<P, R> loader = p -> biFunction.apply(functional, p);
+
+    /**
+     * 使用不限容量, 不过期的缓存, 参数为 null 时也会被缓存, 以支持 {@link #closureSupplier()}
+     *
+     * @param functional 被代理的方法
+     */
     public CacheClosureProxy(Function<P,R> functional) {
+        this(functional, new BoundedCache<P, R>().setAllowNullKeys(true));
+    }
+
+    /**
+     * @param functional 被代理的方法
+     * @param cache      缓存, 应当是未使用过的
+     * @since 1.13
+     */
+    public CacheClosureProxy(Function<P,R> functional, @NonNull BoundedCache<P, R> cache) {
         super(functional);
+        this.cache = cache;
     }
 
     @Override
     public R closureFunction(P params) {
-        return cache.computeIfAbsent(params, p -> biFunction.apply(functional, p));
+        return cache.get(params, loader);
+    }
+
+    /**
+     * @param function 被代理的方法
+     * @param cache    缓存
+     * @return 带缓存的方法
+     * @since 1.13
+     */
+    public static <P, R> Function<P, R> of(Function<P, R> function, BoundedCache<P, R> cache) {
+        return new CacheClosureProxy<>(function, cache).proxy();
     }
 
 }
@@ -0,0 +1,54 @@
+package com.github.cosycode.common.ext.proxy;
+
+import com.github.cosycode.common.ext.hub.AbstractClosureProxy;
+import com.github.cosycode.common.ext.hub.SingleFlight;
+import lombok.NonNull;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <b>Description : </b> 请求合并(single-flight)闭包代理
+ * <p> 多个线程同时以相同的参数调用被代理方法时, 只有第一个线程真正执行, 其它线程阻塞等待并得到相同的结果或异常;
+ * 执行结束后不保留结果, 之后的调用重新执行.
+ * <br> 与 {@link OnceExecClosureProxy} 直接跳过并发调用不同, 这里的并发调用都能拿到结果; 与 {@link CacheClosureProxy} 不同, 结果不会被缓存.
+ * <br> 参数按 equals 判断是否相同, 参数可以为 null. 同一个线程在执行过程中以相同参数递归调用时抛出 IllegalStateException, 参照 {@link SingleFlight}.
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class SingleFlightClosureProxy<T, P, R> extends AbstractClosureProxy<T, P, R> {
+
+    private final SingleFlight<P, R> flights = new SingleFlight<>();
+
+    public SingleFlightClosureProxy(@NonNull T then) {
+        super(then);
+    }
+
+    public SingleFlightClosureProxy(@NonNull T then, @NonNull BiFunction<T, P, R> function) {
+        super(then, function);
+    }
+
+    public SingleFlightClosureProxy(@NonNull T then, @NonNull BiConsumer<T, P> biConsumer) {
+        super(then, biConsumer);
+    }
+
+    @Override
+    public R closureFunction(P params) {
+        return flights.execute(params, () -> biFunction.apply(functional, params));
+    }
+
+    /**
+     * @return 正在执行的调用数量(按参数去重后)
+     */
+    public int getInFlightCount() {
+        return flights.getInFlightCount();
+    }
+
+    public static <P, R> Function<P, R> of(Function<P, R> function) {
+        return new SingleFlightClosureProxy<Function<P, R>, P, R>(function).proxy();
+    }
+
+}
@@ -0,0 +1,1021 @@
+package com.github.cosycode.common.ext.struct;
+
+import com.github.cosycode.common.ext.hub.SingleFlight;
+import com.github.cosycode.common.override.java.util.LinkedListCopy;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Validate;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * <b>Description : </b> 线程安全的有界缓存, 支持容量淘汰, 过期, 软/弱引用值和命中统计
+ * <p>
+ * <b>存储: </b> 数据保存在 ConcurrentHashMap 中, 读取不加锁; 淘汰顺序使用 LinkedListCopy 的节点游标维护, 由一把淘汰锁保护,
+ * 读取时只尝试获取该锁, 获取不到则放弃本次访问顺序的调整, 因此高并发读时访问顺序是近似的, 但过期判断始终准确;
+ * 无界, 不过期且值为强引用时不需要维护任何顺序, 写入和加载也不获取该锁.
+ * <br> <b>容量: </b> {@link #setMaximumSize(long)} 按数量限制, {@link #setMaximumWeight(long, ToIntBiFunction)} 按权重限制;
+ * 淘汰策略可以是 LRU, 或者 W-TinyLFU(1% 的 LRU 窗口 + 分段 LRU 主区, 窗口淘汰出的候选者只有在估算频率高于主区的淘汰对象时才能留下).
+ * <br> <b>过期: </b> 写入后过期和访问后过期, 过期的数据不会再被返回, 在下一次写入或者获取到淘汰锁的读取时清理.
+ * <br> <b>加载: </b> {@link #get(Object, Function)} 在未命中时加载, 同一个 key 同时只有一个线程加载, 其它线程等待其结果;
+ * 加载过程不持有任何锁, 因此加载函数中可以再访问该缓存的其它 key.
+ * <br> <b>空值和异常: </b> 默认加载结果为 null 时不缓存, 加载抛出的异常也不缓存; 可以通过 {@link #setCacheNullValues(boolean)} 缓存 null 结果,
+ * 通过 {@link #setExpireAfterFailure(long, TimeUnit)} 在一小段时间内缓存加载抛出的 RuntimeException, 期间相同 key 的读取直接抛出该异常,
+ * 避免下游故障时被重复调用; 通过 {@link #setAllowNullKeys(boolean)} 允许 null 作为 key.
+ * <br> <b>刷新: </b> 设置 {@link #setRefreshAfterWrite(long, TimeUnit)} 后, 写入超过该时间的数据被读取时仍然返回旧值,
+ * 同时在 refreshExecutor 中异步重新加载一次, 加载完成后替换旧值, 避免调用方同步等待重新计算; 刷新时间应小于写入后过期时间.
+ * <br> 所有配置方法只能在缓存为空时调用.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class BoundedCache<K, V> {
+
+    /**
+     * 淘汰策略
+     */
+    public enum EvictionPolicy {
+        /**
+         * 淘汰最久未访问的数据
+         */
+        LRU,
+        /**
+         * 根据最近的访问频率决定新数据能否替换旧数据, 对扫描式访问和热点数据更友好
+         */
+        W_TINY_LFU
+    }
+
+    /**
+     * 值的引用强度
+     */
+    public enum ValueStrength {
+        STRONG,
+        /**
+         * 软引用, 内存不足时可被 GC 回收
+         */
+        SOFT,
+        /**
+         * 弱引用, 没有其它强引用时可被 GC 回收
+         */
+        WEAK
+    }
+
+    private static final byte WINDOW = 0;
+
+    private static final byte PROBATION = 1;
+
+    private static final byte PROTECTED = 2;
+
+    private static final ToIntBiFunction<Object, Object> SINGLETON_WEIGHER = (k, v) -> 1;
+
+    /**
+     * 缓存的 null 值
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * null key 在 map 中的替代对象
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private final ConcurrentMap<K, Entry<K, V>> map = new ConcurrentHashMap<>();
+
+    /**
+     * 正在加载的 key
+     */
+    private final SingleFlight<K, V> loadings = new SingleFlight<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final ReferenceQueue<V> referenceQueue = new ReferenceQueue<>();
+
+    @Getter
+    private EvictionPolicy policy = EvictionPolicy.LRU;
+
+    /**
+     * 最大权重, 未设置时为 Long.MAX_VALUE
+     */
+    @Getter
+    private long maximum = Long.MAX_VALUE;
+
+    private boolean weighted;
+
+    private ToIntBiFunction<? super K, ? super V> weigher = SINGLETON_WEIGHER;
+
+    private long expireAfterWriteNanos;
+
+    private long expireAfterAccessNanos;
+
+    private long refreshAfterWriteNanos;
+
+    private Executor refreshExecutor = ForkJoinPool.commonPool();
+
+    /**
+     * 异步刷新失败时是否保留旧值, 为 false 时删除旧值, 下一次读取同步加载
+     */
+    @Getter
+    private boolean keepStaleOnRefreshFailure = true;
+
+    @Getter
+    private ValueStrength valueStrength = ValueStrength.STRONG;
+
+    /**
+     * 是否缓存 null 结果
+     */
+    @Getter
+    private boolean cacheNullValues;
+
+    /**
+     * 是否允许 null 作为 key
+     */
+    @Getter
+    private boolean allowNullKeys;
+
+    private long expireAfterFailureNanos;
+
+    private LongSupplier ticker = System::nanoTime;
+
+    /*
+     * 以下字段由 evictionLock 保护.
+     * LRU 策略下所有数据都在 window 中; W-TinyLFU 策略下数据先进入 window, 被挤出后进入 probation, 再次被访问时晋升到 protect.
+     */
+
+    private final LinkedListCopy<Entry<K, V>> window = new LinkedListCopy<>();
+
+    private final LinkedListCopy<Entry<K, V>> probation = new LinkedListCopy<>();
+
+    private final LinkedListCopy<Entry<K, V>> protect = new LinkedListCopy<>();
+
+    private final LinkedListCopy<Entry<K, V>> writeOrder = new LinkedListCopy<>();
+
+    private long windowMaximum = Long.MAX_VALUE;
+
+    private long protectedMaximum;
+
+    private long windowWeight;
+
+    private long protectedWeight;
+
+    private FrequencySketch sketch;
+
+    /**
+     * 当前的总权重, 不需要淘汰锁的模式下写入时不加锁更新, 因此使用 LongAdder
+     */
+    private final LongAdder weightedSize = new LongAdder();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final LongAdder evictionWeight = new LongAdder();
+
+    private void checkUnused() {
+        Validate.validState(map.isEmpty() && loadings.getInFlightCount() == 0, "cache configuration must be set before use");
+    }
+
+    /**
+     * 设置最大数量
+     *
+     * @param maximumSize 最大数量
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setMaximumSize(long maximumSize) {
+        Validate.isTrue(maximumSize >= 0, "maximumSize: %s cannot < 0", maximumSize);
+        checkUnused();
+        this.maximum = maximumSize;
+        this.weigher = SINGLETON_WEIGHER;
+        this.weighted = false;
+        configureQueues();
+        return this;
+    }
+
+    /**
+     * 设置最大权重, 每个数据的权重在写入时计算一次
+     *
+     * @param maximumWeight 最大权重
+     * @param weigher       权重计算函数, 返回值不能小于 0
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setMaximumWeight(long maximumWeight, @NonNull ToIntBiFunction<? super K, ? super V> weigher) {
+        Validate.isTrue(maximumWeight >= 0, "maximumWeight: %s cannot < 0", maximumWeight);
+        checkUnused();
+        this.maximum = maximumWeight;
+        this.weigher = weigher;
+        this.weighted = true;
+        configureQueues();
+        return this;
+    }
+
+    /**
+     * @param policy 淘汰策略, 默认 LRU
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setPolicy(@NonNull EvictionPolicy policy) {
+        checkUnused();
+        this.policy = policy;
+        configureQueues();
+        return this;
+    }
+
+    /**
+     * @param duration 写入后经过多长时间过期, 为 0 表示不过期
+     * @param unit     时间单位
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setExpireAfterWrite(long duration, @NonNull TimeUnit unit) {
+        Validate.isTrue(duration >= 0, "duration: %s cannot < 0", duration);
+        checkUnused();
+        this.expireAfterWriteNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param duration 最后一次访问(读或写)后经过多长时间过期, 为 0 表示不过期
+     * @param unit     时间单位
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setExpireAfterAccess(long duration, @NonNull TimeUnit unit) {
+        Validate.isTrue(duration >= 0, "duration: %s cannot < 0", duration);
+        checkUnused();
+        this.expireAfterAccessNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param duration 写入后经过多长时间, 读取时触发异步刷新, 为 0 表示不刷新
+     * @param unit     时间单位
+     * @return 当前对象
+     * @see #get(Object, Function)
+     */
+    public BoundedCache<K, V> setRefreshAfterWrite(long duration, @NonNull TimeUnit unit) {
+        Validate.isTrue(duration >= 0, "duration: %s cannot < 0", duration);
+        checkUnused();
+        this.refreshAfterWriteNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param refreshExecutor 执行异步刷新的线程池, 默认 ForkJoinPool.commonPool()
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setRefreshExecutor(@NonNull Executor refreshExecutor) {
+        checkUnused();
+        this.refreshExecutor = refreshExecutor;
+        return this;
+    }
+
+    /**
+     * @param keepStaleOnRefreshFailure 异步刷新失败时是否保留旧值, 默认 true
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setKeepStaleOnRefreshFailure(boolean keepStaleOnRefreshFailure) {
+        checkUnused();
+        this.keepStaleOnRefreshFailure = keepStaleOnRefreshFailure;
+        return this;
+    }
+
+    /**
+     * @param valueStrength 值的引用强度, 默认强引用
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setValueStrength(@NonNull ValueStrength valueStrength) {
+        checkUnused();
+        this.valueStrength = valueStrength;
+        return this;
+    }
+
+    /**
+     * @param cacheNullValues 是否缓存 null 结果, 默认 false; 缓存的 null 权重为 1, 且不受软/弱引用影响
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setCacheNullValues(boolean cacheNullValues) {
+        checkUnused();
+        this.cacheNullValues = cacheNullValues;
+        return this;
+    }
+
+    /**
+     * @param duration 加载抛出的 RuntimeException 缓存多长时间, 为 0 表示不缓存异常
+     * @param unit     时间单位
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setExpireAfterFailure(long duration, @NonNull TimeUnit unit) {
+        Validate.isTrue(duration >= 0, "duration: %s cannot < 0", duration);
+        checkUnused();
+        this.expireAfterFailureNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param allowNullKeys 是否允许 null 作为 key, 默认 false, 此时 null key 抛出 NullPointerException
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setAllowNullKeys(boolean allowNullKeys) {
+        checkUnused();
+        this.allowNullKeys = allowNullKeys;
+        return this;
+    }
+
+    /**
+     * @param ticker 纳秒时间源, 默认 System.nanoTime, 主要用于测试
+     * @return 当前对象
+     */
+    public BoundedCache<K, V> setTicker(@NonNull LongSupplier ticker) {
+        checkUnused();
+        this.ticker = ticker;
+        return this;
+    }
+
+    private void configureQueues() {
+        if (policy == EvictionPolicy.LRU || maximum == Long.MAX_VALUE) {
+            windowMaximum = Long.MAX_VALUE;
+            protectedMaximum = 0;
+            sketch = null;
+        } else {
+            windowMaximum = Math.max(1, maximum / 100);
+            protectedMaximum = (maximum - windowMaximum) / 5 * 4;
+            // 按权重限制时无法知道数据的数量, 估算一个不太大的容量
+            sketch = new FrequencySketch(weighted ? Math.min(maximum, 1 << 16) : maximum);
+        }
+    }
+
+    /**
+     * @return 是否需要维护访问顺序
+     */
+    private boolean isOrdered() {
+        return maximum != Long.MAX_VALUE || expireAfterAccessNanos > 0;
+    }
+
+    /**
+     * @return 写入时是否需要获取淘汰锁; 无界, 不过期且为强引用时只需要更新总权重, 写入不加锁
+     */
+    private boolean needsEvictionLock() {
+        return isOrdered() || expireAfterWriteNanos > 0 || valueStrength != ValueStrength.STRONG;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K maskKey(K key) {
+        if (key == null) {
+            if (!allowNullKeys) {
+                throw new NullPointerException("key is marked non-null but is null");
+            }
+            return (K) NULL_KEY;
+        }
+        return key;
+    }
+
+    private K unmaskKey(K key) {
+        return key == NULL_KEY ? null : key;
+    }
+
+    private boolean isExpired(Entry<K, V> e, long now) {
+        return (expireAfterWriteNanos > 0 && now - e.writeNanos >= expireAfterWriteNanos)
+                || (expireAfterAccessNanos > 0 && now - e.accessNanos >= expireAfterAccessNanos)
+                || (e.value instanceof Failure && now - e.writeNanos >= ((Failure) e.value).ttlNanos);
+    }
+
+    /**
+     * @return 有效的缓存值, 可能是 NULL_VALUE 或 Failure; 数据不存在, 已过期或者已被 GC 回收时返回 null
+     */
+    private Object validValue(Entry<K, V> e, long now) {
+        if (e == null) {
+            return null;
+        }
+        final Object v = e.getValue();
+        return v == null || isExpired(e, now) ? null : v;
+    }
+
+    /**
+     * 将缓存值转换为返回值, 缓存的异常直接抛出
+     */
+    @SuppressWarnings("unchecked")
+    private V resolve(Object v) {
+        if (v == NULL_VALUE) {
+            return null;
+        }
+        if (v instanceof Failure) {
+            throw ((Failure) v).exception;
+        }
+        return (V) v;
+    }
+
+    /**
+     * 获取缓存的值
+     *
+     * @param key key
+     * @return 缓存的值, 不存在, 已失效, 缓存的是 null 或异常时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V getIfPresent(K key) {
+        key = maskKey(key);
+        final long now = ticker.getAsLong();
+        final Entry<K, V> e = map.get(key);
+        final Object v = validValue(e, now);
+        if (v == null) {
+            missCount.increment();
+            if (e != null) {
+                removeStale(e);
+            }
+            return null;
+        }
+        hitCount.increment();
+        afterRead(e, now);
+        return v == NULL_VALUE || v instanceof Failure ? null : (V) v;
+    }
+
+    /**
+     * 获取缓存的值, 未命中时通过 loader 加载并缓存; 命中的数据需要刷新时, 返回旧值并异步调用 loader 刷新
+     *
+     * @param key    key
+     * @param loader 加载函数, 默认返回 null 时不缓存
+     * @return 缓存或加载的值
+     */
+    public V get(K key, @NonNull Function<? super K, ? extends V> loader) {
+        key = maskKey(key);
+        final long now = ticker.getAsLong();
+        final Entry<K, V> e = map.get(key);
+        final Object v = validValue(e, now);
+        if (v != null) {
+            hitCount.increment();
+            afterRead(e, now);
+            if (refreshAfterWriteNanos > 0 && now - e.writeNanos >= refreshAfterWriteNanos && !(v instanceof Failure)) {
+                refresh(e, loader);
+            }
+            return resolve(v);
+        }
+        missCount.increment();
+        if (e != null) {
+            removeStale(e);
+        }
+        return load(key, loader);
+    }
+
+    /**
+     * 异步刷新数据, 同一个数据同时只刷新一次; 刷新期间该数据被替换或删除时丢弃刷新结果
+     */
+    private void refresh(Entry<K, V> e, Function<? super K, ? extends V> loader) {
+        if (!Entry.REFRESHING.compareAndSet(e, 0, 1)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                final long start = System.nanoTime();
+                final V v;
+                try {
+                    v = loader.apply(unmaskKey(e.key));
+                } catch (RuntimeException | Error t) {
+                    totalLoadNanos.add(System.nanoTime() - start);
+                    loadFailureCount.increment();
+                    log.warn("refresh failed, key: {}", unmaskKey(e.key), t);
+                    if (keepStaleOnRefreshFailure) {
+                        e.refreshing = 0;
+                    } else {
+                        removeStale(e);
+                    }
+                    return;
+                }
+                totalLoadNanos.add(System.nanoTime() - start);
+                loadSuccessCount.increment();
+                if (v != null) {
+                    replace(e, v);
+                } else if (cacheNullValues) {
+                    replace(e, NULL_VALUE);
+                } else {
+                    removeStale(e);
+                }
+            });
+        } catch (RuntimeException ex) {
+            // 线程池拒绝执行时保留旧值, 等待下一次读取再尝试
+            e.refreshing = 0;
+            log.warn("refresh rejected, key: {}", unmaskKey(e.key), ex);
+        }
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader) {
+        return loadings.execute(key, () -> {
+            // 取得加载权后再检查一次, 其它线程可能刚刚完成加载
+            final Object cached = validValue(map.get(key), ticker.getAsLong());
+            if (cached != null) {
+                return resolve(cached);
+            }
+            final long start = System.nanoTime();
+            final V v;
+            try {
+                v = loader.apply(unmaskKey(key));
+            } catch (RuntimeException | Error t) {
+                totalLoadNanos.add(System.nanoTime() - start);
+                loadFailureCount.increment();
+                if (expireAfterFailureNanos > 0 && t instanceof RuntimeException) {
+                    putEntry(key, new Failure((RuntimeException) t, expireAfterFailureNanos));
+                }
+                throw t;
+            }
+            totalLoadNanos.add(System.nanoTime() - start);
+            loadSuccessCount.increment();
+            if (v != null) {
+                putEntry(key, v);
+            } else if (cacheNullValues) {
+                putEntry(key, NULL_VALUE);
+            }
+            return v;
+        });
+    }
+
+    /**
+     * 写入缓存, 替换已有的值
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void put(K key, @NonNull V value) {
+        putEntry(maskKey(key), value);
+    }
+
+    /**
+     * 创建数据对象, NULL_VALUE 和 Failure 的权重为 1
+     */
+    @SuppressWarnings("unchecked")
+    private Entry<K, V> newEntry(K key, Object value, long now) {
+        final boolean special = value == NULL_VALUE || value instanceof Failure;
+        final int weight = special ? 1 : weigher.applyAsInt(unmaskKey(key), (V) value);
+        Validate.isTrue(weight >= 0, "weight: %s of key: %s cannot < 0", weight, unmaskKey(key));
+        return new Entry<>(key, value, weight, now, special ? ValueStrength.STRONG : valueStrength, referenceQueue);
+    }
+
+    private void putEntry(K key, Object value) {
+        final long now = ticker.getAsLong();
+        final Entry<K, V> e = newEntry(key, value, now);
+        final Entry<K, V> old = map.put(key, e);
+        if (old != null) {
+            old.retired = true;
+        }
+        afterWrite(e, old, now);
+    }
+
+    /**
+     * 仅当 map 中仍然是 old 时替换为新值
+     */
+    private void replace(Entry<K, V> old, Object value) {
+        final long now = ticker.getAsLong();
+        final Entry<K, V> e = newEntry(old.key, value, now);
+        if (map.replace(old.key, old, e)) {
+            old.retired = true;
+            afterWrite(e, old, now);
+        }
+    }
+
+    private void afterWrite(Entry<K, V> e, Entry<K, V> old, long now) {
+        if (!needsEvictionLock()) {
+            if (old != null) {
+                unaccount(old);
+            }
+            // 先计入再检查, 与并发的删除之间只有一方扣除该权重
+            account(e);
+            if (e.retired) {
+                unaccount(e);
+            }
+            return;
+        }
+        final ReentrantLock lock = this.evictionLock;
+        lock.lock();
+        try {
+            if (old != null) {
+                unlinkEntry(old);
+            }
+            if (!e.retired) {
+                linkEntry(e);
+            }
+            maintain(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key key
+     * @return 被删除的值, 不存在, 缓存的是 null 或异常时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V invalidate(K key) {
+        final Entry<K, V> e = map.remove(maskKey(key));
+        if (e == null) {
+            return null;
+        }
+        e.retired = true;
+        final ReentrantLock lock = this.evictionLock;
+        lock.lock();
+        try {
+            unlinkEntry(e);
+        } finally {
+            lock.unlock();
+        }
+        final Object v = e.getValue();
+        return v == NULL_VALUE || v instanceof Failure ? null : (V) v;
+    }
+
+    /**
+     * 仅当 key 当前缓存的是 value (同一个对象) 时删除
+     *
+     * @param key   key
+     * @param value 期望的值
+     * @return 是否删除
+     */
+    public boolean invalidate(K key, @NonNull V value) {
+        final K k = maskKey(key);
+        final Entry<K, V> e = map.get(k);
+        if (e == null || e.getValue() != value || !map.remove(k, e)) {
+            return false;
+        }
+        e.retired = true;
+        final ReentrantLock lock = this.evictionLock;
+        lock.lock();
+        try {
+            unlinkEntry(e);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * 删除所有缓存
+     */
+    public void invalidateAll() {
+        map.keySet().forEach(this::invalidate);
+    }
+
+    /**
+     * 立即清理过期, 被回收和超出容量的数据
+     */
+    public void cleanUp() {
+        final ReentrantLock lock = this.evictionLock;
+        lock.lock();
+        try {
+            maintain(ticker.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 缓存的数量, 可能包含尚未清理的过期数据
+     */
+    public long size() {
+        return map.size();
+    }
+
+    /**
+     * @return 当前的总权重, 未设置权重函数时与数量相同
+     */
+    public long getWeightedSize() {
+        return weightedSize.sum();
+    }
+
+    /**
+     * @return 统计快照
+     */
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                totalLoadNanos.sum(), evictionCount.sum(), evictionWeight.sum());
+    }
+
+    private void afterRead(Entry<K, V> e, long now) {
+        if (expireAfterAccessNanos > 0) {
+            e.accessNanos = now;
+        }
+        if (!isOrdered()) {
+            return;
+        }
+        // 获取不到锁时放弃本次调整, 不阻塞读取
+        final ReentrantLock lock = this.evictionLock;
+        if (lock.tryLock()) {
+            try {
+                if (e.accessNode != null) {
+                    onAccess(e);
+                }
+                maintain(now);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 删除已过期或已被回收的数据
+     */
+    private void removeStale(Entry<K, V> e) {
+        final ReentrantLock lock = this.evictionLock;
+        lock.lock();
+        try {
+            evict(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将数据的权重计入总权重, 每个数据只计入一次
+     */
+    private boolean account(Entry<K, V> e) {
+        if (Entry.ACCOUNTED.compareAndSet(e, 0, 1)) {
+            weightedSize.add(e.weight);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 从总权重中扣除数据的权重, 只有已计入的数据才会扣除, 且只扣除一次
+     */
+    private boolean unaccount(Entry<K, V> e) {
+        if (Entry.ACCOUNTED.compareAndSet(e, 1, 0)) {
+            weightedSize.add(-e.weight);
+            return true;
+        }
+        return false;
+    }
+
+    // ---- 以下方法调用时必须持有 evictionLock ----
+
+    private void linkEntry(Entry<K, V> e) {
+        account(e);
+        if (isOrdered()) {
+            e.queue = WINDOW;
+            e.accessNode = window.addLastNode(e);
+            windowWeight += e.weight;
+            if (sketch != null) {
+                sketch.increment(e.key);
+            }
+        }
+        if (expireAfterWriteNanos > 0) {
+            e.writeNode = writeOrder.addLastNode(e);
+        }
+    }
+
+    private void unlinkEntry(Entry<K, V> e) {
+        if (!unaccount(e)) {
+            return;
+        }
+        if (e.accessNode != null) {
+            if (e.queue == WINDOW) {
+                window.unlinkNode(e.accessNode);
+                windowWeight -= e.weight;
+            } else if (e.queue == PROBATION) {
+                probation.unlinkNode(e.accessNode);
+            } else {
+                protect.unlinkNode(e.accessNode);
+                protectedWeight -= e.weight;
+            }
+            e.accessNode = null;
+        }
+        if (e.writeNode != null) {
+            writeOrder.unlinkNode(e.writeNode);
+            e.writeNode = null;
+        }
+    }
+
+    /**
+     * 将数据从缓存中淘汰
+     */
+    private void evict(Entry<K, V> e) {
+        final boolean removed = map.remove(e.key, e);
+        e.retired = true;
+        unlinkEntry(e);
+        if (removed) {
+            evictionCount.increment();
+            evictionWeight.add(e.weight);
+        }
+    }
+
+    private void onAccess(Entry<K, V> e) {
+        if (sketch != null) {
+            sketch.increment(e.key);
+        }
+        if (e.queue == WINDOW) {
+            window.moveToLast(e.accessNode);
+        } else if (e.queue == PROTECTED) {
+            protect.moveToLast(e.accessNode);
+        } else {
+            // probation 中再次被访问的数据晋升到 protect, protect 超出容量时将最久未访问的数据降级回 probation
+            probation.unlinkNode(e.accessNode);
+            e.queue = PROTECTED;
+            e.accessNode = protect.addLastNode(e);
+            protectedWeight += e.weight;
+            while (protectedWeight > protectedMaximum && protect.getFirstNode().getItem() != e) {
+                final Entry<K, V> demoted = protect.getFirstNode().getItem();
+                protect.unlinkNode(demoted.accessNode);
+                protectedWeight -= demoted.weight;
+                demoted.queue = PROBATION;
+                demoted.accessNode = probation.addLastNode(demoted);
+            }
+        }
+    }
+
+    private void maintain(long now) {
+        drainReferences();
+        expireEntries(now);
+        evictEntries();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainReferences() {
+        if (valueStrength == ValueStrength.STRONG) {
+            return;
+        }
+        Reference<? extends V> ref;
+        while ((ref = referenceQueue.poll()) != null) {
+            evict(((ValueReference<K, V>) ref).getEntry());
+        }
+    }
+
+    private void expireEntries(long now) {
+        if (expireAfterWriteNanos > 0) {
+            expireEntries(writeOrder, now);
+        }
+        if (expireAfterAccessNanos > 0) {
+            expireEntries(window, now);
+            expireEntries(probation, now);
+            expireEntries(protect, now);
+        }
+    }
+
+    private void expireEntries(LinkedListCopy<Entry<K, V>> queue, long now) {
+        LinkedListCopy.Node<Entry<K, V>> node;
+        while ((node = queue.getFirstNode()) != null && isExpired(node.getItem(), now)) {
+            evict(node.getItem());
+        }
+    }
+
+    private void evictEntries() {
+        if (sketch == null) {
+            LinkedListCopy.Node<Entry<K, V>> node;
+            while (weightedSize.sum() > maximum && (node = window.getFirstNode()) != null) {
+                evict(node.getItem());
+            }
+            return;
+        }
+        // 窗口中超出的数据作为候选者进入 probation 尾部
+        int candidates = 0;
+        while (windowWeight > windowMaximum && window.getFirstNode() != null) {
+            final Entry<K, V> c = window.getFirstNode().getItem();
+            window.unlinkNode(c.accessNode);
+            windowWeight -= c.weight;
+            c.queue = PROBATION;
+            c.accessNode = probation.addLastNode(c);
+            candidates++;
+        }
+        while (weightedSize.sum() > maximum) {
+            if (probation.getFirstNode() == null) {
+                final LinkedListCopy.Node<Entry<K, V>> node = protect.getFirstNode() != null ? protect.getFirstNode() : window.getFirstNode();
+                if (node == null) {
+                    break;
+                }
+                evict(node.getItem());
+                continue;
+            }
+            final Entry<K, V> victim = probation.getFirstNode().getItem();
+            final Entry<K, V> candidate = candidates > 0 ? probation.getLastNode().getItem() : null;
+            if (candidate == null || candidate == victim) {
+                evict(victim);
+                if (candidate != null) {
+                    candidates--;
+                }
+            } else if (candidate.weight <= maximum && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+                candidates--;
+            }
+        }
+    }
+
+    /**
+     * 缓存的数据, 每次写入创建新的对象
+     */
+    static final class Entry<K, V> {
+        final K key;
+        /**
+         * 值本身, 或者指向值的 ValueReference
+         */
+        final Object value;
+        final int weight;
+        final long writeNanos;
+        volatile long accessNanos;
+        /**
+         * 是否已从 map 中删除或替换
+         */
+        volatile boolean retired;
+        /**
+         * 是否正在异步刷新, 1 表示正在刷新
+         */
+        volatile int refreshing;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<Entry> REFRESHING = AtomicIntegerFieldUpdater.newUpdater(Entry.class, "refreshing");
+        /**
+         * 权重是否已计入总权重, 1 表示已计入
+         */
+        volatile int accounted;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<Entry> ACCOUNTED = AtomicIntegerFieldUpdater.newUpdater(Entry.class, "accounted");
+        // 以下字段由 evictionLock 保护
+        byte queue;
+        LinkedListCopy.Node<Entry<K, V>> accessNode;
+        LinkedListCopy.Node<Entry<K, V>> writeNode;
+
+        @SuppressWarnings("unchecked")
+        Entry(K key, Object value, int weight, long now, ValueStrength strength, ReferenceQueue<V> queue) {
+            this.key = key;
+            this.weight = weight;
+            this.writeNanos = now;
+            this.accessNanos = now;
+            if (strength == ValueStrength.SOFT) {
+                this.value = new SoftValue<>((V) value, this, queue);
+            } else if (strength == ValueStrength.WEAK) {
+                this.value = new WeakValue<>((V) value, this, queue);
+            } else {
+                this.value = value;
+            }
+        }
+
+        /**
+         * @return 值, 被 GC 回收时返回 null
+         */
+        Object getValue() {
+            return value instanceof ValueReference ? ((Reference<?>) value).get() : value;
+        }
+    }
+
+    /**
+     * 缓存的加载异常
+     */
+    static final class Failure {
+        final RuntimeException exception;
+        final long ttlNanos;
+
+        Failure(RuntimeException exception, long ttlNanos) {
+            this.exception = exception;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    interface ValueReference<K, V> {
+        Entry<K, V> getEntry();
+    }
+
+    static final class SoftValue<K, V> extends SoftReference<V> implements ValueReference<K, V> {
+        private final Entry<K, V> entry;
+
+        SoftValue(V referent, Entry<K, V> entry, ReferenceQueue<V> queue) {
+            super(referent, queue);
+            this.entry = entry;
+        }
+
+        @Override
+        public Entry<K, V> getEntry() {
+            return entry;
+        }
+    }
+
+    static final class WeakValue<K, V> extends WeakReference<V> implements ValueReference<K, V> {
+        private final Entry<K, V> entry;
+
+        WeakValue(V referent, Entry<K, V> entry, ReferenceQueue<V> queue) {
+            super(referent, queue);
+            this.entry = entry;
+        }
+
+        @Override
+        public Entry<K, V> getEntry() {
+            return entry;
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.github.cosycode.common.ext.struct;
+
+import lombok.Getter;
+
+/**
+ * <b>Description : </b> BoundedCache 的统计快照
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Getter
+public final class CacheStats {
+
+    /**
+     * 命中次数
+     */
+    private final long hitCount;
+
+    /**
+     * 未命中次数
+     */
+    private final long missCount;
+
+    /**
+     * 加载成功次数
+     */
+    private final long loadSuccessCount;
+
+    /**
+     * 加载失败(抛出异常)次数
+     */
+    private final long loadFailureCount;
+
+    /**
+     * 加载总耗时(纳秒)
+     */
+    private final long totalLoadNanos;
+
+    /**
+     * 淘汰次数, 包含超出容量, 过期和值被 GC 回收
+     */
+    private final long evictionCount;
+
+    /**
+     * 淘汰的总权重
+     */
+    private final long evictionWeight;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadNanos, long evictionCount, long evictionWeight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadNanos = totalLoadNanos;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+    }
+
+    /**
+     * @return 请求次数
+     */
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return 命中率, 没有请求时为 1
+     */
+    public double hitRate() {
+        final long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * @return 平均加载耗时(纳秒)
+     */
+    public double averageLoadNanos() {
+        final long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) totalLoadNanos / loads;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", hitRate=" + String.format("%.4f", hitRate())
+                + ", loadSuccessCount=" + loadSuccessCount + ", loadFailureCount=" + loadFailureCount + ", totalLoadNanos=" + totalLoadNanos
+                + ", evictionCount=" + evictionCount + ", evictionWeight=" + evictionWeight + '}';
+    }
+
+}
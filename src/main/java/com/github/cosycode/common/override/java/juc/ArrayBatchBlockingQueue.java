@@ -1,8 +1,13 @@
 package com.github.cosycode.common.override.java.juc;
 
+import org.apache.commons.lang3.Validate;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -11,6 +16,15 @@ import java.util.concurrent.locks.ReentrantLock;
  *     由于有一个需求, 我需要一个能够批量存储和提取的缓存队列, 但是 java.util.concurrent.ArrayBlockingQueue, 无法实现这个需求,
  *     <br>
  *     而且 java.util.concurrent.ArrayBlockingQueue 是一个 final 类, 无法继承, 所以只好将 ArrayBlockingQueue 代码全部拷贝了出来, 并加了几个方法
+ *     <br>
+ *     批量取出时直接从环形数组中复制, 最多两段 System.arraycopy, 不逐个调用 dequeue;
+ *     {@link #drainTo(Object[], int, int)} 和 {@link #takeBatch(Object[], int, int, long, TimeUnit)} 将元素复制到调用方提供的数组中, 不产生任何垃圾对象.
+ *     <br>
+ *     通过 {@link #setLinger(int, long, TimeUnit)} 可以设置最小批量和凑批等待时间: 阻塞的批量取出方法在取到第一个元素后,
+ *     若元素数量不足最小批量, 则最多再等待 linger 时间.
+ *     <br>
+ *     批量放入时只加一次锁, 同样以最多两段 System.arraycopy 写入环形数组, 并且只在放入之后通知等待的消费者;
+ *     队列空间不足时, 先放入能放下的部分, 再等待剩余空间.
  * </p>
  * <b>created in </b> 2021/1/20
  *
@@ -18,6 +32,17 @@ import java.util.concurrent.locks.ReentrantLock;
  * @since 1.2
  **/
 public class ArrayBatchBlockingQueue<E> extends ArrayBlockingQueueCopy<E> {
+
+    /**
+     * 最小批量, 阻塞的批量取出方法在数量不足时最多等待 lingerNanos
+     */
+    private volatile int minBatch = 1;
+
+    /**
+     * 凑批的最长等待时间(纳秒), 为 0 表示不等待
+     */
+    private volatile long lingerNanos;
+
     /**
      * Creates an {@code ArrayBlockingQueue} with the given (fixed)
      * capacity and default access policy.
@@ -74,19 +99,328 @@ public class ArrayBatchBlockingQueue<E> extends ArrayBlockingQueueCopy<E> {
         final ReentrantLock lock = super.lock;
         lock.lockInterruptibly();
         try {
-            while (count == 0) {
-                notEmpty.await();
+            awaitBatch(cnt, -1);
+            return dequeueBatch(cnt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 一次性提取指定数量的列表对象, 队列为空时最多等待 timeout 时间, 凑批等待也不会超过该时间
+     *
+     * @param cnt     最大取出数量
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 取出的列表, 超时返回空列表
+     * @throws InterruptedException 等待期间被中断
+     */
+    public List<E> takeBatch(int cnt, long timeout, TimeUnit unit) throws InterruptedException {
+        final ReentrantLock lock = super.lock;
+        lock.lockInterruptibly();
+        try {
+            if (!awaitBatch(cnt, Math.max(0, unit.toNanos(timeout)))) {
+                return Collections.emptyList();
             }
-            // 确定提取数据条数
-            final int deCount = Math.min(cnt, count);
-            final List<E> list = new ArrayList<>(deCount);
-            for (int i = 0; i < deCount; i++) {
-                list.add(dequeue());
+            return dequeueBatch(cnt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 一次性提取指定数量的列表对象, 不等待
+     *
+     * @param cnt 最大取出数量
+     * @return 取出的列表, 队列为空时返回空列表
+     */
+    public List<E> pollBatch(int cnt) {
+        final ReentrantLock lock = super.lock;
+        lock.lock();
+        try {
+            return count == 0 ? Collections.emptyList() : dequeueBatch(cnt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将队列中的元素复制到指定数组中, 不等待, 也不创建任何对象
+     *
+     * @param buffer 目标数组
+     * @param offset 目标数组的起始位置
+     * @param max    最大取出数量
+     * @return 取出的数量
+     */
+    public int drainTo(E[] buffer, int offset, int max) {
+        checkRange(buffer, offset, max);
+        final ReentrantLock lock = super.lock;
+        lock.lock();
+        try {
+            return dequeueBatch(buffer, offset, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将队列中的元素复制到指定数组中, 队列为空时最多等待 timeout 时间(凑批等待也不会超过该时间), 不创建任何对象
+     *
+     * @param buffer  目标数组
+     * @param offset  目标数组的起始位置
+     * @param max     最大取出数量
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 取出的数量, 超时返回 0
+     * @throws InterruptedException 等待期间被中断
+     */
+    public int takeBatch(E[] buffer, int offset, int max, long timeout, TimeUnit unit) throws InterruptedException {
+        checkRange(buffer, offset, max);
+        final ReentrantLock lock = super.lock;
+        lock.lockInterruptibly();
+        try {
+            if (max == 0 || !awaitBatch(max, Math.max(0, unit.toNanos(timeout)))) {
+                return 0;
+            }
+            return dequeueBatch(buffer, offset, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将集合中的元素全部放入队列, 空间不足时等待
+     *
+     * @param c 放入的元素集合, 不能包含 null
+     * @throws InterruptedException 等待期间被中断, 此时部分元素可能已经放入队列
+     */
+    public void putBatch(Collection<? extends E> c) throws InterruptedException {
+        final Object[] a = c.toArray();
+        checkNoneNull(a, 0, a.length);
+        final ReentrantLock lock = super.lock;
+        lock.lockInterruptibly();
+        try {
+            int from = 0;
+            while (true) {
+                from += enqueueBatch(a, from, a.length);
+                if (from == a.length) {
+                    return;
+                }
+                notFull.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将数组中 [from, to) 的元素放入队列, 能放多少放多少, 不等待
+     *
+     * @param a    放入的元素数组, 不能包含 null
+     * @param from 起始位置(包含)
+     * @param to   结束位置(不包含)
+     * @return 放入的数量
+     */
+    public int offerBatch(E[] a, int from, int to) {
+        checkNoneNull(a, from, to);
+        final ReentrantLock lock = super.lock;
+        lock.lock();
+        try {
+            return enqueueBatch(a, from, to);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将数组中 [from, to) 的元素放入队列, 空间不足时最多等待 timeout 时间
+     *
+     * @param a       放入的元素数组, 不能包含 null
+     * @param from    起始位置(包含)
+     * @param to      结束位置(不包含)
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 放入的数量, 超时时可能小于 to - from
+     * @throws InterruptedException 等待期间被中断, 此时部分元素可能已经放入队列
+     */
+    public int offerBatch(E[] a, int from, int to, long timeout, TimeUnit unit) throws InterruptedException {
+        checkNoneNull(a, from, to);
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = super.lock;
+        lock.lockInterruptibly();
+        try {
+            int i = from;
+            while (true) {
+                i += enqueueBatch(a, i, to);
+                if (i == to || nanos <= 0) {
+                    return i - from;
+                }
+                nanos = notFull.awaitNanos(nanos);
             }
-            return list;
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * 设置最小批量和凑批等待时间, 对阻塞的批量取出方法生效
+     *
+     * @param minBatch 最小批量
+     * @param linger   取到第一个元素后, 数量不足最小批量时的最长等待时间, 为 0 表示不等待
+     * @param unit     时间单位
+     * @return 当前对象
+     */
+    public ArrayBatchBlockingQueue<E> setLinger(int minBatch, long linger, TimeUnit unit) {
+        Validate.isTrue(minBatch > 0, "minBatch:%s must > 0", minBatch);
+        Validate.isTrue(linger >= 0, "linger:%s cannot < 0", linger);
+        this.minBatch = minBatch;
+        this.lingerNanos = unit.toNanos(linger);
+        return this;
+    }
+
+    /**
+     * 等待队列中有元素, 之后按照凑批设置再等待; 调用时必须持有锁
+     *
+     * @param cnt   本次最大取出数量
+     * @param nanos 最长等待时间(包括凑批等待), 小于 0 表示一直等待第一个元素
+     * @return 队列中是否有元素
+     */
+    private boolean awaitBatch(int cnt, long nanos) throws InterruptedException {
+        final long deadline = System.nanoTime() + nanos;
+        for (; ; ) {
+            while (count == 0) {
+                if (nanos < 0) {
+                    notEmpty.await();
+                } else {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    notEmpty.awaitNanos(remaining);
+                }
+            }
+            final int min = Math.min(minBatch, cnt);
+            long linger = nanos < 0 ? lingerNanos : Math.min(lingerNanos, deadline - System.nanoTime());
+            while (count < min && linger > 0) {
+                linger = notEmpty.awaitNanos(linger);
+            }
+            // 凑批期间可能被其它消费者取走, 此时在剩余时间内重新等待
+            if (count > 0) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 通过最多两段 System.arraycopy 将 a 中 [from, to) 的元素放入队列, 能放多少放多少; 调用时必须持有锁
+     *
+     * @return 放入的数量
+     */
+    private int enqueueBatch(Object[] a, int from, int to) {
+        final Object[] items = this.items;
+        final int n = Math.min(to - from, items.length - count);
+        if (n <= 0) {
+            return 0;
+        }
+        final int first = Math.min(n, items.length - putIndex);
+        System.arraycopy(a, from, items, putIndex, first);
+        if (n > first) {
+            System.arraycopy(a, from + first, items, 0, n - first);
+            putIndex = n - first;
+        } else {
+            putIndex = putIndex + first == items.length ? 0 : putIndex + first;
+        }
+        count += n;
+        for (int i = n; i > 0 && lock.hasWaiters(notEmpty); i--) {
+            notEmpty.signal();
+        }
+        return n;
+    }
+
+    /**
+     * 取出最多 cnt 个元素到新的列表中; 调用时必须持有锁
+     */
+    @SuppressWarnings("unchecked")
+    private List<E> dequeueBatch(int cnt) {
+        final int n = Math.min(cnt, count);
+        if (n <= 0) {
+            return new ArrayList<>(0);
+        }
+        final Object[] items = this.items;
+        final List<E> list = new ArrayList<>(n);
+        final int first = Math.min(n, items.length - takeIndex);
+        for (int i = takeIndex; i < takeIndex + first; i++) {
+            list.add((E) items[i]);
+        }
+        for (int i = 0; i < n - first; i++) {
+            list.add((E) items[i]);
+        }
+        afterDequeueBatch(n, first);
+        return list;
+    }
+
+    /**
+     * 通过最多两段 System.arraycopy 取出最多 max 个元素到指定数组中; 调用时必须持有锁
+     */
+    private int dequeueBatch(Object[] buffer, int offset, int max) {
+        final int n = Math.min(max, count);
+        if (n <= 0) {
+            return 0;
+        }
+        final Object[] items = this.items;
+        final int first = Math.min(n, items.length - takeIndex);
+        System.arraycopy(items, takeIndex, buffer, offset, first);
+        if (n > first) {
+            System.arraycopy(items, 0, buffer, offset + first, n - first);
+        }
+        afterDequeueBatch(n, first);
+        return n;
+    }
+
+    /**
+     * 批量取出之后, 清空取出的槽位, 更新下标和数量, 通知迭代器和等待的生产者; 调用时必须持有锁
+     *
+     * @param n     取出的数量
+     * @param first 第一段(从 takeIndex 到数组末尾)取出的数量
+     */
+    private void afterDequeueBatch(int n, int first) {
+        final Object[] items = this.items;
+        Arrays.fill(items, takeIndex, takeIndex + first, null);
+        final boolean wrapped = n > first || takeIndex + first == items.length;
+        if (n > first) {
+            Arrays.fill(items, 0, n - first, null);
+            takeIndex = n - first;
+        } else {
+            takeIndex = takeIndex + first == items.length ? 0 : takeIndex + first;
+        }
+        count -= n;
+        if (itrs != null) {
+            if (count == 0) {
+                itrs.queueIsEmpty();
+            } else if (wrapped) {
+                itrs.takeIndexWrapped();
+            }
+        }
+        for (int i = n; i > 0 && lock.hasWaiters(notFull); i--) {
+            notFull.signal();
+        }
+    }
+
+    private static void checkNoneNull(Object[] a, int from, int to) {
+        if (from < 0 || from > to || to > a.length) {
+            throw new IndexOutOfBoundsException(String.format("from: %d, to: %d, length: %d", from, to, a.length));
+        }
+        for (int i = from; i < to; i++) {
+            if (a[i] == null) {
+                throw new NullPointerException("element at index " + i + " is null");
+            }
+        }
+    }
+
+    private static void checkRange(Object[] buffer, int offset, int max) {
+        if (offset < 0 || max < 0 || offset > buffer.length - max) {
+            throw new IndexOutOfBoundsException(String.format("offset: %d, max: %d, length: %d", offset, max, buffer.length));
+        }
+    }
+
 }
@@ -0,0 +1,429 @@
+package com.github.cosycode.common.override.java.juc;
+
+import com.github.cosycode.common.lang.RuntimeExtException;
+import lombok.NonNull;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b>Description : </b> 元素存储在堆外内存中的有界字节记录阻塞队列
+ * <p>
+ * 队列中的每个 byte[] 元素以 "4 字节长度 + 内容" 的记录形式依次写入一块环形的 direct 内存或内存映射文件,
+ * 放入时复制进去, 取出时再复制出来, 因此积压的消息不会以对象的形式留在堆上, 积压量增长也不会增加 GC 的负担.
+ * <br> <b>容量: </b> 容量按照字节计算(记录长度 + 4 字节长度前缀), 单个队列最大不超过 Integer.MAX_VALUE 字节;
+ * 记录不会跨越缓冲区末尾, 末尾剩余空间不足时写入一个回绕标记并从头开始写, 被跳过的空间在读取完其前面的记录后释放.
+ * <br> <b>兼容: </b> 实现了 BlockingQueue&lt;byte[]&gt;, 可以直接作为 AsynchronousProcessor 的 blockingQueue 构造参数(AsynchronousProcessor 不需要 remove(Object));
+ * 与 ArrayBlockingQueueCopy 相同, 使用一把锁和两个条件变量.
+ * <br> 由于 byte[] 没有按内容比较的 equals 方法, 迭代器返回的是所有记录的副本快照, 不支持 remove 操作, remove(Object) 也不受支持.
+ * <br> 内存映射文件只是作为存储空间使用, 重新打开时并不会恢复之前的数据.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class ByteRecordBlockingQueue extends AbstractQueue<byte[]> implements BlockingQueue<byte[]> {
+
+    /**
+     * 记录长度前缀的字节数
+     */
+    public static final int HEADER_BYTES = 4;
+
+    /**
+     * 回绕标记, 表示从当前位置到缓冲区末尾的空间被跳过
+     */
+    private static final int WRAP = -1;
+
+    private final ByteBuffer buffer;
+
+    private final int capacity;
+
+    /**
+     * 下一条读取记录的位置
+     */
+    private int head;
+
+    /**
+     * 下一条写入记录的位置
+     */
+    private int tail;
+
+    /**
+     * 已使用的字节数, 包含尚未释放的回绕跳过空间
+     */
+    private int usedBytes;
+
+    /**
+     * 记录数量
+     */
+    private int count;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * @param buffer 存储记录的缓冲区, 其 position 到 limit 之间的空间将被该队列独占使用
+     */
+    public ByteRecordBlockingQueue(@NonNull ByteBuffer buffer) {
+        Validate.isTrue(buffer.remaining() > HEADER_BYTES, "buffer remaining:%s must > %s", buffer.remaining(), HEADER_BYTES);
+        this.buffer = buffer.slice();
+        this.capacity = this.buffer.capacity();
+    }
+
+    /**
+     * 在 direct 内存中创建队列
+     *
+     * @param capacityBytes 容量(字节)
+     * @return 队列
+     */
+    public static ByteRecordBlockingQueue direct(int capacityBytes) {
+        return new ByteRecordBlockingQueue(ByteBuffer.allocateDirect(capacityBytes));
+    }
+
+    /**
+     * 在内存映射文件中创建队列, 文件不存在时创建, 已有内容将被覆盖
+     *
+     * @param file          映射的文件
+     * @param capacityBytes 容量(字节)
+     * @return 队列
+     */
+    public static ByteRecordBlockingQueue mapped(@NonNull Path file, int capacityBytes) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new ByteRecordBlockingQueue(channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes));
+        } catch (IOException e) {
+            throw new RuntimeExtException("failed to map file " + file, e);
+        }
+    }
+
+    /**
+     * 判断当前是否有空间写入一条记录; 调用时必须持有锁
+     *
+     * @param need 记录占用的字节数
+     */
+    private boolean hasRoom(int need) {
+        final int free = capacity - usedBytes;
+        final int end = capacity - tail;
+        // 末尾放不下时需要额外跳过末尾的空间
+        return need <= end ? free >= need : free >= end + need;
+    }
+
+    /**
+     * 写入一条记录, 调用时必须持有锁, 且 hasRoom 为 true
+     */
+    private void enqueue(byte[] e) {
+        final int need = HEADER_BYTES + e.length;
+        final int end = capacity - tail;
+        if (need > end) {
+            if (end >= HEADER_BYTES) {
+                buffer.putInt(tail, WRAP);
+            }
+            usedBytes += end;
+            tail = 0;
+        }
+        buffer.putInt(tail, e.length);
+        buffer.position(tail + HEADER_BYTES);
+        buffer.put(e);
+        tail += need;
+        if (tail == capacity) {
+            tail = 0;
+        }
+        usedBytes += need;
+        count++;
+        notEmpty.signal();
+    }
+
+    /**
+     * 队头位于回绕跳过的空间时, 释放该空间并回到开头; 调用时必须持有锁, 且队列非空
+     */
+    private void skipWrap() {
+        final int end = capacity - head;
+        if (end < HEADER_BYTES || buffer.getInt(head) == WRAP) {
+            usedBytes -= end;
+            head = 0;
+        }
+    }
+
+    /**
+     * 复制出队头的记录但不移动队头, 调用时必须持有锁, 且队列非空
+     */
+    private byte[] readHead() {
+        final byte[] e = new byte[buffer.getInt(head)];
+        buffer.position(head + HEADER_BYTES);
+        buffer.get(e);
+        return e;
+    }
+
+    /**
+     * 释放队头长度为 length 的记录, 调用时必须持有锁, 且队列非空
+     */
+    private void releaseHead(int length) {
+        if (--count == 0) {
+            // 队列为空时从头开始写, 尽量避免回绕
+            head = tail = 0;
+            usedBytes = 0;
+        } else {
+            head += HEADER_BYTES + length;
+            usedBytes -= HEADER_BYTES + length;
+            if (head == capacity) {
+                head = 0;
+            } else {
+                skipWrap();
+            }
+        }
+        notFull.signal();
+    }
+
+    /**
+     * 读取一条记录, 调用时必须持有锁, 且队列非空
+     */
+    private byte[] dequeue() {
+        final byte[] e = readHead();
+        releaseHead(e.length);
+        return e;
+    }
+
+    private void checkLength(byte[] e) {
+        if ((long) e.length + HEADER_BYTES > capacity) {
+            throw new IllegalArgumentException(String.format("record length %d exceeds capacity %d", e.length, capacity - HEADER_BYTES));
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull byte[] e) {
+        checkLength(e);
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            if (!hasRoom(HEADER_BYTES + e.length)) {
+                return false;
+            }
+            enqueue(e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(@NonNull byte[] e) throws InterruptedException {
+        checkLength(e);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (!hasRoom(HEADER_BYTES + e.length)) {
+                notFull.await();
+            }
+            enqueue(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull byte[] e, long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        checkLength(e);
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (!hasRoom(HEADER_BYTES + e.length)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public byte[] poll() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public byte[] take() throws InterruptedException {
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public byte[] poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 队头记录的副本, 队列为空时返回 null
+     */
+    @Override
+    public byte[] peek() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return count == 0 ? null : readHead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 最多还能放入多少条空记录; 实际能放入的数量取决于记录的长度
+     */
+    @Override
+    public int remainingCapacity() {
+        return (capacity - getUsedBytes()) / HEADER_BYTES;
+    }
+
+    /**
+     * @return 容量(字节)
+     */
+    public int getCapacityBytes() {
+        return capacity;
+    }
+
+    /**
+     * @return 已使用的字节数, 包含长度前缀和回绕跳过的空间
+     */
+    public int getUsedBytes() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super byte[]> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@NonNull Collection<? super byte[]> c, int maxElements) {
+        Validate.isTrue(c != this, "cannot drain a queue to itself");
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            int n = 0;
+            while (n < maxElements && count > 0) {
+                // 先放入 c 再释放, c.add 抛出异常时记录仍留在队列中
+                final byte[] e = readHead();
+                c.add(e);
+                releaseHead(e.length);
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            head = tail = 0;
+            usedBytes = 0;
+            count = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 不支持按内容删除, byte[] 只能按引用比较, 而队列中保存的是副本
+     */
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException("ByteRecordBlockingQueue does not support remove(Object)");
+    }
+
+    /**
+     * @return 所有记录副本的快照迭代器, 不支持 remove 操作
+     */
+    @Override
+    public Iterator<byte[]> iterator() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            final List<byte[]> snapshot = new ArrayList<>(count);
+            int pos = head;
+            for (int i = 0; i < count; i++) {
+                if (capacity - pos < HEADER_BYTES || buffer.getInt(pos) == WRAP) {
+                    pos = 0;
+                }
+                final byte[] e = new byte[buffer.getInt(pos)];
+                buffer.position(pos + HEADER_BYTES);
+                buffer.get(e);
+                snapshot.add(e);
+                pos += HEADER_BYTES + e.length;
+            }
+            return Collections.unmodifiableList(snapshot).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.github.cosycode.common.override.java.juc;
+
+import java.util.Comparator;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b>Description : </b> 有界延迟阻塞队列, 只有到期的元素才能取出, 支持一次性批量取出所有到期的元素
+ * <p>
+ * 与 java.util.concurrent.DelayQueue 相同, 元素按照到期时间排序, poll/take 只返回到期的元素, peek 返回最早到期的元素(无论是否到期);
+ * 不同的是队列有界, 并且 {@link #takeBatch(int)} 等批量方法在一次唤醒中取出多个到期的元素, 适合一次释放大量同时到期的定时任务.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class DelayBatchBlockingQueue<E extends Delayed> extends PriorityBatchBlockingQueue<E> {
+
+    /**
+     * @param capacity 队列容量
+     */
+    public DelayBatchBlockingQueue(int capacity) {
+        super(capacity, Comparator.naturalOrder());
+    }
+
+    @Override
+    protected long getReadyDelay(E head) {
+        return head.getDelay(TimeUnit.NANOSECONDS);
+    }
+
+}
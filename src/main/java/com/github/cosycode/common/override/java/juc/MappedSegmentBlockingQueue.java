@@ -0,0 +1,755 @@
+package com.github.cosycode.common.override.java.juc;
+
+import com.github.cosycode.common.lang.RuntimeExtException;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Validate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * <b>Description : </b> 基于内存映射分段文件的持久化阻塞队列, 进程崩溃之后可以从上次的检查点继续消费
+ * <p>
+ * <b>分段: </b> 元素以 "4 字节(长度 + 1) + 4 字节 CRC32 + 内容" 的记录形式顺序追加到目录下的分段文件(NNN.seg)中,
+ * 每个分段文件大小固定并整体映射到内存, 写满后切换到下一个分段; 每条记录之后都会写入一个 0 作为结束标记, 恢复时扫描到结束标记或校验失败即停止.
+ * CRC32 除了内容之外还覆盖记录所在的分段序号和偏移, 复用的备用文件中残留的旧记录即使结束标记没有落盘, 恢复时也会因为校验失败而被忽略.
+ * <br> <b>批量刷盘: </b> 写入只是写到映射内存中, 每写入 syncEveryRecords 条或距离上次刷盘超过 syncInterval 时才调用一次 force,
+ * 切换分段和关闭时也会刷盘; 也可以主动调用 {@link #sync()}. 因此持久化的开销由一批记录分摊, 而不是每条记录一次.
+ * <br> <b>检查点: </b> 消费位置记录在 checkpoint 文件的两个交替写入的槽位中(带序号和校验), 恢复时从最新的有效槽位继续消费.
+ * 开启自动检查点时, 每取出 checkpointEvery 次, 记录的是本次取出之前的位置, 即对单个顺序处理的消费者(例如 AsynchronousProcessor)而言,
+ * 取出下一条消息意味着之前的消息已经处理完毕, 崩溃后最多重复处理检查点之后的消息(至少一次).
+ * <br> <b>分段回收: </b> 检查点越过的分段不再需要, 最多保留 maxSpareSegments 个作为备用文件, 之后切换分段时直接改名复用, 其余删除.
+ * <br> 队列无界(受磁盘空间限制), put 不会阻塞; 元素为 byte[], 迭代器返回所有记录副本的快照, 不支持 remove(Object)(AsynchronousProcessor 不需要该方法).
+ * 同一时刻只能有一个队列实例打开同一个目录; 分段文件的内存映射在对应的 MappedByteBuffer 被 GC 回收时才会释放.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class MappedSegmentBlockingQueue extends AbstractQueue<byte[]> implements BlockingQueue<byte[]>, Closeable {
+
+    /**
+     * 记录头的字节数: 长度 + 1, CRC32
+     */
+    public static final int HEADER_BYTES = 8;
+
+    /**
+     * 默认分段大小 64MB
+     */
+    public static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String SPARE_PREFIX = "spare-";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * 检查点槽位字节数: 序号, 分段, 偏移, 校验
+     */
+    private static final int CHECKPOINT_SLOT_BYTES = 24;
+
+    @Getter
+    private final Path directory;
+
+    @Getter
+    private final int segmentBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * 记录校验时的 "分段序号 + 偏移" 前缀
+     */
+    private final byte[] crcPrefix = new byte[12];
+
+    /**
+     * 尚未回收的分段, 从最早的分段到当前写入的分段
+     */
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+    /**
+     * 备用的分段文件
+     */
+    private final Deque<Path> spares = new ArrayDeque<>();
+
+    private final MappedByteBuffer checkpointBuffer;
+
+    private long checkpointSeq;
+
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private int writeOffset;
+
+    private long readSegment;
+    private MappedByteBuffer readBuffer;
+    private int readOffset;
+
+    /**
+     * 最近一次取出之前的消费位置, 自动检查点使用
+     */
+    private long ackSegment;
+    private int ackOffset;
+
+    private int count;
+
+    private int unsyncedRecords;
+    private long lastSyncNanos = System.nanoTime();
+    private int dequeuedSinceCheckpoint;
+
+    private volatile int syncEveryRecords = 10_000;
+    private volatile long syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private volatile int checkpointEvery = 1_000;
+    private volatile int maxSpareSegments = 2;
+
+    private boolean closed;
+
+    /**
+     * 使用默认分段大小打开队列
+     *
+     * @param directory 存放分段文件和检查点的目录, 不存在时创建
+     */
+    public MappedSegmentBlockingQueue(@NonNull Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * 打开队列, 目录中已有数据时从检查点恢复
+     *
+     * @param directory    存放分段文件和检查点的目录, 不存在时创建
+     * @param segmentBytes 分段文件大小, 单条记录(内容 + 8 字节)不能超过该大小
+     */
+    public MappedSegmentBlockingQueue(@NonNull Path directory, int segmentBytes) {
+        Validate.isTrue(segmentBytes > HEADER_BYTES * 2, "segmentBytes:%s must > %s", segmentBytes, HEADER_BYTES * 2);
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            this.checkpointBuffer = map(directory.resolve(CHECKPOINT_FILE), CHECKPOINT_SLOT_BYTES * 2);
+            recover();
+        } catch (IOException e) {
+            throw new RuntimeExtException("failed to open queue in " + directory, e);
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * 读取检查点, 扫描检查点之后的分段, 得到消费位置, 写入位置和记录数量
+     */
+    private void recover() throws IOException {
+        final TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                final String name = path.getFileName().toString();
+                if (name.startsWith(SPARE_PREFIX)) {
+                    spares.add(path);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    files.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), path);
+                }
+            }
+        }
+        long segment = files.isEmpty() ? 0 : files.firstKey();
+        int offset = 0;
+        final long[] checkpoint = readCheckpoint();
+        if (checkpoint != null && checkpoint[1] >= segment) {
+            segment = checkpoint[1];
+            offset = (int) checkpoint[2];
+            checkpointSeq = checkpoint[0];
+        }
+        // 检查点之前的分段已经消费完毕
+        for (Path path : files.headMap(segment).values()) {
+            recycle(path);
+        }
+        final List<Long> indexes = new ArrayList<>(files.tailMap(segment).keySet());
+        if (indexes.isEmpty() || indexes.get(0) != segment) {
+            offset = 0;
+            if (indexes.isEmpty()) {
+                indexes.add(segment);
+            } else {
+                segment = indexes.get(0);
+            }
+        }
+        readSegment = ackSegment = segment;
+        readOffset = ackOffset = offset;
+        for (int i = 0; i < indexes.size(); i++) {
+            final long index = indexes.get(i);
+            final MappedByteBuffer buffer = map(segmentPath(index), segmentBytes);
+            segments.put(index, buffer);
+            int pos = index == segment ? offset : 0;
+            int len;
+            while ((len = validRecordLength(index, buffer, pos)) >= 0) {
+                pos += HEADER_BYTES + len;
+                count++;
+            }
+            writeSegment = index;
+            writeBuffer = buffer;
+            writeOffset = pos;
+            if (i < indexes.size() - 1 && pos < segmentBytes - 4) {
+                buffer.putInt(pos, 0);
+            }
+        }
+        readBuffer = segments.get(readSegment);
+        if (writeOffset <= segmentBytes - 4) {
+            writeBuffer.putInt(writeOffset, 0);
+        }
+        log.debug("MappedSegmentBlockingQueue [{}] recovered {} records from segment {} offset {}", directory, count, readSegment, readOffset);
+    }
+
+    /**
+     * 校验指定位置的记录
+     *
+     * @param segment 分段序号
+     * @return 记录内容的长度, 没有有效记录时返回 -1
+     */
+    private int validRecordLength(long segment, ByteBuffer buffer, int pos) {
+        if (pos > segmentBytes - HEADER_BYTES) {
+            return -1;
+        }
+        final int len = buffer.getInt(pos) - 1;
+        if (len < 0 || len > segmentBytes - HEADER_BYTES - pos) {
+            return -1;
+        }
+        final ByteBuffer content = buffer.duplicate();
+        content.position(pos + HEADER_BYTES).limit(pos + HEADER_BYTES + len);
+        resetRecordCrc(segment, pos);
+        crc.update(content);
+        return (int) crc.getValue() == buffer.getInt(pos + 4) ? len : -1;
+    }
+
+    /**
+     * 重置 crc 并写入记录位置, 之后再写入记录内容
+     */
+    private void resetRecordCrc(long segment, int pos) {
+        ByteBuffer.wrap(crcPrefix).putLong(segment).putInt(pos);
+        crc.reset();
+        crc.update(crcPrefix, 0, crcPrefix.length);
+    }
+
+    /**
+     * @return 最新的有效检查点 {序号, 分段, 偏移}, 没有时返回 null
+     */
+    private long[] readCheckpoint() {
+        long[] latest = null;
+        for (int slot = 0; slot < 2; slot++) {
+            final int base = slot * CHECKPOINT_SLOT_BYTES;
+            final long seq = checkpointBuffer.getLong(base);
+            final long segment = checkpointBuffer.getLong(base + 8);
+            final int offset = checkpointBuffer.getInt(base + 16);
+            if (seq > 0 && checkpointCrc(seq, segment, offset) == checkpointBuffer.getInt(base + 20) && (latest == null || seq > latest[0])) {
+                latest = new long[]{seq, segment, offset};
+            }
+        }
+        return latest;
+    }
+
+    private int checkpointCrc(long seq, long segment, int offset) {
+        crc.reset();
+        crc.update(ByteBuffer.allocate(20).putLong(seq).putLong(segment).putInt(offset).array());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 将回收的分段文件作为备用文件, 超出数量时删除
+     */
+    private void recycle(Path path) throws IOException {
+        if (spares.size() < maxSpareSegments) {
+            final Path spare = directory.resolve(SPARE_PREFIX + path.getFileName());
+            Files.move(path, spare);
+            spares.add(spare);
+        } else {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * 切换到下一个写入分段, 优先复用备用文件; 调用时必须持有锁
+     */
+    private void rollSegment() throws IOException {
+        writeBuffer.force();
+        unsyncedRecords = 0;
+        lastSyncNanos = System.nanoTime();
+        final long next = writeSegment + 1;
+        final Path path = segmentPath(next);
+        final Path spare = spares.poll();
+        if (spare != null) {
+            Files.move(spare, path);
+        }
+        final MappedByteBuffer buffer = map(path, segmentBytes);
+        // 复用的文件中残留旧数据, 写入结束标记
+        buffer.putInt(0, 0);
+        segments.put(next, buffer);
+        writeSegment = next;
+        writeBuffer = buffer;
+        writeOffset = 0;
+    }
+
+    /**
+     * 追加一条记录; 调用时必须持有锁
+     */
+    private void enqueue(byte[] e) throws IOException {
+        final int need = HEADER_BYTES + e.length;
+        if (need > segmentBytes - writeOffset) {
+            rollSegment();
+        }
+        final MappedByteBuffer buffer = writeBuffer;
+        final int pos = writeOffset;
+        buffer.position(pos + HEADER_BYTES);
+        buffer.put(e);
+        resetRecordCrc(writeSegment, pos);
+        crc.update(e, 0, e.length);
+        buffer.putInt(pos + 4, (int) crc.getValue());
+        if (pos + need <= segmentBytes - 4) {
+            buffer.putInt(pos + need, 0);
+        }
+        // 最后写入长度, 使记录完整可见
+        buffer.putInt(pos, e.length + 1);
+        writeOffset = pos + need;
+        count++;
+        notEmpty.signal();
+        if (++unsyncedRecords >= syncEveryRecords || System.nanoTime() - lastSyncNanos >= syncIntervalNanos) {
+            forceWrite();
+        }
+    }
+
+    private void forceWrite() {
+        writeBuffer.force();
+        unsyncedRecords = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * 读取当前消费位置的记录长度, 当前分段读完时切换到下一个分段; 调用时必须持有锁, 且队列非空
+     */
+    private int headLength() {
+        while (true) {
+            if (readOffset <= segmentBytes - HEADER_BYTES) {
+                final int len = readBuffer.getInt(readOffset) - 1;
+                if (len >= 0) {
+                    return len;
+                }
+            }
+            // 非空时当前分段读完说明后面还有分段
+            readSegment = segments.higherKey(readSegment);
+            readBuffer = segments.get(readSegment);
+            readOffset = 0;
+        }
+    }
+
+    /**
+     * 复制出当前消费位置的记录但不移动消费位置; 调用时必须持有锁, 且队列非空
+     */
+    private byte[] readHead() {
+        final byte[] e = new byte[headLength()];
+        readBuffer.position(readOffset + HEADER_BYTES);
+        readBuffer.get(e);
+        return e;
+    }
+
+    /**
+     * 将消费位置移过当前长度为 length 的记录; 调用时必须持有锁, 且队列非空
+     */
+    private void advanceHead(int length) {
+        readOffset += HEADER_BYTES + length;
+        count--;
+    }
+
+    /**
+     * 取出一条记录; 调用时必须持有锁, 且队列非空
+     */
+    private byte[] dequeue() {
+        final byte[] e = readHead();
+        advanceHead(e.length);
+        return e;
+    }
+
+    /**
+     * 在一次取出之前调用, 记录自动检查点使用的位置, 并在达到间隔时写入检查点; 调用时必须持有锁
+     */
+    private void beforeDequeue() {
+        ackSegment = readSegment;
+        ackOffset = readOffset;
+        final int every = checkpointEvery;
+        if (every > 0 && ++dequeuedSinceCheckpoint >= every) {
+            writeCheckpoint(ackSegment, ackOffset);
+        }
+    }
+
+    /**
+     * 写入检查点并回收检查点之前的分段; 调用时必须持有锁
+     */
+    private void writeCheckpoint(long segment, int offset) {
+        final long seq = ++checkpointSeq;
+        final int base = (int) (seq & 1) * CHECKPOINT_SLOT_BYTES;
+        checkpointBuffer.putLong(base, seq).putLong(base + 8, segment).putInt(base + 16, offset).putInt(base + 20, checkpointCrc(seq, segment, offset));
+        checkpointBuffer.force();
+        dequeuedSinceCheckpoint = 0;
+        // 检查点落盘之后, 之前的分段才可以回收
+        while (segments.firstKey() < segment) {
+            final long index = segments.pollFirstEntry().getKey();
+            try {
+                recycle(segmentPath(index));
+            } catch (IOException e) {
+                log.warn("MappedSegmentBlockingQueue [{}] failed to recycle segment {}", directory, index, e);
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("MappedSegmentBlockingQueue [" + directory + "] is closed");
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull byte[] e) {
+        Validate.isTrue(e.length <= segmentBytes - HEADER_BYTES, "record length %s exceeds segment capacity %s", e.length, segmentBytes - HEADER_BYTES);
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            checkOpen();
+            enqueue(e);
+            return true;
+        } catch (IOException ex) {
+            throw new RuntimeExtException("failed to append to queue " + directory, ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 队列无界, 不会阻塞
+     */
+    @Override
+    public void put(@NonNull byte[] e) {
+        offer(e);
+    }
+
+    /**
+     * 队列无界, 不会阻塞
+     */
+    @Override
+    public boolean offer(@NonNull byte[] e, long timeout, @NonNull TimeUnit unit) {
+        return offer(e);
+    }
+
+    @Override
+    public byte[] poll() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            checkOpen();
+            if (count == 0) {
+                return null;
+            }
+            beforeDequeue();
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public byte[] take() throws InterruptedException {
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            checkOpen();
+            while (count == 0) {
+                notEmpty.await();
+                checkOpen();
+            }
+            beforeDequeue();
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public byte[] poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            checkOpen();
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+                checkOpen();
+            }
+            beforeDequeue();
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 队头记录的副本, 队列为空时返回 null
+     */
+    @Override
+    public byte[] peek() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            checkOpen();
+            if (count == 0) {
+                return null;
+            }
+            final byte[] e = new byte[headLength()];
+            readBuffer.position(readOffset + HEADER_BYTES);
+            readBuffer.get(e);
+            return e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 队列无界, 始终返回 Integer.MAX_VALUE
+     */
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super byte[]> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@NonNull Collection<? super byte[]> c, int maxElements) {
+        Validate.isTrue(c != this, "cannot drain a queue to itself");
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            checkOpen();
+            if (count == 0 || maxElements <= 0) {
+                return 0;
+            }
+            beforeDequeue();
+            int n = 0;
+            while (n < maxElements && count > 0) {
+                // 先放入 c 再移动消费位置, c.add 抛出异常时记录仍留在队列中, 之后的检查点也不会越过它
+                final byte[] e = readHead();
+                c.add(e);
+                advanceHead(e.length);
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 丢弃所有记录, 并将检查点移动到写入位置
+     */
+    @Override
+    public void clear() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            checkOpen();
+            readSegment = writeSegment;
+            readBuffer = writeBuffer;
+            readOffset = writeOffset;
+            count = 0;
+            writeCheckpoint(readSegment, readOffset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 不支持按内容删除, byte[] 只能按引用比较, 而队列中保存的是副本
+     */
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException("MappedSegmentBlockingQueue does not support remove(Object)");
+    }
+
+    /**
+     * @return 所有记录副本的快照迭代器, 不支持 remove 操作
+     */
+    @Override
+    public Iterator<byte[]> iterator() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            checkOpen();
+            final List<byte[]> snapshot = new ArrayList<>(count);
+            long segment = readSegment;
+            int pos = readOffset;
+            ByteBuffer buffer = readBuffer;
+            while (snapshot.size() < count) {
+                final int len = pos <= segmentBytes - HEADER_BYTES ? buffer.getInt(pos) - 1 : -1;
+                if (len < 0) {
+                    segment = segments.higherKey(segment);
+                    buffer = segments.get(segment);
+                    pos = 0;
+                    continue;
+                }
+                final byte[] e = new byte[len];
+                buffer.position(pos + HEADER_BYTES);
+                buffer.get(e);
+                snapshot.add(e);
+                pos += HEADER_BYTES + len;
+            }
+            return Collections.unmodifiableList(snapshot).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将已写入的记录刷到磁盘
+     */
+    public void sync() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            checkOpen();
+            forceWrite();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 以当前消费位置写入检查点, 即认为已经取出的记录都已处理完毕
+     */
+    public void checkpoint() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            checkOpen();
+            writeCheckpoint(readSegment, readOffset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 刷盘并以当前消费位置写入检查点, 之后队列不可再使用, 阻塞在 take 上的线程将抛出 IllegalStateException
+     */
+    @Override
+    public void close() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            writeCheckpoint(readSegment, readOffset);
+            forceWrite();
+            closed = true;
+            segments.clear();
+            readBuffer = writeBuffer = null;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 设置刷盘策略, 满足任意一个条件时刷盘
+     *
+     * @param everyRecords 每写入多少条记录刷盘一次
+     * @param interval     距离上次刷盘的最长时间, 在写入时检查
+     * @param unit         时间单位
+     * @return 当前对象
+     */
+    public MappedSegmentBlockingQueue setSyncPolicy(int everyRecords, long interval, @NonNull TimeUnit unit) {
+        Validate.isTrue(everyRecords > 0, "everyRecords:%s must > 0", everyRecords);
+        Validate.isTrue(interval >= 0, "interval:%s cannot < 0", interval);
+        this.syncEveryRecords = everyRecords;
+        this.syncIntervalNanos = unit.toNanos(interval);
+        return this;
+    }
+
+    /**
+     * @param checkpointEvery 每取出多少次自动写入一次检查点, 为 0 表示只在调用 checkpoint, clear 和 close 时写入
+     * @return 当前对象
+     */
+    public MappedSegmentBlockingQueue setCheckpointEvery(int checkpointEvery) {
+        Validate.isTrue(checkpointEvery >= 0, "checkpointEvery:%s cannot < 0", checkpointEvery);
+        this.checkpointEvery = checkpointEvery;
+        return this;
+    }
+
+    /**
+     * @param maxSpareSegments 最多保留多少个回收的分段文件用于复用
+     * @return 当前对象
+     */
+    public MappedSegmentBlockingQueue setMaxSpareSegments(int maxSpareSegments) {
+        Validate.isTrue(maxSpareSegments >= 0, "maxSpareSegments:%s cannot < 0", maxSpareSegments);
+        this.maxSpareSegments = maxSpareSegments;
+        return this;
+    }
+
+    /**
+     * @return 尚未回收的分段文件数量
+     */
+    public int getSegmentCount() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
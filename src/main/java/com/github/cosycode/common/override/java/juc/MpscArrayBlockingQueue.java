@@ -0,0 +1,469 @@
+package com.github.cosycode.common.override.java.juc;
+
+import com.github.cosycode.common.thread.IdleStrategy;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.lang3.Validate;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <b>Description : </b> 基于环形数组的无锁有界阻塞队列, 针对多生产者单消费者(MPSC)场景, 例如 AsynchronousProcessor
+ * <p>
+ * <b>无锁: </b> 每个槽位带有一个序号, 生产者和消费者分别通过 CAS 推进各自的下标, 再根据槽位序号判断槽位是否可写或可读,
+ * 不使用 ReentrantLock 和 Condition, 添加元素时也不会像 LinkedBlockingQueue 那样为每个元素创建一个节点对象.
+ * <br> <b>伪共享: </b> 生产者下标和消费者下标之间通过类继承层次填充了缓存行, 生产者和消费者互不干扰.
+ * <br> <b>等待策略: </b> 队列为空时, 消费者按照 {@link IdleStrategy} 自旋, 让出或者挂起, 生产者放入元素时若发现消费者已挂起则将其唤醒;
+ * 队列已满时, 生产者同样按照该策略等待, 但每次最多挂起 {@link #PRODUCER_MAX_PARK_NANOS} 纳秒.
+ * <br> <b>消费者: </b> 消费端同样通过 CAS 推进, 因此偶尔的并发消费(例如关闭时由其它线程调用 drainTo)是安全的;
+ * 但只会记录一个挂起的消费者, 多个消费者同时阻塞在 take 上时, 其余消费者只能依靠等待策略中的超时醒来.
+ * <br> 环形数组的长度为不小于容量的 2 的幂次, 但队列中的元素数量不会超过指定的容量.
+ * <br> <b>删除: </b> remove(Object) 通过 CAS 将槽位中的元素替换为删除标记, 消费者取出时通过 getAndSet 获取槽位中的元素, 两者只有一方能拿到该元素;
+ * 被删除的元素在消费者越过之前仍然占用槽位, 计入 size 中. drainTo 同样先用删除标记占住元素, 放入目标集合之后再越过该槽位.
+ * <br> 迭代器返回的是当前元素的快照, 不支持 remove 操作.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class MpscArrayBlockingQueue<E> extends MpscQueueConsumerPad<E> implements BlockingQueue<E> {
+
+    /**
+     * 队列已满时, 生产者每次最多挂起的纳秒数
+     */
+    public static final long PRODUCER_MAX_PARK_NANOS = 100_000L;
+
+    /**
+     * 被 remove(Object) 删除的元素所在槽位的标记
+     */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * 队列容量
+     */
+    @Getter
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Object> buffer;
+    /**
+     * 槽位序号: 等于 pos 表示下标为 pos 的生产者可以写入, 等于 pos + 1 表示下标为 pos 的消费者可以读取
+     */
+    private final AtomicLongArray sequences;
+    /**
+     * 等待策略
+     */
+    @Getter
+    private final IdleStrategy waitStrategy;
+    /**
+     * 已挂起的消费者
+     */
+    private volatile Thread waiter;
+
+    /**
+     * 创建一个默认等待策略(多核时自旋 100 次, 让出 10 次后挂起等待; 单核时不自旋)的队列
+     *
+     * @param capacity 队列容量
+     */
+    public MpscArrayBlockingQueue(int capacity) {
+        this(capacity, IdleStrategy.backoff(Runtime.getRuntime().availableProcessors() > 1 ? 100 : 0, 10, 10_000L, 1_000_000L));
+    }
+
+    /**
+     * @param capacity     队列容量
+     * @param waitStrategy 队列为空或已满时的等待策略
+     */
+    public MpscArrayBlockingQueue(int capacity, @NonNull IdleStrategy waitStrategy) {
+        Validate.isTrue(capacity > 0 && capacity <= (1 << 30), "capacity:%s must in (0, 2^30]", capacity);
+        final int length = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.capacity = capacity;
+        this.mask = length - 1;
+        this.buffer = new AtomicReferenceArray<>(length);
+        this.sequences = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            sequences.lazySet(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+        this.producerLimit = capacity;
+    }
+
+    @Override
+    public boolean offer(@NonNull E e) {
+        final int length = mask + 1;
+        long limit = producerLimit;
+        for (; ; ) {
+            final long pos = producerIndex;
+            if (pos >= limit) {
+                // 缓存的上限已用完, 重新读取消费者下标
+                limit = consumerIndex + capacity;
+                if (pos >= limit) {
+                    return false;
+                }
+                producerLimit = limit;
+            }
+            final int i = (int) pos & mask;
+            final long seq = sequences.get(i);
+            if (seq == pos) {
+                if (casProducerIndex(pos, pos + 1)) {
+                    buffer.lazySet(i, e);
+                    sequences.lazySet(i, pos + 1);
+                    final Thread w = waiter;
+                    if (w != null) {
+                        LockSupport.unpark(w);
+                    }
+                    return true;
+                }
+            } else if (seq < pos) {
+                if (pos - consumerIndex >= length) {
+                    return false;
+                }
+                // 消费者已经推进下标但还没有释放该槽位, 让出 CPU 等待其完成
+                Thread.yield();
+            }
+            // 其它生产者抢先写入, 重试
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        for (; ; ) {
+            final long pos = consumerIndex;
+            final int i = (int) pos & mask;
+            final long dif = sequences.get(i) - (pos + 1);
+            if (dif == 0) {
+                if (casConsumerIndex(pos, pos + 1)) {
+                    // 与 remove(Object) 竞争该元素
+                    final Object e = buffer.getAndSet(i, null);
+                    sequences.lazySet(i, pos + mask + 1);
+                    if (e != REMOVED) {
+                        return (E) e;
+                    }
+                }
+            } else if (dif < 0) {
+                // 队列为空, 或者生产者已占用该槽位但还没有写入(视为还没有放入)
+                return null;
+            }
+            // 其它消费者抢先读取, 重试
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        for (; ; ) {
+            final long pos = consumerIndex;
+            final int i = (int) pos & mask;
+            final long seq = sequences.get(i);
+            if (seq == pos + 1) {
+                final Object e = buffer.get(i);
+                if (e == REMOVED) {
+                    // 删除标记只会被消费者清除, 直接越过
+                    if (casConsumerIndex(pos, pos + 1)) {
+                        buffer.lazySet(i, null);
+                        sequences.lazySet(i, pos + mask + 1);
+                    }
+                } else if (consumerIndex == pos) {
+                    return (E) e;
+                }
+            } else if (seq < pos + 1) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public void put(@NonNull E e) throws InterruptedException {
+        int idleCount = 0;
+        while (!offer(e)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            idle(++idleCount, 0, PRODUCER_MAX_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull E e, long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int idleCount = 0;
+        while (!offer(e)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (!idle(++idleCount, deadline, PRODUCER_MAX_PARK_NANOS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e;
+        int idleCount = 0;
+        while ((e = poll()) == null) {
+            awaitNotEmpty(++idleCount, 0);
+        }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        E e;
+        int idleCount = 0;
+        while ((e = poll()) == null) {
+            if (!awaitNotEmpty(++idleCount, deadline)) {
+                return null;
+            }
+        }
+        return e;
+    }
+
+    /**
+     * 队列为空时, 消费者按照等待策略等待一次, 挂起期间生产者放入元素会将其唤醒
+     *
+     * @param idleCount 连续等待的次数
+     * @param deadline  截止时间, 为 0 表示没有截止时间
+     * @return 是否还未超时
+     * @throws InterruptedException 等待期间被中断
+     */
+    private boolean awaitNotEmpty(int idleCount, long deadline) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        final long nanos = waitStrategy.idleNanos(idleCount);
+        if (nanos <= 0) {
+            return idle(idleCount, deadline, 0);
+        }
+        waiter = Thread.currentThread();
+        try {
+            // 设置 waiter 之后再检查一次, 防止生产者在此之前放入元素而没有唤醒
+            if (isEmpty()) {
+                return idle(idleCount, deadline, nanos);
+            }
+            // 生产者已占用槽位但还没有写入, 让出 CPU 等待其完成
+            Thread.yield();
+            return true;
+        } finally {
+            waiter = null;
+        }
+    }
+
+    /**
+     * 按照等待策略等待一次
+     *
+     * @param idleCount 连续等待的次数
+     * @param deadline  截止时间, 为 0 表示没有截止时间
+     * @param maxPark   每次最多挂起的纳秒数, 为 0 表示不限制
+     * @return 是否还未超时
+     */
+    private boolean idle(int idleCount, long deadline, long maxPark) {
+        long nanos = waitStrategy.idleNanos(idleCount);
+        if (maxPark > 0) {
+            nanos = Math.min(nanos, maxPark);
+        }
+        if (deadline != 0) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (nanos > 0) {
+                nanos = Math.min(nanos, remaining);
+            }
+        }
+        if (nanos == IdleStrategy.YIELD) {
+            Thread.yield();
+        } else if (nanos == IdleStrategy.UNTIL_WOKEN) {
+            LockSupport.park(this);
+        } else if (nanos > 0) {
+            LockSupport.parkNanos(this, nanos);
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        long after = consumerIndex;
+        for (; ; ) {
+            final long before = after;
+            final long producer = producerIndex;
+            after = consumerIndex;
+            if (before == after) {
+                return (int) Math.max(0, Math.min(producer - after, capacity));
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return consumerIndex == producerIndex;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * 删除一个与 o 相等的元素; 与消费者并发时, 该元素要么被删除, 要么被消费者取出
+     *
+     * @param o 需要删除的元素
+     * @return 是否删除了元素
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        final long producer = producerIndex;
+        for (long pos = consumerIndex; pos < producer; pos++) {
+            final int i = (int) pos & mask;
+            final Object e = buffer.get(i);
+            if (e != null && e != REMOVED && sequences.get(i) == pos + 1 && o.equals(e) && buffer.compareAndSet(i, e, REMOVED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 先用删除标记占住队头的元素, 放入 c 之后再越过该槽位; c.add 抛出异常时将元素放回, 元素仍留在队头.
+     * <br> 若此期间有其它消费者并发越过了该槽位(视为已删除), 则无法放回.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int drainTo(@NonNull Collection<? super E> c, int maxElements) {
+        Validate.isTrue(c != this, "cannot drain a queue to itself");
+        int n = 0;
+        while (n < maxElements) {
+            final long pos = consumerIndex;
+            final int i = (int) pos & mask;
+            final long dif = sequences.get(i) - (pos + 1);
+            if (dif < 0) {
+                break;
+            }
+            final Object e = buffer.get(i);
+            if (dif > 0 || e == null || consumerIndex != pos) {
+                // 其它消费者抢先读取, 重试
+                continue;
+            }
+            if (e != REMOVED) {
+                if (!buffer.compareAndSet(i, e, REMOVED)) {
+                    continue;
+                }
+                try {
+                    c.add((E) e);
+                } catch (RuntimeException | Error ex) {
+                    buffer.compareAndSet(i, REMOVED, e);
+                    throw ex;
+                }
+                n++;
+            }
+            if (casConsumerIndex(pos, pos + 1)) {
+                buffer.lazySet(i, null);
+                sequences.lazySet(i, pos + mask + 1);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return 当前元素快照的迭代器, 不支持 remove 操作
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        final List<E> snapshot = new ArrayList<>();
+        final long producer = producerIndex;
+        for (long pos = consumerIndex; pos < producer; pos++) {
+            final int i = (int) pos & mask;
+            final Object e = buffer.get(i);
+            if (e != null && e != REMOVED && sequences.get(i) == pos + 1) {
+                snapshot.add((E) e);
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+}
+
+/**
+ * 缓存行填充, 隔离对象头及之前的字段
+ */
+@SuppressWarnings("unused")
+abstract class MpscQueueHeadPad<E> extends AbstractQueue<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+/**
+ * 生产者字段
+ */
+abstract class MpscQueueProducerFields<E> extends MpscQueueHeadPad<E> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<MpscQueueProducerFields> PRODUCER_INDEX = AtomicLongFieldUpdater.newUpdater(MpscQueueProducerFields.class, "producerIndex");
+    /**
+     * 下一个写入的下标
+     */
+    protected volatile long producerIndex;
+    /**
+     * 生产者缓存的写入上限(消费者下标 + 容量), 避免每次写入都读取消费者下标
+     */
+    protected volatile long producerLimit;
+
+    protected final boolean casProducerIndex(long expect, long update) {
+        return PRODUCER_INDEX.compareAndSet(this, expect, update);
+    }
+}
+
+/**
+ * 缓存行填充, 隔离生产者字段和消费者字段
+ */
+@SuppressWarnings("unused")
+abstract class MpscQueueMidPad<E> extends MpscQueueProducerFields<E> {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+}
+
+/**
+ * 消费者字段
+ */
+abstract class MpscQueueConsumerFields<E> extends MpscQueueMidPad<E> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<MpscQueueConsumerFields> CONSUMER_INDEX = AtomicLongFieldUpdater.newUpdater(MpscQueueConsumerFields.class, "consumerIndex");
+    /**
+     * 下一个读取的下标
+     */
+    protected volatile long consumerIndex;
+
+    protected final boolean casConsumerIndex(long expect, long update) {
+        return CONSUMER_INDEX.compareAndSet(this, expect, update);
+    }
+}
+
+/**
+ * 缓存行填充, 隔离消费者字段和子类字段
+ */
+@SuppressWarnings("unused")
+abstract class MpscQueueConsumerPad<E> extends MpscQueueConsumerFields<E> {
+    long p40, p41, p42, p43, p44, p45, p46, p47;
+    long p50, p51, p52, p53, p54, p55, p56, p57;
+}
@@ -0,0 +1,525 @@
+package com.github.cosycode.common.override.java.juc;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.lang3.Validate;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b>Description : </b> 基于二叉堆的有界优先级阻塞队列, 支持一次性批量取出多个优先级最高的元素
+ * <p>
+ * ArrayBatchBlockingQueue 只能按照先进先出的顺序批量取出; 该队列按照 comparator(为 null 时为元素的自然顺序)排序,
+ * 每次取出的都是当前优先级最高的元素, {@link #takeBatch(int)} 等批量方法在一次加锁中依次取出多个元素.
+ * <br> <b>就绪: </b> 子类可以通过 {@link #getReadyDelay(Object)} 指定堆顶元素还需要等待多久才能取出,
+ * 例如 {@link DelayBatchBlockingQueue} 只有在元素到期之后才会取出; 批量取出时遇到第一个未就绪的元素即停止.
+ * <br> <b>有界: </b> 堆数组按照容量一次性分配, 队列已满时 put 阻塞, offer 返回 false.
+ * <br> 迭代器返回的是当前元素的快照(不保证顺序), 不支持 remove 操作.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class PriorityBatchBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * 队列容量
+     */
+    @Getter
+    private final int capacity;
+
+    /**
+     * 元素比较器, 为 null 时按照元素的自然顺序排序
+     */
+    @Getter
+    private final Comparator<? super E> comparator;
+
+    /**
+     * 二叉堆, heap[0] 为优先级最高的元素
+     */
+    private final Object[] heap;
+
+    private int count;
+
+    protected final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 有就绪元素时通知消费者
+     */
+    protected final Condition notEmpty = lock.newCondition();
+
+    /**
+     * 有空闲位置时通知生产者
+     */
+    protected final Condition notFull = lock.newCondition();
+
+    /**
+     * 按照元素的自然顺序排序
+     *
+     * @param capacity 队列容量
+     */
+    public PriorityBatchBlockingQueue(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param capacity   队列容量
+     * @param comparator 元素比较器, 为 null 时按照元素的自然顺序排序
+     */
+    public PriorityBatchBlockingQueue(int capacity, Comparator<? super E> comparator) {
+        Validate.isTrue(capacity > 0, "capacity:%s must > 0", capacity);
+        this.capacity = capacity;
+        this.comparator = comparator;
+        this.heap = new Object[capacity];
+    }
+
+    /**
+     * 获取堆顶元素还需要等待多久才能取出, 调用时持有锁
+     *
+     * @param head 堆顶元素
+     * @return 需要等待的纳秒数, 小于等于 0 表示已经就绪
+     */
+    protected long getReadyDelay(E head) {
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object a, Object b) {
+        return comparator == null ? ((Comparable<? super E>) a).compareTo((E) b) : comparator.compare((E) a, (E) b);
+    }
+
+    private void siftUp(int k, Object e) {
+        final Object[] heap = this.heap;
+        while (k > 0) {
+            final int parent = (k - 1) >>> 1;
+            final Object p = heap[parent];
+            if (compare(e, p) >= 0) {
+                break;
+            }
+            heap[k] = p;
+            k = parent;
+        }
+        heap[k] = e;
+    }
+
+    private void siftDown(int k, Object e) {
+        final Object[] heap = this.heap;
+        final int half = count >>> 1;
+        while (k < half) {
+            int child = (k << 1) + 1;
+            Object c = heap[child];
+            final int right = child + 1;
+            if (right < count && compare(c, heap[right]) > 0) {
+                c = heap[child = right];
+            }
+            if (compare(e, c) <= 0) {
+                break;
+            }
+            heap[k] = c;
+            k = child;
+        }
+        heap[k] = e;
+    }
+
+    /**
+     * 放入元素, 调用时必须持有锁, 且队列未满
+     */
+    private void enqueue(E e) {
+        siftUp(count++, e);
+        notEmpty.signal();
+    }
+
+    /**
+     * 取出堆顶元素, 不通知生产者; 调用时必须持有锁, 且队列非空
+     */
+    @SuppressWarnings("unchecked")
+    private E dequeue() {
+        final Object[] heap = this.heap;
+        final E head = (E) heap[0];
+        final int n = --count;
+        final Object last = heap[n];
+        heap[n] = null;
+        if (n > 0) {
+            siftDown(0, last);
+        }
+        return head;
+    }
+
+    /**
+     * 删除指定下标的元素, 调用时必须持有锁
+     */
+    private void removeAt(int i) {
+        final Object[] heap = this.heap;
+        final int n = --count;
+        if (n == i) {
+            heap[i] = null;
+        } else {
+            final Object moved = heap[n];
+            heap[n] = null;
+            siftDown(i, moved);
+            if (heap[i] == moved) {
+                siftUp(i, moved);
+            }
+        }
+        notFull.signal();
+    }
+
+    /**
+     * 堆顶元素是否已就绪, 调用时必须持有锁
+     */
+    @SuppressWarnings("unchecked")
+    private boolean headReady() {
+        return count > 0 && getReadyDelay((E) heap[0]) <= 0;
+    }
+
+    /**
+     * 等待堆顶元素就绪; 调用时必须持有锁
+     *
+     * @param nanos 最长等待时间, 小于 0 表示一直等待
+     * @return 是否有就绪的元素
+     */
+    @SuppressWarnings("unchecked")
+    private boolean awaitReady(long nanos) throws InterruptedException {
+        while (true) {
+            final long delay = count == 0 ? Long.MAX_VALUE : getReadyDelay((E) heap[0]);
+            if (delay <= 0) {
+                return true;
+            }
+            if (nanos < 0) {
+                if (delay == Long.MAX_VALUE) {
+                    notEmpty.await();
+                } else {
+                    notEmpty.awaitNanos(delay);
+                }
+            } else if (nanos == 0) {
+                return false;
+            } else {
+                // 等待期间可能有更早就绪的元素放入, 因此被唤醒后需要重新检查堆顶
+                final long wait = Math.min(delay, nanos);
+                nanos = Math.max(0, nanos - (wait - notEmpty.awaitNanos(wait)));
+            }
+        }
+    }
+
+    /**
+     * 依次取出最多 cnt 个已就绪的元素, 之后通知生产者; 调用时必须持有锁
+     */
+    private List<E> dequeueBatch(int cnt) {
+        final List<E> list = new ArrayList<>(Math.max(0, Math.min(cnt, count)));
+        while (list.size() < cnt && headReady()) {
+            list.add(dequeue());
+        }
+        afterDequeue(list.size());
+        return list;
+    }
+
+    /**
+     * 取出 n 个元素之后通知生产者, 以及可能的其它消费者; 调用时必须持有锁
+     */
+    private void afterDequeue(int n) {
+        for (int i = n; i > 0 && lock.hasWaiters(notFull); i--) {
+            notFull.signal();
+        }
+        if (count > 0) {
+            notEmpty.signal();
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull E e) {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            if (count == capacity) {
+                return false;
+            }
+            enqueue(e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(@NonNull E e) throws InterruptedException {
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                notFull.await();
+            }
+            enqueue(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull E e, long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 已就绪的堆顶元素, 没有时返回 null
+     */
+    @Override
+    public E poll() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            if (!headReady()) {
+                return null;
+            }
+            final E e = dequeue();
+            afterDequeue(1);
+            return e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            awaitReady(-1);
+            final E e = dequeue();
+            afterDequeue(1);
+            return e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            if (!awaitReady(Math.max(0, unit.toNanos(timeout)))) {
+                return null;
+            }
+            final E e = dequeue();
+            afterDequeue(1);
+            return e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 一次性提取最多 cnt 个已就绪的元素, 没有就绪的元素时等待
+     *
+     * @param cnt 最大取出数量
+     * @return 按照优先级排序的列表
+     * @throws InterruptedException 等待期间被中断
+     */
+    public List<E> takeBatch(int cnt) throws InterruptedException {
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            awaitReady(-1);
+            return dequeueBatch(cnt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 一次性提取最多 cnt 个已就绪的元素, 没有就绪的元素时最多等待 timeout 时间
+     *
+     * @param cnt     最大取出数量
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 按照优先级排序的列表, 超时返回空列表
+     * @throws InterruptedException 等待期间被中断
+     */
+    public List<E> takeBatch(int cnt, long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            if (!awaitReady(Math.max(0, unit.toNanos(timeout)))) {
+                return Collections.emptyList();
+            }
+            return dequeueBatch(cnt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 一次性提取最多 cnt 个已就绪的元素, 不等待
+     *
+     * @param cnt 最大取出数量
+     * @return 按照优先级排序的列表, 没有就绪的元素时返回空列表
+     */
+    public List<E> pollBatch(int cnt) {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return headReady() ? dequeueBatch(cnt) : Collections.emptyList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 堆顶元素(无论是否就绪), 队列为空时返回 null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return (E) heap[0];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按照优先级取出最多 maxElements 个已就绪的元素
+     */
+    @Override
+    public int drainTo(@NonNull Collection<? super E> c, int maxElements) {
+        Validate.isTrue(c != this, "cannot drain a queue to itself");
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            int n = 0;
+            try {
+                while (n < maxElements && headReady()) {
+                    c.add(dequeue());
+                    n++;
+                }
+                return n;
+            } finally {
+                afterDequeue(n);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                if (o.equals(heap[i])) {
+                    removeAt(i);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                if (o.equals(heap[i])) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                heap[i] = null;
+            }
+            count = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 当前元素快照的迭代器, 不保证顺序, 不支持 remove 操作
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            final List<E> snapshot = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                snapshot.add((E) heap[i]);
+            }
+            return Collections.unmodifiableList(snapshot).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
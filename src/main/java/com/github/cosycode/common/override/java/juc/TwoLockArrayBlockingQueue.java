@@ -0,0 +1,504 @@
+package com.github.cosycode.common.override.java.juc;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.lang3.Validate;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b>Description : </b> 基于环形数组, 头尾分别加锁的有界阻塞队列
+ * <p>
+ * <b>双锁: </b> {@link ArrayBlockingQueueCopy} 的放入和取出共用一把锁, 生产者和消费者相互阻塞;
+ * 该队列参照 LinkedBlockingQueue 的双锁算法, 放入只持有 putLock, 取出只持有 takeLock, 两端通过原子变量 count 协调,
+ * 同时仍然使用预先分配的数组存储元素, 放入元素时不会创建节点对象.
+ * <br> <b>可见性: </b> 生产者先写入槽位再递增 count, 消费者先读取 count 再读取槽位, 反之亦然, 因此槽位本身不需要 volatile.
+ * <br> <b>伪共享: </b> 生产端字段(putIndex, putLock, notFull)和消费端字段(takeIndex, takeLock, notEmpty)之间通过类继承层次填充了缓存行.
+ * <br> <b>唤醒: </b> 与 LinkedBlockingQueue 相同, 只在队列由空变为非空(或由满变为非满)时才去获取另一端的锁发出通知, 其余情况由同一端的线程级联唤醒.
+ * <br> remove(Object), contains, clear 和迭代器需要同时持有两把锁; 迭代器返回的是当前元素的快照, 不支持 remove 操作.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class TwoLockArrayBlockingQueue<E> extends TwoLockQueueTakePad<E> implements BlockingQueue<E> {
+
+    /**
+     * 队列容量
+     */
+    @Getter
+    private final int capacity;
+    private final Object[] items;
+    /**
+     * 当前元素数量
+     */
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * @param capacity 队列容量
+     */
+    public TwoLockArrayBlockingQueue(int capacity) {
+        Validate.isTrue(capacity > 0, "capacity:%s must > 0", capacity);
+        this.capacity = capacity;
+        this.items = new Object[capacity];
+    }
+
+    /**
+     * 在队尾放入元素, 调用时必须持有 putLock, 且队列未满
+     */
+    private void enqueue(E e) {
+        items[putIndex] = e;
+        if (++putIndex == items.length) {
+            putIndex = 0;
+        }
+    }
+
+    /**
+     * 从队头取出元素, 调用时必须持有 takeLock, 且队列非空
+     */
+    @SuppressWarnings("unchecked")
+    private E dequeue() {
+        final E e = (E) items[takeIndex];
+        items[takeIndex] = null;
+        if (++takeIndex == items.length) {
+            takeIndex = 0;
+        }
+        return e;
+    }
+
+    /**
+     * 队列由空变为非空时唤醒一个消费者, 只在 put/offer 中调用
+     */
+    private void signalNotEmpty() {
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    /**
+     * 队列由满变为非满时唤醒一个生产者, 只在 take/poll 中调用
+     */
+    private void signalNotFull() {
+        final ReentrantLock putLock = this.putLock;
+        putLock.lock();
+        try {
+            notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    private void fullyLock() {
+        putLock.lock();
+        takeLock.lock();
+    }
+
+    private void fullyUnlock() {
+        takeLock.unlock();
+        putLock.unlock();
+    }
+
+    @Override
+    public boolean offer(@NonNull E e) {
+        final AtomicInteger count = this.count;
+        if (count.get() == capacity) {
+            return false;
+        }
+        final int c;
+        final ReentrantLock putLock = this.putLock;
+        putLock.lock();
+        try {
+            if (count.get() == capacity) {
+                return false;
+            }
+            enqueue(e);
+            c = count.getAndIncrement();
+            if (c + 1 < capacity) {
+                notFull.signal();
+            }
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0) {
+            signalNotEmpty();
+        }
+        return true;
+    }
+
+    @Override
+    public void put(@NonNull E e) throws InterruptedException {
+        final AtomicInteger count = this.count;
+        final int c;
+        final ReentrantLock putLock = this.putLock;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() == capacity) {
+                notFull.await();
+            }
+            enqueue(e);
+            c = count.getAndIncrement();
+            if (c + 1 < capacity) {
+                notFull.signal();
+            }
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0) {
+            signalNotEmpty();
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull E e, long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        final AtomicInteger count = this.count;
+        final int c;
+        final ReentrantLock putLock = this.putLock;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(e);
+            c = count.getAndIncrement();
+            if (c + 1 < capacity) {
+                notFull.signal();
+            }
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0) {
+            signalNotEmpty();
+        }
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        final AtomicInteger count = this.count;
+        if (count.get() == 0) {
+            return null;
+        }
+        final E e;
+        final int c;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lock();
+        try {
+            if (count.get() == 0) {
+                return null;
+            }
+            e = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == capacity) {
+            signalNotFull();
+        }
+        return e;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        final AtomicInteger count = this.count;
+        final E e;
+        final int c;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                notEmpty.await();
+            }
+            e = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == capacity) {
+            signalNotFull();
+        }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        final AtomicInteger count = this.count;
+        final E e;
+        final int c;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            e = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == capacity) {
+            signalNotFull();
+        }
+        return e;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (count.get() == 0) {
+            return null;
+        }
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lock();
+        try {
+            return count.get() > 0 ? (E) items[takeIndex] : null;
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - count.get();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@NonNull Collection<? super E> c, int maxElements) {
+        Validate.isTrue(c != this, "cannot drain a queue to itself");
+        if (maxElements <= 0) {
+            return 0;
+        }
+        boolean signalNotFull = false;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lock();
+        try {
+            final int n = Math.min(maxElements, count.get());
+            int i = 0;
+            try {
+                while (i < n) {
+                    // c.add 成功之后才清空槽位, 抛出异常时该元素仍然留在队列中
+                    @SuppressWarnings("unchecked")
+                    final E e = (E) items[takeIndex];
+                    c.add(e);
+                    dequeue();
+                    i++;
+                }
+                return n;
+            } finally {
+                // c.add 抛出异常时, 只扣除已经取出的元素
+                if (i > 0) {
+                    signalNotFull = count.getAndAdd(-i) == capacity;
+                }
+            }
+        } finally {
+            takeLock.unlock();
+            if (signalNotFull) {
+                signalNotFull();
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        fullyLock();
+        try {
+            final int n = count.get();
+            for (int k = 0, i = takeIndex; k < n; k++) {
+                if (o.equals(items[i])) {
+                    removeAt(i);
+                    return true;
+                }
+                if (++i == items.length) {
+                    i = 0;
+                }
+            }
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    /**
+     * 删除指定下标的元素, 后面的元素依次前移; 调用时必须同时持有两把锁
+     */
+    private void removeAt(int removeIndex) {
+        final Object[] items = this.items;
+        if (removeIndex == takeIndex) {
+            dequeue();
+        } else {
+            for (int i = removeIndex; ; ) {
+                int next = i + 1;
+                if (next == items.length) {
+                    next = 0;
+                }
+                if (next != putIndex) {
+                    items[i] = items[next];
+                    i = next;
+                } else {
+                    items[i] = null;
+                    putIndex = i;
+                    break;
+                }
+            }
+        }
+        if (count.getAndDecrement() == capacity) {
+            notFull.signal();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        fullyLock();
+        try {
+            final int n = count.get();
+            for (int k = 0, i = takeIndex; k < n; k++) {
+                if (o.equals(items[i])) {
+                    return true;
+                }
+                if (++i == items.length) {
+                    i = 0;
+                }
+            }
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        fullyLock();
+        try {
+            final int n = count.get();
+            for (int k = 0; k < n; k++) {
+                dequeue();
+            }
+            if (count.getAndSet(0) == capacity) {
+                notFull.signal();
+            }
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    /**
+     * @return 当前元素快照的迭代器, 不支持 remove 操作
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        fullyLock();
+        try {
+            final int n = count.get();
+            final List<E> snapshot = new ArrayList<>(n);
+            for (int k = 0, i = takeIndex; k < n; k++) {
+                snapshot.add((E) items[i]);
+                if (++i == items.length) {
+                    i = 0;
+                }
+            }
+            return Collections.unmodifiableList(snapshot).iterator();
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+}
+
+/**
+ * 缓存行填充, 隔离对象头及之前的字段
+ */
+@SuppressWarnings("unused")
+abstract class TwoLockQueueHeadPad<E> extends AbstractQueue<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+/**
+ * 生产端字段
+ */
+abstract class TwoLockQueuePutFields<E> extends TwoLockQueueHeadPad<E> {
+    /**
+     * 下一个写入的下标, 由 putLock 保护
+     */
+    protected int putIndex;
+    protected final ReentrantLock putLock = new ReentrantLock();
+    protected final Condition notFull = putLock.newCondition();
+}
+
+/**
+ * 缓存行填充, 隔离生产端字段和消费端字段
+ */
+@SuppressWarnings("unused")
+abstract class TwoLockQueueMidPad<E> extends TwoLockQueuePutFields<E> {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+}
+
+/**
+ * 消费端字段
+ */
+abstract class TwoLockQueueTakeFields<E> extends TwoLockQueueMidPad<E> {
+    /**
+     * 下一个读取的下标, 由 takeLock 保护
+     */
+    protected int takeIndex;
+    protected final ReentrantLock takeLock = new ReentrantLock();
+    protected final Condition notEmpty = takeLock.newCondition();
+}
+
+/**
+ * 缓存行填充, 隔离消费端字段和子类字段
+ */
+@SuppressWarnings("unused")
+abstract class TwoLockQueueTakePad<E> extends TwoLockQueueTakeFields<E> {
+    long p40, p41, p42, p43, p44, p45, p46, p47;
+    long p50, p51, p52, p53, p54, p55, p56, p57;
+}
@@ -9,6 +9,14 @@ import java.util.function.Consumer;
 /**
  * <b>Description : </b> copy from LinkedList, 仅仅将几个函数和类的标识改了下
  * <p>
+ * <b>节点游标: </b> 可以通过 {@link #getFirstNode()}, {@link Node#getNext()} 直接遍历节点, 不创建迭代器;
+ * 通过 {@link #addLastNode(Object)} 等方法添加元素时返回对应的节点, 之后可以 O(1) 地 {@link #unlinkNode(Node)},
+ * {@link #moveToFirst(Node)} 或 {@link #moveToLast(Node)}, 适合 LRU 等需要记录节点位置的场景.
+ * <br> <b>节点池: </b> 通过 {@link #setMaxNodePoolSize(int)} 开启后, 删除的节点放入空闲链表, 添加元素时优先复用, 不再为每次添加创建节点;
+ * 开启节点池后, 节点对应的元素被删除(无论通过哪个方法)之后该节点即失效, 调用方不能再持有或使用它.
+ * <br> 节点相关的方法不检查节点是否属于当前列表, 由调用方保证.
+ * </p>
+ * <p>
  * <b>created in </b> 2022/12/8
  * </p>
  *
@@ -37,6 +45,23 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
     @Getter
     transient Node<E> lastNode;
 
+    /**
+     * 空闲节点链表, 通过 next 连接
+     */
+    transient Node<E> nodePool;
+
+    /**
+     * 空闲节点数量
+     */
+    @Getter
+    transient int nodePoolSize;
+
+    /**
+     * 最多缓存的空闲节点数量, 为 0 表示不缓存
+     */
+    @Getter
+    transient int maxNodePoolSize;
+
 
     /**
      * Constructs an empty list.
@@ -57,12 +82,39 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
         addAll(c);
     }
 
+    /**
+     * 创建节点, 节点池中有空闲节点时复用
+     */
+    private Node<E> newNode(Node<E> prev, E element, Node<E> next) {
+        final Node<E> x = nodePool;
+        if (x == null) {
+            return new Node<>(prev, element, next);
+        }
+        nodePool = x.next;
+        nodePoolSize--;
+        x.prev = prev;
+        x.item = element;
+        x.next = next;
+        return x;
+    }
+
+    /**
+     * 回收已经断开链接(item, prev, next 均为 null)的节点
+     */
+    private void recycle(Node<E> x) {
+        if (nodePoolSize < maxNodePoolSize) {
+            x.next = nodePool;
+            nodePool = x;
+            nodePoolSize++;
+        }
+    }
+
     /**
      * Links e as first element.
      */
     private void linkFirst(E e) {
         final Node<E> f = firstNode;
-        final Node<E> newNode = new Node<>(null, e, f);
+        final Node<E> newNode = newNode(null, e, f);
         firstNode = newNode;
         if (f == null)
             lastNode = newNode;
@@ -77,7 +129,7 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
      */
     void linkLast(E e) {
         final Node<E> l = lastNode;
-        final Node<E> newNode = new Node<>(l, e, null);
+        final Node<E> newNode = newNode(l, e, null);
         lastNode = newNode;
         if (l == null)
             firstNode = newNode;
@@ -93,7 +145,7 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
     void linkBefore(E e, Node<E> succ) {
         // assert succ != null;
         final Node<E> pred = succ.prev;
-        final Node<E> newNode = new Node<>(pred, e, succ);
+        final Node<E> newNode = newNode(pred, e, succ);
         succ.prev = newNode;
         if (pred == null)
             firstNode = newNode;
@@ -119,6 +171,7 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
             next.prev = null;
         size--;
         modCount++;
+        recycle(f);
         return element;
     }
 
@@ -138,6 +191,7 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
             prev.next = null;
         size--;
         modCount++;
+        recycle(l);
         return element;
     }
 
@@ -167,6 +221,7 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
         x.item = null;
         size--;
         modCount++;
+        recycle(x);
         return element;
     }
 
@@ -359,7 +414,7 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
 
         for (Object o : a) {
             @SuppressWarnings("unchecked") E e = (E) o;
-            Node<E> newNode = new Node<>(pred, e, null);
+            Node<E> newNode = newNode(pred, e, null);
             if (pred == null)
                 firstNode = newNode;
             else
@@ -393,6 +448,7 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
             x.item = null;
             x.next = null;
             x.prev = null;
+            recycle(x);
             x = next;
         }
         firstNode = lastNode = null;
@@ -916,6 +972,151 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
             this.next = next;
             this.prev = prev;
         }
+
+        /**
+         * @return 节点中的元素
+         */
+        public E getItem() {
+            return item;
+        }
+
+        /**
+         * @param item 替换节点中的元素
+         */
+        public void setItem(E item) {
+            this.item = item;
+        }
+
+        /**
+         * @return 下一个节点, 为 null 表示当前为最后一个节点
+         */
+        public Node<E> getNext() {
+            return next;
+        }
+
+        /**
+         * @return 上一个节点, 为 null 表示当前为第一个节点
+         */
+        public Node<E> getPrev() {
+            return prev;
+        }
+    }
+
+    // Node cursor operations
+
+    /**
+     * 在列表头部添加元素
+     *
+     * @param e 元素
+     * @return 元素所在的节点
+     */
+    public Node<E> addFirstNode(E e) {
+        linkFirst(e);
+        return firstNode;
+    }
+
+    /**
+     * 在列表尾部添加元素
+     *
+     * @param e 元素
+     * @return 元素所在的节点
+     */
+    public Node<E> addLastNode(E e) {
+        linkLast(e);
+        return lastNode;
+    }
+
+    /**
+     * 在指定节点之前添加元素
+     *
+     * @param e    元素
+     * @param succ 当前列表中的节点
+     * @return 元素所在的节点
+     */
+    public Node<E> addNodeBefore(E e, Node<E> succ) {
+        linkBefore(e, Objects.requireNonNull(succ));
+        return succ.prev;
+    }
+
+    /**
+     * 删除指定节点, 开启节点池时该节点被回收, 之后不能再使用
+     *
+     * @param node 当前列表中的节点
+     * @return 节点中的元素
+     */
+    public E unlinkNode(Node<E> node) {
+        return unlink(Objects.requireNonNull(node));
+    }
+
+    /**
+     * 将指定节点移动到列表头部, 不创建也不回收节点
+     *
+     * @param node 当前列表中的节点
+     */
+    public void moveToFirst(Node<E> node) {
+        if (node == firstNode) {
+            return;
+        }
+        detach(node);
+        node.next = firstNode;
+        firstNode.prev = node;
+        firstNode = node;
+        modCount++;
+    }
+
+    /**
+     * 将指定节点移动到列表尾部, 不创建也不回收节点
+     *
+     * @param node 当前列表中的节点
+     */
+    public void moveToLast(Node<E> node) {
+        if (node == lastNode) {
+            return;
+        }
+        detach(node);
+        node.prev = lastNode;
+        lastNode.next = node;
+        lastNode = node;
+        modCount++;
+    }
+
+    /**
+     * 将非唯一的节点从链表中摘下, 保留 size 不变, 由调用方重新链接
+     */
+    private void detach(Node<E> x) {
+        final Node<E> next = x.next;
+        final Node<E> prev = x.prev;
+        if (prev == null) {
+            firstNode = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            lastNode = prev;
+        } else {
+            next.prev = prev;
+        }
+        x.prev = x.next = null;
+    }
+
+    /**
+     * 设置节点池的最大空闲节点数量, 减小时释放多余的空闲节点
+     *
+     * @param maxNodePoolSize 最多缓存的空闲节点数量, 为 0 表示关闭节点池
+     * @return 当前对象
+     */
+    public LinkedListCopy<E> setMaxNodePoolSize(int maxNodePoolSize) {
+        if (maxNodePoolSize < 0) {
+            throw new IllegalArgumentException("maxNodePoolSize: " + maxNodePoolSize + " cannot < 0");
+        }
+        this.maxNodePoolSize = maxNodePoolSize;
+        while (nodePoolSize > maxNodePoolSize) {
+            final Node<E> x = nodePool;
+            nodePool = x.next;
+            x.next = null;
+            nodePoolSize--;
+        }
+        return this;
     }
 
     /**
@@ -963,6 +1164,8 @@ public class LinkedListCopy<E> extends AbstractSequentialList<E>
         clone.firstNode = clone.lastNode = null;
         clone.size = 0;
         clone.modCount = 0;
+        clone.nodePool = null;
+        clone.nodePoolSize = 0;
 
         // Initialize clone with our elements
         for (Node<E> x = firstNode; x != null; x = x.next)
@@ -0,0 +1,697 @@
+package com.github.cosycode.common.override.java.util;
+
+import lombok.Getter;
+import org.apache.commons.lang3.Validate;
+
+import java.util.AbstractSequentialList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * <b>Description : </b> 展开链表(unrolled linked list), 每个节点保存一段固定长度的元素数组, 实现 List 和 Deque
+ * <p>
+ * LinkedListCopy 每个元素对应一个节点, 遍历时每个元素都要多一次指针跳转, 每个元素还要额外占用一个节点对象的内存;
+ * 该列表的每个节点(块)保存最多 chunkCapacity 个元素, 元素在块内连续存放, 遍历时大部分时间是顺序访问数组.
+ * <br> <b>两端操作: </b> 块内元素存放在 [start, end) 区间, 头部添加从块的末尾向前填充, 尾部添加从块的开头向后填充, 均为均摊 O(1).
+ * <br> <b>中间操作: </b> 在块内插入或删除只移动该块内的元素(最多 chunkCapacity 个); 插入时块已满则将其拆分为两半,
+ * 删除后块内元素过少时把下一个块的元素合并进来, 块为空时删除该块. 迭代器的 remove 和 add 同样只影响当前块.
+ * <br> 按下标访问需要从较近的一端逐块跳过, 复杂度为 O(n / chunkCapacity). 允许 null 元素, 非线程安全, 迭代器快速失败.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class UnrolledLinkedList<E> extends AbstractSequentialList<E> implements List<E>, Deque<E>, java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 默认每个块的元素数量
+     */
+    public static final int DEFAULT_CHUNK_CAPACITY = 64;
+
+    /**
+     * 每个块最多保存的元素数量
+     */
+    @Getter
+    private final int chunkCapacity;
+
+    private transient Chunk<E> head;
+
+    private transient Chunk<E> tail;
+
+    private transient int size;
+
+    public UnrolledLinkedList() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    /**
+     * @param chunkCapacity 每个块最多保存的元素数量
+     */
+    public UnrolledLinkedList(int chunkCapacity) {
+        Validate.isTrue(chunkCapacity >= 4, "chunkCapacity:%s must >= 4", chunkCapacity);
+        this.chunkCapacity = chunkCapacity;
+    }
+
+    /**
+     * @param c 初始元素
+     */
+    public UnrolledLinkedList(Collection<? extends E> c) {
+        this();
+        addAll(c);
+    }
+
+    /**
+     * 元素块, 元素存放在 items 的 [start, end) 区间
+     */
+    private static final class Chunk<E> {
+        final Object[] items;
+        int start;
+        int end;
+        Chunk<E> prev;
+        Chunk<E> next;
+
+        Chunk(int capacity, int position) {
+            this.items = new Object[capacity];
+            this.start = this.end = position;
+        }
+
+        int size() {
+            return end - start;
+        }
+    }
+
+    /**
+     * 在 c 之后链接新的块, c 为 null 时作为头部
+     */
+    private Chunk<E> linkChunkAfter(Chunk<E> c, int position) {
+        final Chunk<E> n = new Chunk<>(chunkCapacity, position);
+        n.prev = c;
+        if (c == null) {
+            n.next = head;
+            if (head != null) {
+                head.prev = n;
+            }
+            head = n;
+        } else {
+            n.next = c.next;
+            if (c.next != null) {
+                c.next.prev = n;
+            }
+            c.next = n;
+        }
+        if (n.next == null) {
+            tail = n;
+        }
+        return n;
+    }
+
+    /**
+     * 删除空的块, 保留该块的 prev 和 next 以便迭代器重新定位
+     */
+    private void unlinkChunk(Chunk<E> c) {
+        if (c.prev == null) {
+            head = c.next;
+        } else {
+            c.prev.next = c.next;
+        }
+        if (c.next == null) {
+            tail = c.prev;
+        } else {
+            c.next.prev = c.prev;
+        }
+    }
+
+    /**
+     * 删除 c 中位置为 pos 的元素, 删除之后元素过少时合并下一个块
+     *
+     * @return 被删除元素的后继元素在 c 中的位置; c 被删除时返回 -1, 后继元素位于 c.next 的开头
+     */
+    private int removeAt(Chunk<E> c, int pos) {
+        final Object[] items = c.items;
+        int successor;
+        if (pos == c.start) {
+            items[c.start++] = null;
+            successor = c.start;
+        } else {
+            System.arraycopy(items, pos + 1, items, pos, c.end - pos - 1);
+            items[--c.end] = null;
+            successor = pos;
+        }
+        size--;
+        modCount++;
+        if (c.start == c.end) {
+            unlinkChunk(c);
+            return -1;
+        }
+        final Chunk<E> n = c.next;
+        if (n != null && c.size() < chunkCapacity >>> 2 && c.end + n.size() <= chunkCapacity) {
+            // 将下一个块追加到当前块之后, 当前块中已有元素的位置不变
+            System.arraycopy(n.items, n.start, items, c.end, n.size());
+            c.end += n.size();
+            unlinkChunk(n);
+        }
+        return successor;
+    }
+
+    /**
+     * 拆分已满的块 c, 后一半元素移动到新的块中
+     *
+     * @return 新的块
+     */
+    private Chunk<E> split(Chunk<E> c) {
+        final int mid = c.start + (c.size() >>> 1);
+        final Chunk<E> n = linkChunkAfter(c, 0);
+        final int moved = c.end - mid;
+        System.arraycopy(c.items, mid, n.items, 0, moved);
+        Arrays.fill(c.items, mid, c.end, null);
+        n.end = moved;
+        c.end = mid;
+        return n;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E elementAt(Chunk<E> c, int pos) {
+        return (E) c.items[pos];
+    }
+
+    // Deque operations
+
+    @Override
+    public void addFirst(E e) {
+        Chunk<E> h = head;
+        if (h == null || h.start == 0) {
+            h = linkChunkAfter(null, chunkCapacity);
+        }
+        h.items[--h.start] = e;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void addLast(E e) {
+        Chunk<E> t = tail;
+        if (t == null || t.end == chunkCapacity) {
+            t = linkChunkAfter(t, 0);
+        }
+        t.items[t.end++] = e;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        addFirst(e);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        return pollFirst();
+    }
+
+    @Override
+    public E removeLast() {
+        if (tail == null) {
+            throw new NoSuchElementException();
+        }
+        return pollLast();
+    }
+
+    @Override
+    public E pollFirst() {
+        final Chunk<E> h = head;
+        if (h == null) {
+            return null;
+        }
+        final E e = elementAt(h, h.start);
+        h.items[h.start++] = null;
+        if (h.start == h.end) {
+            unlinkChunk(h);
+        }
+        size--;
+        modCount++;
+        return e;
+    }
+
+    @Override
+    public E pollLast() {
+        final Chunk<E> t = tail;
+        if (t == null) {
+            return null;
+        }
+        final E e = elementAt(t, --t.end);
+        t.items[t.end] = null;
+        if (t.start == t.end) {
+            unlinkChunk(t);
+        }
+        size--;
+        modCount++;
+        return e;
+    }
+
+    @Override
+    public E getFirst() {
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(head, head.start);
+    }
+
+    @Override
+    public E getLast() {
+        if (tail == null) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(tail, tail.end - 1);
+    }
+
+    @Override
+    public E peekFirst() {
+        return head == null ? null : elementAt(head, head.start);
+    }
+
+    @Override
+    public E peekLast() {
+        return tail == null ? null : elementAt(tail, tail.end - 1);
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        for (Chunk<E> c = head; c != null; c = c.next) {
+            for (int i = c.start; i < c.end; i++) {
+                if (Objects.equals(o, c.items[i])) {
+                    removeAt(c, i);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        for (Chunk<E> c = tail; c != null; c = c.prev) {
+            for (int i = c.end - 1; i >= c.start; i--) {
+                if (Objects.equals(o, c.items[i])) {
+                    removeAt(c, i);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public E remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        final ListIterator<E> itr = listIterator(size);
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return itr.hasPrevious();
+            }
+
+            @Override
+            public E next() {
+                return itr.previous();
+            }
+
+            @Override
+            public void remove() {
+                itr.remove();
+            }
+        };
+    }
+
+    // List operations
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        int index = 0;
+        for (Chunk<E> c = head; c != null; c = c.next) {
+            for (int i = c.start; i < c.end; i++, index++) {
+                if (Objects.equals(o, c.items[i])) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void clear() {
+        // 断开块之间的链接, 帮助 GC
+        for (Chunk<E> c = head; c != null; ) {
+            final Chunk<E> next = c.next;
+            c.prev = c.next = null;
+            c = next;
+        }
+        head = tail = null;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public E get(int index) {
+        checkElementIndex(index);
+        if (index < (size >> 1)) {
+            Chunk<E> c = head;
+            while (index >= c.size()) {
+                index -= c.size();
+                c = c.next;
+            }
+            return elementAt(c, c.start + index);
+        }
+        int back = size - 1 - index;
+        Chunk<E> c = tail;
+        while (back >= c.size()) {
+            back -= c.size();
+            c = c.prev;
+        }
+        return elementAt(c, c.end - 1 - back);
+    }
+
+    @Override
+    public E set(int index, E element) {
+        checkElementIndex(index);
+        final ListIterator<E> itr = listIterator(index);
+        final E old = itr.next();
+        itr.set(element);
+        return old;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        if (index == size) {
+            addLast(element);
+        } else if (index == 0) {
+            addFirst(element);
+        } else {
+            listIterator(index).add(element);
+        }
+    }
+
+    @Override
+    public E remove(int index) {
+        checkElementIndex(index);
+        final ListIterator<E> itr = listIterator(index);
+        final E e = itr.next();
+        itr.remove();
+        return e;
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        for (Chunk<E> c = head; c != null; c = c.next) {
+            for (int i = c.start, end = c.end; i < end; i++) {
+                action.accept(elementAt(c, i));
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private void checkElementIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new ListItr(index);
+    }
+
+    /**
+     * 游标位于 (chunk, pos) 之前, 即 next() 返回 chunk.items[pos]; pos == chunk.end 时表示位于该块末尾
+     */
+    private class ListItr implements ListIterator<E> {
+        private Chunk<E> chunk;
+        private int pos;
+        private int nextIndex;
+        private Chunk<E> lastChunk;
+        private int lastPos;
+        private boolean lastWasNext;
+        private int expectedModCount = modCount;
+
+        ListItr(int index) {
+            nextIndex = index;
+            if (index == size) {
+                chunk = tail;
+                pos = tail == null ? 0 : tail.end;
+            } else if (index < (size >> 1)) {
+                chunk = head;
+                while (index >= chunk.size()) {
+                    index -= chunk.size();
+                    chunk = chunk.next;
+                }
+                pos = chunk.start + index;
+            } else {
+                int back = size - index;
+                chunk = tail;
+                while (back > chunk.size()) {
+                    back -= chunk.size();
+                    chunk = chunk.prev;
+                }
+                pos = chunk.end - back;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (nextIndex >= size) {
+                throw new NoSuchElementException();
+            }
+            if (pos == chunk.end) {
+                chunk = chunk.next;
+                pos = chunk.start;
+            }
+            lastChunk = chunk;
+            lastPos = pos;
+            lastWasNext = true;
+            nextIndex++;
+            return elementAt(chunk, pos++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public E previous() {
+            checkForComodification();
+            if (nextIndex <= 0) {
+                throw new NoSuchElementException();
+            }
+            if (pos == chunk.start) {
+                chunk = chunk.prev;
+                pos = chunk.end;
+            }
+            lastChunk = chunk;
+            lastPos = --pos;
+            lastWasNext = false;
+            nextIndex--;
+            return elementAt(chunk, pos);
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+            if (lastChunk == null) {
+                throw new IllegalStateException();
+            }
+            final Chunk<E> c = lastChunk;
+            final int successor = removeAt(c, lastPos);
+            if (successor >= 0) {
+                chunk = c;
+                pos = successor;
+            } else if (c.next != null) {
+                chunk = c.next;
+                pos = chunk.start;
+            } else {
+                chunk = c.prev;
+                pos = chunk == null ? 0 : chunk.end;
+            }
+            if (lastWasNext) {
+                nextIndex--;
+            }
+            lastChunk = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(E e) {
+            if (lastChunk == null) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            lastChunk.items[lastPos] = e;
+        }
+
+        @Override
+        public void add(E e) {
+            checkForComodification();
+            lastChunk = null;
+            if (chunk == null) {
+                addLast(e);
+                chunk = tail;
+                pos = tail.end;
+            } else {
+                if (chunk.size() == chunkCapacity) {
+                    final Chunk<E> n = split(chunk);
+                    if (pos >= chunk.end) {
+                        pos = pos - chunk.end;
+                        chunk = n;
+                    }
+                }
+                final Object[] items = chunk.items;
+                if (chunk.end < chunkCapacity) {
+                    System.arraycopy(items, pos, items, pos + 1, chunk.end - pos);
+                    items[pos++] = e;
+                    chunk.end++;
+                } else {
+                    System.arraycopy(items, chunk.start, items, chunk.start - 1, pos - chunk.start);
+                    items[pos - 1] = e;
+                    chunk.start--;
+                }
+                size++;
+                modCount++;
+            }
+            nextIndex++;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            while (hasNext()) {
+                action.accept(next());
+            }
+        }
+
+        final void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private void writeObject(java.io.ObjectOutputStream s) throws java.io.IOException {
+        s.defaultWriteObject();
+        s.writeInt(size);
+        for (Chunk<E> c = head; c != null; c = c.next) {
+            for (int i = c.start; i < c.end; i++) {
+                s.writeObject(c.items[i]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream s) throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        final int n = s.readInt();
+        for (int i = 0; i < n; i++) {
+            addLast((E) s.readObject());
+        }
+    }
+
+}
@@ -1,18 +1,34 @@
 package com.github.cosycode.common.thread;
 
+import com.github.cosycode.common.override.java.juc.MpscArrayBlockingQueue;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.Validate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
  * <b>Description : </b> 异步处理器
  * <p>
+ * <b>背压: </b> 使用有界队列时, 可以通过 {@link #setOverflowPolicy(OverflowPolicy)} 指定队列已满时 add 和 offer 的处理方式,
+ * 每种处理方式触发的次数可以通过 {@link #getOverflowCount(OverflowPolicy)} 获取; 未指定时保持 BlockingQueue 原有的行为.
+ * <br> <b>关闭: </b> close 方法立即停止处理, 队列中剩余的消息不再处理; {@link #shutdown(Duration)} 则先停止接收新消息,
+ * 处理完队列中已有的消息之后再停止, 超时则立即停止并返回未处理的消息.
+ * <br> <b>统计: </b> 可以通过 {@link #enableProcessorMetrics(boolean)} 开启处理统计(成功, 失败, 异常次数, 队列深度, 等待和处理耗时).
+ * </p>
+ * <p>
  * <b>created in </b> 2018/9/19
  *
  * @author CPF
@@ -39,6 +55,52 @@ public class AsynchronousProcessor<T> extends CtrlLoopThreadComp {
     @Getter
     protected final BlockingQueue<T> blockingQueue;
 
+    /**
+     * 队列已满时的处理方式, 为 null 表示保持 BlockingQueue 原有的行为(add 抛出异常, offer 返回 false)
+     */
+    @Getter
+    private volatile OverflowPolicy overflowPolicy;
+
+    /**
+     * BLOCK 方式下的最长阻塞时间(纳秒), 为 0 表示一直阻塞直到队列有空位
+     */
+    private volatile long blockTimeoutNanos;
+
+    /**
+     * 各个处理方式触发的次数, 按照 OverflowPolicy 的序号存放
+     */
+    private final AtomicLongArray overflowCounts = new AtomicLongArray(OverflowPolicy.values().length);
+
+    /**
+     * BLOCK 方式下阻塞超时而被拒绝的次数
+     */
+    private final AtomicLong blockTimeoutCount = new AtomicLong();
+
+    /**
+     * 是否已经调用过 shutdown 方法, 调用之后不再接收新消息, 队列处理完毕之后停止
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * 正在执行 add / offer 的线程数量: 先递增再检查关闭标记, 因此关闭之后只要等待其归零, 之前通过检查的消息就都已经放入队列
+     */
+    private final AtomicInteger producers = new AtomicInteger();
+
+    /**
+     * 保护 taker 的锁
+     */
+    private final Object takerLock = new Object();
+
+    /**
+     * 正阻塞在 blockingQueue.take() 上的线程, 关闭时通过 interrupt 将其唤醒
+     */
+    private Thread taker;
+
+    /**
+     * 处理统计信息, 未开启时为 null
+     */
+    private volatile AsynchronousProcessorMetrics processorMetrics;
+
     /**
      * @param blockingQueue 阻塞缓存队列
      * @param thenFun       消息的消息函数处理接口(不可为空)
@@ -74,6 +136,35 @@ public class AsynchronousProcessor<T> extends CtrlLoopThreadComp {
         return new AsynchronousProcessor<>(new LinkedBlockingQueue<>(), thenFun, null, 0);
     }
 
+    /**
+     * 创建一个使用有界队列的异步处理器, 队列为无锁的 MpscArrayBlockingQueue, 适合多个生产者一个消费者的场景
+     *
+     * @param capacity       队列容量
+     * @param overflowPolicy 队列已满时的处理方式
+     * @param thenFun        消息的消息函数处理接口(不可为空)
+     * @param <T>            AsynchronousProcessor对象中的模板T
+     * @return AsynchronousProcessor 的实例对象
+     */
+    public static <T> AsynchronousProcessor<T> ofConsumer(int capacity, @NonNull OverflowPolicy overflowPolicy, @NonNull Consumer<T> thenFun) {
+        return new AsynchronousProcessor<T>(new MpscArrayBlockingQueue<>(capacity), t -> {
+            thenFun.accept(t);
+            return true;
+        }, null, 0).setOverflowPolicy(overflowPolicy);
+    }
+
+    /**
+     * 创建一个使用有界队列的异步处理器, 队列为无锁的 MpscArrayBlockingQueue, 适合多个生产者一个消费者的场景
+     *
+     * @param capacity       队列容量
+     * @param overflowPolicy 队列已满时的处理方式
+     * @param thenFun        消息的消息函数处理接口(不可为空)
+     * @param <T>            AsynchronousProcessor对象中的模板T
+     * @return AsynchronousProcessor 的实例对象
+     */
+    public static <T> AsynchronousProcessor<T> ofPredicate(int capacity, @NonNull OverflowPolicy overflowPolicy, @NonNull Predicate<T> thenFun) {
+        return new AsynchronousProcessor<>(new MpscArrayBlockingQueue<>(capacity), thenFun, null, 0).setOverflowPolicy(overflowPolicy);
+    }
+
     /**
      * 添加一个函数, 方便子类继承
      */
@@ -81,24 +172,113 @@ public class AsynchronousProcessor<T> extends CtrlLoopThreadComp {
     protected boolean loop() {
         // 获取处理对象
         try {
-            T t = blockingQueue.take();
-            // 处理对象
-            if (thenFun != null) {
-                boolean isSuccess = thenFun.test(t);
-                // 如果失败则执行错误消费函数接口
-                if (!isSuccess && catchFun != null) {
-                    catchFun.accept(t);
+            final T t = nextElement();
+            if (t != null) {
+                final AsynchronousProcessorMetrics m = processorMetrics;
+                if (m != null) {
+                    m.recordDequeued(1);
                 }
+                handle(t);
             }
         } catch (InterruptedException e) {
             log.debug("AsynchronousProcessor [{}] was interrupted during blockingQueue.take()!!!", getName());
-            thread.interrupt();
+            Thread.currentThread().interrupt();
         }
         return true;
     }
 
+    /**
+     * 从队列中取出下一条消息, 队列为空时阻塞等待
+     * <p>
+     * 调用过 shutdown 方法且队列为空时, 关闭当前处理器并返回 null; 阻塞期间调用 close 或 shutdown 方法, 也会立即返回 null.
+     *
+     * @return 下一条消息, 处理器需要停止时返回 null
+     * @throws InterruptedException 阻塞期间被其它原因中断
+     */
+    protected T nextElement() throws InterruptedException {
+        final T t = blockingQueue.poll();
+        if (t != null) {
+            return t;
+        }
+        if (shutdown) {
+            // 与 shutdown 并发的 add / offer 可能还没有放入队列, 等待其结束之后再做最后一次检查
+            awaitProducers();
+            final T last = blockingQueue.poll();
+            if (last != null) {
+                return last;
+            }
+            close();
+            return null;
+        }
+        final Thread current = Thread.currentThread();
+        synchronized (takerLock) {
+            // 在锁内检查, 保证关闭时要么这里看到关闭标记, 要么关闭方法看到 taker
+            if (isShutdown()) {
+                return null;
+            }
+            taker = current;
+        }
+        try {
+            return blockingQueue.take();
+        } catch (InterruptedException e) {
+            if (isShutdown()) {
+                return null;
+            }
+            throw e;
+        } finally {
+            synchronized (takerLock) {
+                taker = null;
+                if (isShutdown()) {
+                    // 清除关闭时设置的中断标记, 执行器模式下线程是共享的, 不能遗留中断状态
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    /**
+     * 唤醒正阻塞在 blockingQueue.take() 上的线程
+     */
+    private void wakeTaker() {
+        synchronized (takerLock) {
+            if (taker != null) {
+                taker.interrupt();
+            }
+        }
+    }
+
+    /**
+     * 处理一条消息, 失败时执行错误消费函数接口
+     *
+     * @param t 处理对象
+     */
+    protected void handle(T t) {
+        if (thenFun != null) {
+            final AsynchronousProcessorMetrics m = processorMetrics;
+            final long start = m == null ? 0 : System.nanoTime();
+            boolean isSuccess;
+            try {
+                isSuccess = thenFun.test(t);
+            } catch (RuntimeException e) {
+                if (m != null) {
+                    m.recordException(1, System.nanoTime() - start);
+                }
+                throw e;
+            }
+            if (m != null) {
+                m.recordProcessed(isSuccess, 1, System.nanoTime() - start);
+            }
+            // 如果失败则执行错误消费函数接口
+            if (!isSuccess && catchFun != null) {
+                catchFun.accept(t);
+            }
+        }
+    }
+
     /**
      * 向异步缓存队列中添加处理对象
+     * <p>
+     * 队列已满时, 按照 overflowPolicy 处理; REJECT 方式或者 BLOCK 方式超时时抛出 IllegalStateException
      *
      * @param t 处理对象
      */
@@ -106,11 +286,30 @@ public class AsynchronousProcessor<T> extends CtrlLoopThreadComp {
         if (t == null) {
             return;
         }
-        if (thread.isInterrupted()) {
-            log.warn("AsynchronousProcessor [{}] was interrupted, it won't deal with message again : {}", getName(), t);
-            return;
+        final OverflowPolicy policy = overflowPolicy;
+        final boolean queued;
+        producers.incrementAndGet();
+        try {
+            if (isShutdown()) {
+                log.warn("AsynchronousProcessor [{}] has been shut down, it won't deal with message again : {}", getName(), t);
+                return;
+            }
+            if (policy == null) {
+                blockingQueue.add(t);
+                recordEnqueued();
+                return;
+            }
+            queued = enqueue(t, policy);
+        } finally {
+            producers.decrementAndGet();
+        }
+        if (!queued) {
+            if (policy == OverflowPolicy.CALLER_RUNS) {
+                handle(t);
+            } else if (policy == OverflowPolicy.REJECT || policy == OverflowPolicy.BLOCK) {
+                throw new IllegalStateException(String.format("AsynchronousProcessor [%s] queue full, message rejected", getName()));
+            }
         }
-        blockingQueue.add(t);
     }
 
     /**
@@ -122,18 +321,250 @@ public class AsynchronousProcessor<T> extends CtrlLoopThreadComp {
         if (t == null) {
             return false;
         }
-        if (thread.isInterrupted()) {
-            log.warn("AsynchronousProcessor [{}] was interrupted, it won't deal with message again : {}", getName(), t);
-            return false;
+        final OverflowPolicy policy = overflowPolicy;
+        final boolean queued;
+        producers.incrementAndGet();
+        try {
+            if (isShutdown()) {
+                log.warn("AsynchronousProcessor [{}] has been shut down, it won't deal with message again : {}", getName(), t);
+                return false;
+            }
+            if (policy == null) {
+                if (!blockingQueue.offer(t)) {
+                    return false;
+                }
+                recordEnqueued();
+                return true;
+            }
+            queued = enqueue(t, policy);
+        } finally {
+            producers.decrementAndGet();
+        }
+        if (!queued && policy == OverflowPolicy.CALLER_RUNS) {
+            handle(t);
+            return true;
         }
-        return blockingQueue.offer(t);
+        return queued;
+    }
+
+    /**
+     * 等待正在执行的 add / offer 结束; 只在已经停止接收新消息之后调用, 新的调用会直接被拒绝, 因此很快就会归零
+     */
+    private void awaitProducers() {
+        while (producers.get() != 0) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * 停止接收新消息之后, 取出队列中剩余的消息; 会等待正在执行的 add / offer 结束, 期间不断取出消息, 使阻塞在已满队列上的 add 能够完成
+     *
+     * @param rest 存放剩余消息的集合
+     * @return 取出的消息数量
+     */
+    int drainRemaining(Collection<? super T> rest) {
+        int count = blockingQueue.drainTo(rest);
+        while (producers.get() != 0) {
+            Thread.yield();
+            count += blockingQueue.drainTo(rest);
+        }
+        count += blockingQueue.drainTo(rest);
+        recordRemoved(count);
+        return count;
+    }
+
+    private void recordEnqueued() {
+        final AsynchronousProcessorMetrics m = processorMetrics;
+        if (m != null) {
+            m.recordEnqueued();
+        }
+    }
+
+    private void recordRemoved(int count) {
+        final AsynchronousProcessorMetrics m = processorMetrics;
+        if (m != null && count > 0) {
+            m.recordRemoved(count);
+        }
+    }
+
+    /**
+     * 按照指定的处理方式将消息放入队列
+     *
+     * @param t      处理对象
+     * @param policy 队列已满时的处理方式
+     * @return 消息是否已经放入队列; CALLER_RUNS 方式下队列已满时返回 false, 由调用方在当前线程处理
+     */
+    private boolean enqueue(T t, OverflowPolicy policy) {
+        if (blockingQueue.offer(t)) {
+            recordEnqueued();
+            return true;
+        }
+        overflowCounts.incrementAndGet(policy.ordinal());
+        switch (policy) {
+            case BLOCK:
+                try {
+                    final long timeout = blockTimeoutNanos;
+                    if (timeout <= 0) {
+                        blockingQueue.put(t);
+                        recordEnqueued();
+                        return true;
+                    }
+                    if (blockingQueue.offer(t, timeout, TimeUnit.NANOSECONDS)) {
+                        recordEnqueued();
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                blockTimeoutCount.incrementAndGet();
+                return false;
+            case DROP_OLDEST:
+                do {
+                    final T oldest = blockingQueue.poll();
+                    if (oldest != null) {
+                        recordRemoved(1);
+                        log.debug("AsynchronousProcessor [{}] queue full, drop oldest message : {}", getName(), oldest);
+                    }
+                } while (!blockingQueue.offer(t));
+                recordEnqueued();
+                return true;
+            case DROP_NEWEST:
+                log.debug("AsynchronousProcessor [{}] queue full, drop newest message : {}", getName(), t);
+                return false;
+            case CALLER_RUNS:
+            case REJECT:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 设置队列已满时 add 和 offer 的处理方式
+     *
+     * @param overflowPolicy 处理方式, 为 null 表示保持 BlockingQueue 原有的行为
+     * @return 当前实例对象
+     */
+    public AsynchronousProcessor<T> setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * 设置 BLOCK 方式下的最长阻塞时间
+     *
+     * @param timeout 最长阻塞时间, 为 0 表示一直阻塞直到队列有空位
+     * @param unit    时间单位
+     * @return 当前实例对象
+     */
+    public AsynchronousProcessor<T> setBlockTimeout(long timeout, @NonNull TimeUnit unit) {
+        Validate.isTrue(timeout >= 0, "timeout:%s cannot < 0", timeout);
+        this.blockTimeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * @param policy 处理方式
+     * @return 队列已满时, 该处理方式触发的次数
+     */
+    public long getOverflowCount(@NonNull OverflowPolicy policy) {
+        return overflowCounts.get(policy.ordinal());
+    }
+
+    /**
+     * @return BLOCK 方式下阻塞超时(或被中断)而被拒绝的次数
+     */
+    public long getBlockTimeoutCount() {
+        return blockTimeoutCount.get();
+    }
+
+    /**
+     * 停止处理器, 当前消息处理完毕之后停止, 队列中剩余的消息不再处理; 若正阻塞等待新消息, 则立即停止
+     */
+    @Override
+    public void close() {
+        super.close();
+        wakeTaker();
+    }
+
+    /**
+     * 停止接收新消息, 处理完队列中已有的消息之后停止, 不会等待; 若处理器暂停中则将其唤醒, 未启动则将其启动
+     */
+    public void shutdown() {
+        shutdown = true;
+        startOrWake();
+        wakeTaker();
+    }
+
+    /**
+     * 停止接收新消息, 在指定时间内等待队列中已有的消息处理完毕; 超时则立即停止处理器
+     *
+     * @param timeout 最长等待时间
+     * @return 未处理的消息, 全部处理完毕时返回空列表
+     * @throws InterruptedException 等待期间被中断
+     */
+    public List<T> shutdown(@NonNull Duration timeout) throws InterruptedException {
+        shutdown();
+        if (!awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            close();
+        }
+        // 停止接收前正在添加的消息也可能留在队列中, 一并返回
+        final List<T> rest = new ArrayList<>();
+        drainRemaining(rest);
+        return rest;
+    }
+
+    /**
+     * @return 是否已经调用过 shutdown 或 close 方法
+     */
+    public boolean isShutdown() {
+        return shutdown || isClosed();
     }
 
     /**
      * 清空队列中的消息
      */
     public void clear() {
-        blockingQueue.clear();
+        if (processorMetrics == null) {
+            blockingQueue.clear();
+            return;
+        }
+        int count = 0;
+        while (blockingQueue.poll() != null) {
+            count++;
+        }
+        recordRemoved(count);
+    }
+
+    /**
+     * 开启处理统计, 开启后可以通过 {@link #getProcessorMetrics()} 获取统计信息, 处理器终止时自动从 JMX 中注销;
+     * 应当在放入消息之前开启, 否则队列深度和等待时间不准确
+     *
+     * @param trackQueueWait 是否统计消息在队列中的等待时间, 开启后每次放入消息会多记录一次时间戳
+     * @return 当前实例对象
+     */
+    public synchronized AsynchronousProcessor<T> enableProcessorMetrics(boolean trackQueueWait) {
+        if (processorMetrics == null) {
+            processorMetrics = new AsynchronousProcessorMetrics(trackQueueWait);
+        }
+        return this;
+    }
+
+    /**
+     * @return 处理统计信息, 未开启统计时返回 null
+     */
+    public AsynchronousProcessorMetrics getProcessorMetrics() {
+        return processorMetrics;
+    }
+
+    /**
+     * 处理器终止后, 从 JMX 中注销处理统计信息
+     */
+    @Override
+    protected void afterTerminated() {
+        final AsynchronousProcessorMetrics m = processorMetrics;
+        if (m != null) {
+            m.unregisterMBean();
+        }
     }
 
     /**
@@ -177,4 +608,30 @@ public class AsynchronousProcessor<T> extends CtrlLoopThreadComp {
         return blockingQueue.size();
     }
 
+    /**
+     * 队列已满时 add 和 offer 的处理方式
+     */
+    public enum OverflowPolicy {
+        /**
+         * 阻塞生产者直到队列有空位, 可以通过 {@link #setBlockTimeout(long, TimeUnit)} 指定最长阻塞时间, 超时则拒绝
+         */
+        BLOCK,
+        /**
+         * 丢弃新添加的消息
+         */
+        DROP_NEWEST,
+        /**
+         * 丢弃队列中最早的消息, 再放入新添加的消息
+         */
+        DROP_OLDEST,
+        /**
+         * 在生产者线程中直接处理新添加的消息, 此时该消息与队列中的消息之间不保证处理顺序
+         */
+        CALLER_RUNS,
+        /**
+         * 拒绝新添加的消息, add 抛出 IllegalStateException, offer 返回 false
+         */
+        REJECT
+    }
+
 }
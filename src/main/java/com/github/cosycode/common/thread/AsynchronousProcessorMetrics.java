@@ -0,0 +1,286 @@
+package com.github.cosycode.common.thread;
+
+import com.github.cosycode.common.lang.RuntimeExtException;
+import lombok.Getter;
+import lombok.NonNull;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <b>Description : </b> AsynchronousProcessor 的处理统计信息, 通过 {@link AsynchronousProcessor#enableProcessorMetrics(boolean)} 开启
+ * <p>
+ * <b>队列深度: </b> 根据放入和取出的消息数量计算, 不需要调用队列的 size 方法(ArrayBlockingQueue 的 size 需要加锁).
+ * <br> <b>等待时间: </b> 放入队列时按照放入序号记录时间戳, 取出时按照取出序号查找对应的时间戳. 时间戳保存在固定大小的环形数组中,
+ * 每个时间戳都带有序号标记, 序号对不上(队列积压超过 {@value #STAMP_SLOTS} 条, 或者生产者还没来得及记录)时不统计该消息的等待时间.
+ * 多个生产者同时放入时, 放入序号与队列中的顺序可能略有出入, 因此等待时间是近似值.
+ * <br> 直接操作 getBlockingQueue() 返回的队列会使放入和取出的数量对不上, 此时队列深度和等待时间都不准确.
+ * <br> 可以通过 {@link #registerMBean(String)} 注册到 JMX 中, 处理器终止时自动注销.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class AsynchronousProcessorMetrics implements AsynchronousProcessorMetricsMXBean {
+
+    /**
+     * 时间戳环形数组的大小
+     */
+    public static final int STAMP_SLOTS = 4096;
+
+    private static final int TAG_BITS = 20;
+
+    private static final long TAG_MASK = (1L << TAG_BITS) - 1;
+
+    private static final int MICROS_BITS = Long.SIZE - TAG_BITS;
+
+    private static final long MICROS_MASK = (1L << MICROS_BITS) - 1;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    /**
+     * 被取出(包括被丢弃)的消息数量
+     */
+    private final AtomicLong dequeuedCount = new AtomicLong();
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong exceptionCount = new AtomicLong();
+    private final AtomicLong depthHighWaterMark = new AtomicLong();
+    private final Log2Histogram queueWait = new Log2Histogram();
+    private final Log2Histogram process = new Log2Histogram();
+    /**
+     * 是否统计等待时间
+     */
+    @Getter
+    private final boolean trackQueueWait;
+    /**
+     * 放入时间戳: 高 20 位为放入序号标记, 低 44 位为相对 origin 的微秒数;
+     * 微秒数约 203 天后回绕, 等待时间只取两者之差的低 44 位, 因此回绕不影响统计
+     */
+    private final AtomicLongArray stamps;
+    private final long origin = System.nanoTime();
+    /**
+     * 注册到 JMX 中的名称, 没有注册时为 null
+     */
+    @Getter
+    private ObjectName objectName;
+
+    /**
+     * @param trackQueueWait 是否统计消息在队列中的等待时间
+     */
+    public AsynchronousProcessorMetrics(boolean trackQueueWait) {
+        this.trackQueueWait = trackQueueWait;
+        this.stamps = trackQueueWait ? new AtomicLongArray(STAMP_SLOTS) : null;
+    }
+
+    /**
+     * 记录一条消息成功放入队列
+     */
+    void recordEnqueued() {
+        final long seq = enqueuedCount.getAndIncrement();
+        final long depth = seq + 1 - dequeuedCount.get();
+        long m;
+        while (depth > (m = depthHighWaterMark.get()) && !depthHighWaterMark.compareAndSet(m, depth)) {
+            // 其它线程同时更新了最大值, 重试
+        }
+        if (stamps != null) {
+            stamps.lazySet((int) (seq & (STAMP_SLOTS - 1)), (seq & TAG_MASK) << MICROS_BITS | (elapsedMicros() & MICROS_MASK));
+        }
+    }
+
+    /**
+     * 记录从队列中取出消息, 并统计其等待时间
+     *
+     * @param count 取出的消息数量
+     */
+    void recordDequeued(int count) {
+        final long first = dequeuedCount.getAndAdd(count);
+        if (stamps == null) {
+            return;
+        }
+        final long nowMicros = elapsedMicros();
+        for (long seq = first; seq < first + count; seq++) {
+            final long stamp = stamps.get((int) (seq & (STAMP_SLOTS - 1)));
+            // 时间戳为 0 表示该槽位从未写入过
+            if (stamp != 0 && stamp >>> MICROS_BITS == (seq & TAG_MASK)) {
+                // 低 44 位之差按有符号数扩展; 生产者记录时间戳晚于这里读取时间时, 差值为负数
+                final long waitMicros = (nowMicros - stamp) << TAG_BITS >> TAG_BITS;
+                queueWait.record(Math.max(0, waitMicros) * 1000);
+            }
+        }
+    }
+
+    /**
+     * @return 相对 origin 经过的微秒数
+     */
+    long elapsedMicros() {
+        return (System.nanoTime() - origin) / 1000;
+    }
+
+    /**
+     * 记录被丢弃或清除的消息, 这些消息不统计等待时间
+     *
+     * @param count 消息数量
+     */
+    void recordRemoved(int count) {
+        dequeuedCount.getAndAdd(count);
+    }
+
+    /**
+     * 记录一次处理
+     *
+     * @param success 是否处理成功
+     * @param count   本次处理的消息数量
+     * @param nanos   处理耗时(纳秒)
+     */
+    void recordProcessed(boolean success, int count, long nanos) {
+        (success ? successCount : failureCount).getAndAdd(count);
+        process.record(nanos);
+    }
+
+    void recordException(int count, long nanos) {
+        exceptionCount.getAndAdd(count);
+        process.record(nanos);
+    }
+
+    @Override
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    @Override
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    @Override
+    public long getExceptionCount() {
+        return exceptionCount.get();
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return Math.max(0, enqueuedCount.get() - dequeuedCount.get());
+    }
+
+    @Override
+    public long getQueueDepthHighWaterMark() {
+        return depthHighWaterMark.get();
+    }
+
+    @Override
+    public long getQueueWaitP50Nanos() {
+        return queueWait.percentile(0.5);
+    }
+
+    @Override
+    public long getQueueWaitP99Nanos() {
+        return queueWait.percentile(0.99);
+    }
+
+    @Override
+    public long getQueueWaitMaxNanos() {
+        return queueWait.getMax();
+    }
+
+    @Override
+    public long[] getQueueWaitHistogram() {
+        return queueWait.snapshot();
+    }
+
+    @Override
+    public long getProcessP50Nanos() {
+        return process.percentile(0.5);
+    }
+
+    @Override
+    public long getProcessP99Nanos() {
+        return process.percentile(0.99);
+    }
+
+    @Override
+    public long getProcessMaxNanos() {
+        return process.getMax();
+    }
+
+    @Override
+    public long[] getProcessHistogram() {
+        return process.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        successCount.set(0);
+        failureCount.set(0);
+        exceptionCount.set(0);
+        depthHighWaterMark.set(getQueueDepth());
+        queueWait.reset();
+        process.reset();
+    }
+
+    /**
+     * 注册到平台 MBeanServer 中, 名称为 {@value CtrlLoopMetrics#JMX_DOMAIN}:type=AsynchronousProcessor,name=[name]
+     *
+     * @param name 名称, 一般使用处理器名称
+     * @return 当前对象本身
+     */
+    public synchronized AsynchronousProcessorMetrics registerMBean(@NonNull String name) {
+        if (objectName != null) {
+            return this;
+        }
+        try {
+            final ObjectName on = new ObjectName(CtrlLoopMetrics.JMX_DOMAIN + ":type=AsynchronousProcessor,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+            this.objectName = on;
+        } catch (JMException e) {
+            throw new RuntimeExtException("failed to register AsynchronousProcessorMetrics to jmx, name: " + name, e);
+        }
+        return this;
+    }
+
+    /**
+     * 从平台 MBeanServer 中注销
+     */
+    public synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new RuntimeExtException("failed to unregister AsynchronousProcessorMetrics from jmx, name: " + objectName, e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AsynchronousProcessorMetrics{enqueuedCount=" + getEnqueuedCount() +
+                ", successCount=" + getSuccessCount() +
+                ", failureCount=" + getFailureCount() +
+                ", exceptionCount=" + getExceptionCount() +
+                ", queueDepth=" + getQueueDepth() +
+                ", queueDepthHighWaterMark=" + getQueueDepthHighWaterMark() +
+                ", queueWaitP50=" + getQueueWaitP50Nanos() +
+                ", queueWaitP99=" + getQueueWaitP99Nanos() +
+                ", queueWaitMax=" + getQueueWaitMaxNanos() +
+                ", processP50=" + getProcessP50Nanos() +
+                ", processP99=" + getProcessP99Nanos() +
+                ", processMax=" + getProcessMaxNanos() +
+                '}';
+    }
+
+}
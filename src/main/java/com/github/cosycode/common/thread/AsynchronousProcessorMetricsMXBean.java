@@ -0,0 +1,88 @@
+package com.github.cosycode.common.thread;
+
+/**
+ * <b>Description : </b> AsynchronousProcessor 处理统计信息的接口, 参照 {@link AsynchronousProcessorMetrics}, 也是注册到 JMX 时使用的接口
+ * <p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public interface AsynchronousProcessorMetricsMXBean {
+
+    /**
+     * @return 成功放入队列的消息数量
+     */
+    long getEnqueuedCount();
+
+    /**
+     * @return 处理成功(thenFun 返回 true)的消息数量
+     */
+    long getSuccessCount();
+
+    /**
+     * @return 处理失败(thenFun 返回 false, 转交 catchFun)的消息数量
+     */
+    long getFailureCount();
+
+    /**
+     * @return 处理时抛出异常的消息数量
+     */
+    long getExceptionCount();
+
+    /**
+     * @return 当前队列深度(根据放入和取出的数量估算)
+     */
+    long getQueueDepth();
+
+    /**
+     * @return 队列深度的最大值
+     */
+    long getQueueDepthHighWaterMark();
+
+    /**
+     * @return 消息在队列中等待时间的中位数(纳秒, 近似值), 未开启等待时间统计时为 0
+     */
+    long getQueueWaitP50Nanos();
+
+    /**
+     * @return 消息在队列中等待时间的 99 分位数(纳秒, 近似值), 未开启等待时间统计时为 0
+     */
+    long getQueueWaitP99Nanos();
+
+    /**
+     * @return 消息在队列中的最大等待时间(纳秒), 未开启等待时间统计时为 0
+     */
+    long getQueueWaitMaxNanos();
+
+    /**
+     * @return 等待时间直方图, 第 i 个元素表示等待时间在 [2^i, 2^(i+1)) 纳秒之间的消息数量
+     */
+    long[] getQueueWaitHistogram();
+
+    /**
+     * @return 处理耗时的中位数(纳秒, 近似值)
+     */
+    long getProcessP50Nanos();
+
+    /**
+     * @return 处理耗时的 99 分位数(纳秒, 近似值)
+     */
+    long getProcessP99Nanos();
+
+    /**
+     * @return 最大处理耗时(纳秒)
+     */
+    long getProcessMaxNanos();
+
+    /**
+     * @return 处理耗时直方图, 第 i 个元素表示耗时在 [2^i, 2^(i+1)) 纳秒之间的次数
+     */
+    long[] getProcessHistogram();
+
+    /**
+     * 清空统计信息, 队列深度除外
+     */
+    void reset();
+
+}
@@ -0,0 +1,253 @@
+package com.github.cosycode.common.thread;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * <b>Description : </b> 批量异步处理器, 每次循环从队列中一次性取出多条消息, 作为一个列表交给处理函数处理
+ * <p>
+ * 每次循环先阻塞等待第一条消息, 之后通过 drainTo 一次性取出队列中已有的消息, 最多取出 maxBatchSize 条;
+ * 若设置了 linger 时间且数量不足 maxBatchSize, 则从取到第一条消息起最多再等待 linger 时间以凑满一批.
+ * <br> 这样每一批消息只需要一次循环控制和一次(或少数几次)队列加锁, 适合数据库批量写入等场景.
+ * <br> 传给处理函数的列表在每一批都是新创建的, 处理函数可以持有该列表.
+ * <br> 开启处理统计时, 成功, 失败, 异常次数按消息条数统计, 处理耗时按批次统计.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class BatchAsynchronousProcessor<T> extends AsynchronousProcessor<T> {
+
+    /**
+     * 批量消息处理函数接口
+     */
+    @Getter
+    protected final Predicate<List<T>> batchThenFun;
+
+    /**
+     * 批量处理失败时的消费函数接口
+     */
+    @Getter
+    protected final Consumer<List<T>> batchCatchFun;
+
+    /**
+     * 每一批的最大数量
+     */
+    @Getter
+    private volatile int maxBatchSize;
+
+    /**
+     * 凑批的最长等待时间(纳秒), 为 0 表示不等待, 队列中有多少取多少
+     */
+    private volatile long lingerNanos;
+
+    /**
+     * @param blockingQueue 阻塞缓存队列
+     * @param batchThenFun  批量消息处理函数接口(不可为空)
+     * @param batchCatchFun 批量处理失败时的消费函数接口
+     * @param maxBatchSize  每一批的最大数量
+     * @param millisecond   线程多久处理一次(毫米), 为0, 表示不 sleep
+     */
+    public BatchAsynchronousProcessor(@NonNull BlockingQueue<T> blockingQueue, @NonNull Predicate<List<T>> batchThenFun, Consumer<List<T>> batchCatchFun, int maxBatchSize, int millisecond) {
+        super(blockingQueue, t -> batchThenFun.test(Collections.singletonList(t)), batchCatchFun == null ? null : t -> batchCatchFun.accept(Collections.singletonList(t)), millisecond);
+        Validate.isTrue(maxBatchSize > 0, "maxBatchSize:%s must > 0", maxBatchSize);
+        this.batchThenFun = batchThenFun;
+        this.batchCatchFun = batchCatchFun;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @param maxBatchSize 每一批的最大数量
+     * @param thenFun      批量消息处理函数接口(不可为空)
+     * @param <T>          BatchAsynchronousProcessor对象中的模板T
+     * @return BatchAsynchronousProcessor 的实例对象
+     */
+    public static <T> BatchAsynchronousProcessor<T> ofConsumer(int maxBatchSize, @NonNull Consumer<List<T>> thenFun) {
+        return new BatchAsynchronousProcessor<>(new LinkedBlockingQueue<>(), list -> {
+            thenFun.accept(list);
+            return true;
+        }, null, maxBatchSize, 0);
+    }
+
+    /**
+     * @param maxBatchSize 每一批的最大数量
+     * @param thenFun      批量消息处理函数接口(不可为空)
+     * @param <T>          BatchAsynchronousProcessor对象中的模板T
+     * @return BatchAsynchronousProcessor 的实例对象
+     */
+    public static <T> BatchAsynchronousProcessor<T> ofPredicate(int maxBatchSize, @NonNull Predicate<List<T>> thenFun) {
+        return new BatchAsynchronousProcessor<>(new LinkedBlockingQueue<>(), thenFun, null, maxBatchSize, 0);
+    }
+
+    /**
+     * 取出一批消息并处理
+     */
+    @Override
+    protected boolean loop() {
+        final int max = maxBatchSize;
+        try {
+            final T first = nextElement();
+            if (first == null) {
+                return true;
+            }
+            final List<T> batch = new ArrayList<>(Math.min(max, 16));
+            batch.add(first);
+            boolean interrupted = false;
+            if (max > 1) {
+                blockingQueue.drainTo(batch, max - 1);
+                final long linger = lingerNanos;
+                if (linger > 0 && batch.size() < max) {
+                    interrupted = lingerFor(batch, max, System.nanoTime() + linger);
+                }
+            }
+            // 凑批时被中断, 已经取出的消息仍然要处理, 处理完之后再恢复中断标记
+            try {
+                processBatch(batch);
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } catch (InterruptedException e) {
+            log.debug("BatchAsynchronousProcessor [{}] was interrupted while taking messages!!!", getName());
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * 处理一批消息
+     */
+    private void processBatch(List<T> batch) {
+        final AsynchronousProcessorMetrics m = getProcessorMetrics();
+        if (m != null) {
+            m.recordDequeued(batch.size());
+        }
+        // 处理对象
+        final long start = m == null ? 0 : System.nanoTime();
+        boolean isSuccess;
+        try {
+            isSuccess = batchThenFun.test(batch);
+        } catch (RuntimeException e) {
+            if (m != null) {
+                m.recordException(batch.size(), System.nanoTime() - start);
+            }
+            throw e;
+        }
+        if (m != null) {
+            m.recordProcessed(isSuccess, batch.size(), System.nanoTime() - start);
+        }
+        // 如果失败则执行错误消费函数接口
+        if (!isSuccess && batchCatchFun != null) {
+            batchCatchFun.accept(batch);
+        }
+    }
+
+    /**
+     * 在截止时间之前, 继续从队列中取出消息直到凑满一批; 被中断时停止等待
+     *
+     * @return 是否被中断
+     */
+    private boolean lingerFor(List<T> batch, int max, long deadline) {
+        while (batch.size() < max) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            final T t;
+            try {
+                t = blockingQueue.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                log.debug("BatchAsynchronousProcessor [{}] was interrupted while lingering, process the partial batch of {}", getName(), batch.size());
+                return true;
+            }
+            if (t == null) {
+                return false;
+            }
+            batch.add(t);
+            blockingQueue.drainTo(batch, max - batch.size());
+        }
+        return false;
+    }
+
+    /**
+     * @param maxBatchSize 每一批的最大数量
+     * @return 当前实例对象
+     */
+    public BatchAsynchronousProcessor<T> setMaxBatchSize(int maxBatchSize) {
+        Validate.isTrue(maxBatchSize > 0, "maxBatchSize:%s must > 0", maxBatchSize);
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * 设置凑批的最长等待时间, 从取到一批中的第一条消息开始计时
+     *
+     * @param linger 最长等待时间, 为 0 表示不等待
+     * @param unit   时间单位
+     * @return 当前实例对象
+     */
+    public BatchAsynchronousProcessor<T> setLinger(long linger, @NonNull TimeUnit unit) {
+        Validate.isTrue(linger >= 0, "linger:%s cannot < 0", linger);
+        this.lingerNanos = unit.toNanos(linger);
+        return this;
+    }
+
+    /**
+     * @param unit 时间单位
+     * @return 凑批的最长等待时间
+     */
+    public long getLinger(@NonNull TimeUnit unit) {
+        return unit.convert(lingerNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized BatchAsynchronousProcessor<T> enableProcessorMetrics(boolean trackQueueWait) {
+        super.enableProcessorMetrics(trackQueueWait);
+        return this;
+    }
+
+    @Override
+    public BatchAsynchronousProcessor<T> setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        super.setOverflowPolicy(overflowPolicy);
+        return this;
+    }
+
+    @Override
+    public BatchAsynchronousProcessor<T> setBlockTimeout(long timeout, @NonNull TimeUnit unit) {
+        super.setBlockTimeout(timeout, unit);
+        return this;
+    }
+
+    @Override
+    public BatchAsynchronousProcessor<T> setContinueIfException(boolean continueIfException) {
+        super.setContinueIfException(continueIfException);
+        return this;
+    }
+
+    @Override
+    public BatchAsynchronousProcessor<T> setMillisecond(int millisecond) {
+        super.setMillisecond(millisecond);
+        return this;
+    }
+
+    @Override
+    public BatchAsynchronousProcessor<T> setName(String name) {
+        super.setName(name);
+        return this;
+    }
+
+}
@@ -0,0 +1,297 @@
+package com.github.cosycode.common.thread;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b>Description : </b> CtrlLoopThreadComp 分组, 将多个循环作为一个整体进行启动, 暂停, 唤醒, 关闭, 并汇总各个循环的运行状况
+ * <p>
+ * <b>线程分片: </b> 通过 {@link #CtrlLoopGroup(String, int)} 创建的分组内置固定数量的单线程执行器,
+ * 加入分组的循环根据 key 的 hash 值固定分配到其中一个执行器上执行(执行器模式), 同一个 key 的循环总是在同一个线程中执行,
+ * 这样成百上千个循环只占用固定数量的线程; 通过 {@link #CtrlLoopGroup(String)} 创建的分组不改变循环的执行方式.
+ * <br> <b>批量关闭: </b> {@link #closeAll()} 只是依次向各个循环发出关闭信号, 不会等待, 所有循环并行结束;
+ * 之后可以通过 {@link #awaitTermination(long, TimeUnit)} 在同一个截止时间内等待所有循环终止.
+ * <br> <b>运行状况: </b> {@link #getHealth()} 返回各个状态的循环数量, 以及开启了统计信息的循环的汇总数据.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class CtrlLoopGroup implements AutoCloseable {
+
+    /**
+     * 分组名称
+     */
+    @Getter
+    private final String name;
+    /**
+     * 分组中的循环, 增删不频繁, 批量操作时无需加锁
+     */
+    private final List<CtrlLoopThreadComp> loops = new CopyOnWriteArrayList<>();
+    /**
+     * 分片执行器, 为 null 表示不进行分片
+     */
+    private final ScheduledExecutorService[] workers;
+
+    /**
+     * 创建一个不进行分片的分组, 循环按照各自的执行方式运行
+     *
+     * @param name 分组名称
+     */
+    public CtrlLoopGroup(@NonNull String name) {
+        this.name = name;
+        this.workers = null;
+    }
+
+    /**
+     * 创建一个分片分组, 加入分组的循环将固定分配到 workerCount 个工作线程中的一个上执行
+     *
+     * @param name        分组名称
+     * @param workerCount 工作线程数量
+     */
+    public CtrlLoopGroup(@NonNull String name, int workerCount) {
+        Validate.isTrue(workerCount > 0, "workerCount must be positive, but was %d", workerCount);
+        this.name = name;
+        this.workers = new ScheduledExecutorService[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            final String workerName = String.format("%s-worker-%d", name, i);
+            workers[i] = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, workerName));
+        }
+    }
+
+    /**
+     * 将循环加入分组, 以循环名称作为分片的 key
+     *
+     * @param loop 未启动的循环
+     * @return 传入的循环
+     */
+    public CtrlLoopThreadComp add(@NonNull CtrlLoopThreadComp loop) {
+        return add(loop.getName(), loop);
+    }
+
+    /**
+     * 将循环加入分组, 分片分组中相同 key 的循环会被分配到同一个工作线程中执行
+     *
+     * @param key  分片的 key
+     * @param loop 分片分组中必须是未启动的循环
+     * @return 传入的循环
+     */
+    public CtrlLoopThreadComp add(Object key, @NonNull CtrlLoopThreadComp loop) {
+        if (workers != null) {
+            loop.useExecutor(workers[Math.floorMod(Objects.hashCode(key), workers.length)]);
+        }
+        loops.add(loop);
+        return loop;
+    }
+
+    /**
+     * 将循环从分组中移除, 不会改变循环的状态
+     *
+     * @param loop 需要移除的循环
+     * @return 分组中是否包含该循环
+     */
+    public boolean remove(CtrlLoopThreadComp loop) {
+        return loops.remove(loop);
+    }
+
+    /**
+     * 移除分组中所有已经终止的循环
+     *
+     * @return 移除的数量
+     */
+    public int purgeTerminated() {
+        final List<CtrlLoopThreadComp> terminated = new ArrayList<>();
+        for (CtrlLoopThreadComp loop : loops) {
+            if (loop.isTerminated()) {
+                terminated.add(loop);
+            }
+        }
+        loops.removeAll(terminated);
+        return terminated.size();
+    }
+
+    /**
+     * @return 分组中的循环(只读快照)
+     */
+    public List<CtrlLoopThreadComp> getLoops() {
+        return Collections.unmodifiableList(new ArrayList<>(loops));
+    }
+
+    /**
+     * @return 分组中的循环数量
+     */
+    public int size() {
+        return loops.size();
+    }
+
+    /**
+     * 启动分组中所有未启动的循环
+     */
+    public void startAll() {
+        for (CtrlLoopThreadComp loop : loops) {
+            if (!loop.isClosed()) {
+                loop.startIfNotStart();
+            }
+        }
+    }
+
+    /**
+     * 暂停分组中的所有循环, 直到被唤醒
+     */
+    public void pauseAll() {
+        loops.forEach(CtrlLoopThreadComp::pause);
+    }
+
+    /**
+     * 暂停分组中的所有循环
+     *
+     * @param waitTime 暂停的时间(毫秒), 若为0则表示暂停直到被唤醒
+     */
+    public void pauseAll(long waitTime) {
+        for (CtrlLoopThreadComp loop : loops) {
+            loop.pause(waitTime);
+        }
+    }
+
+    /**
+     * 唤醒分组中的所有循环
+     */
+    public void wakeAll() {
+        loops.forEach(CtrlLoopThreadComp::wake);
+    }
+
+    /**
+     * 向分组中的所有循环发出关闭信号, 不会等待循环终止
+     */
+    public void closeAll() {
+        loops.forEach(CtrlLoopThreadComp::close);
+    }
+
+    /**
+     * 在同一个截止时间内等待分组中所有循环终止, 分片分组还会等待工作线程结束(需要先调用 close 方法)
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 是否全部终止, 超时返回 false
+     * @throws InterruptedException 等待期间被中断
+     */
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (CtrlLoopThreadComp loop : loops) {
+            if (!loop.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        if (workers != null) {
+            for (ScheduledExecutorService worker : workers) {
+                if (worker.isShutdown() && !worker.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 关闭分组中的所有循环, 分片分组还会关闭工作线程; 不会等待, 已经提交的关闭任务会在工作线程退出前执行完毕
+     */
+    @Override
+    public void close() {
+        closeAll();
+        if (workers != null) {
+            for (ScheduledExecutorService worker : workers) {
+                worker.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return 分组当前的运行状况快照
+     */
+    public Health getHealth() {
+        final Health health = new Health();
+        for (CtrlLoopThreadComp loop : loops) {
+            health.add(loop);
+        }
+        return health;
+    }
+
+    /**
+     * 分组运行状况快照, 各个循环的状态和统计数据是分别读取的, 因此只是近似值
+     */
+    @Getter
+    public static class Health {
+        /**
+         * 循环总数
+         */
+        private int total;
+        /**
+         * 未启动的循环数量
+         */
+        private int notStarted;
+        /**
+         * 运行中的循环数量
+         */
+        private int running;
+        /**
+         * 暂停中的循环数量
+         */
+        private int paused;
+        /**
+         * 已经终止的循环数量
+         */
+        private int terminated;
+        /**
+         * 开启了统计信息的循环数量, 以下统计数据只汇总这部分循环
+         */
+        private int metered;
+        private long loopCount;
+        private long falseCount;
+        private long exceptionCount;
+        private long loopNanos;
+        /**
+         * 所有循环中单次 loop 的最大耗时
+         */
+        private long latencyMaxNanos;
+
+        private void add(CtrlLoopThreadComp loop) {
+            total++;
+            if (loop.isTerminated()) {
+                terminated++;
+            } else if (loop.getThreadState() == Thread.State.NEW) {
+                notStarted++;
+            } else if (loop.isPaused()) {
+                paused++;
+            } else {
+                running++;
+            }
+            final CtrlLoopMetrics m = loop.getMetrics();
+            if (m != null) {
+                metered++;
+                loopCount += m.getLoopCount();
+                falseCount += m.getFalseCount();
+                exceptionCount += m.getExceptionCount();
+                loopNanos += m.getLoopNanos();
+                latencyMaxNanos = Math.max(latencyMaxNanos, m.getLatencyMaxNanos());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Health{total=%d, notStarted=%d, running=%d, paused=%d, terminated=%d, metered=%d, loopCount=%d, falseCount=%d, exceptionCount=%d, loopNanos=%d, latencyMaxNanos=%d}",
+                    total, notStarted, running, paused, terminated, metered, loopCount, falseCount, exceptionCount, loopNanos, latencyMaxNanos);
+        }
+    }
+
+}
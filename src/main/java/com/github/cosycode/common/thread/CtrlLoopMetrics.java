@@ -0,0 +1,219 @@
+package com.github.cosycode.common.thread;
+
+import com.github.cosycode.common.lang.RuntimeExtException;
+import lombok.Getter;
+import lombok.NonNull;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <b>Description : </b> CtrlLoopThreadComp 的循环统计信息, 通过 {@link CtrlLoopThreadComp#enableMetrics()} 开启
+ * <p>
+ * 统计数据只由执行 loop 的线程写入(执行器模式下各次循环依次执行, 同一时间也只有一个写入者), 因此计数器写入时使用 lazySet, 不需要 CAS;
+ * 其它线程可以随时无锁读取, 读到的是最近的近似值; reset 与写入并发时可能丢失少量数据.
+ * <br> 耗时直方图与 {@link AsynchronousProcessorMetrics} 共用 {@link Log2Histogram}, 以 2 的幂次划分区间, 第 i 个区间表示耗时在 [2^i, 2^(i+1)) 纳秒之间, 占用空间固定.
+ * <br> 可以通过 {@link #registerMBean(String)} 注册到 JMX 中.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class CtrlLoopMetrics implements CtrlLoopMetricsMXBean {
+
+    /**
+     * 注册到 JMX 时使用的域名
+     */
+    public static final String JMX_DOMAIN = "com.github.cosycode.common.thread";
+
+    private final AtomicLong loopCount = new AtomicLong();
+    private final AtomicLong falseCount = new AtomicLong();
+    private final AtomicLong exceptionCount = new AtomicLong();
+    private final AtomicLong loopNanos = new AtomicLong();
+    private final AtomicLong pausedNanos = new AtomicLong();
+    private final AtomicLong pacingNanos = new AtomicLong();
+    private final AtomicLong idleNanos = new AtomicLong();
+    /**
+     * loop 耗时直方图
+     */
+    private final Log2Histogram latency = new Log2Histogram();
+    /**
+     * 注册到 JMX 中的名称, 没有注册时为 null
+     */
+    @Getter
+    private ObjectName objectName;
+
+    /**
+     * 单个写入者累加
+     */
+    private static void add(AtomicLong counter, long delta) {
+        counter.lazySet(counter.get() + delta);
+    }
+
+    /**
+     * 记录一次 loop 方法的执行
+     *
+     * @param nanos loop 方法耗时(纳秒)
+     */
+    void recordLoop(long nanos) {
+        add(loopCount, 1);
+        add(loopNanos, nanos);
+        latency.record(nanos);
+    }
+
+    void recordFalse() {
+        add(falseCount, 1);
+    }
+
+    void recordException() {
+        add(exceptionCount, 1);
+    }
+
+    void recordPaused(long nanos) {
+        add(pausedNanos, nanos);
+    }
+
+    void recordPacing(long nanos) {
+        add(pacingNanos, nanos);
+    }
+
+    void recordIdle(long nanos) {
+        add(idleNanos, nanos);
+    }
+
+    @Override
+    public long getLoopCount() {
+        return loopCount.get();
+    }
+
+    @Override
+    public long getFalseCount() {
+        return falseCount.get();
+    }
+
+    @Override
+    public long getExceptionCount() {
+        return exceptionCount.get();
+    }
+
+    @Override
+    public long getLoopNanos() {
+        return loopNanos.get();
+    }
+
+    @Override
+    public long getPausedNanos() {
+        return pausedNanos.get();
+    }
+
+    @Override
+    public long getPacingNanos() {
+        return pacingNanos.get();
+    }
+
+    @Override
+    public long getIdleNanos() {
+        return idleNanos.get();
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return getLatencyPercentile(0.5);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return getLatencyPercentile(0.99);
+    }
+
+    @Override
+    public long getLatencyMaxNanos() {
+        return latency.getMax();
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        return latency.snapshot();
+    }
+
+    /**
+     * 根据直方图估算 loop 耗时的分位数
+     *
+     * @param percentile 分位, 取值范围 [0, 1]
+     * @return 分位数所在区间的上限(纳秒, 不超过最大耗时), 没有数据时返回 0
+     */
+    public long getLatencyPercentile(double percentile) {
+        return latency.percentile(percentile);
+    }
+
+    @Override
+    public void reset() {
+        loopCount.set(0);
+        falseCount.set(0);
+        exceptionCount.set(0);
+        loopNanos.set(0);
+        pausedNanos.set(0);
+        pacingNanos.set(0);
+        idleNanos.set(0);
+        latency.reset();
+    }
+
+    /**
+     * 注册到平台 MBeanServer 中, 名称为 {@value #JMX_DOMAIN}:type=CtrlLoopThreadComp,name=[name]
+     *
+     * @param name 名称, 一般使用线程名称
+     * @return 当前对象本身
+     */
+    public synchronized CtrlLoopMetrics registerMBean(@NonNull String name) {
+        if (objectName != null) {
+            return this;
+        }
+        try {
+            final ObjectName on = new ObjectName(JMX_DOMAIN + ":type=CtrlLoopThreadComp,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+            this.objectName = on;
+        } catch (JMException e) {
+            throw new RuntimeExtException("failed to register CtrlLoopMetrics to jmx, name: " + name, e);
+        }
+        return this;
+    }
+
+    /**
+     * 从平台 MBeanServer 中注销
+     */
+    public synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new RuntimeExtException("failed to unregister CtrlLoopMetrics from jmx, name: " + objectName, e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CtrlLoopMetrics{loopCount=" + getLoopCount() +
+                ", falseCount=" + getFalseCount() +
+                ", exceptionCount=" + getExceptionCount() +
+                ", loopNanos=" + getLoopNanos() +
+                ", pausedNanos=" + getPausedNanos() +
+                ", pacingNanos=" + getPacingNanos() +
+                ", idleNanos=" + getIdleNanos() +
+                ", p50=" + getLatencyP50Nanos() +
+                ", p99=" + getLatencyP99Nanos() +
+                ", max=" + getLatencyMaxNanos() +
+                '}';
+    }
+
+}
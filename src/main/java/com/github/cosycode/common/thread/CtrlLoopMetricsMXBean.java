@@ -0,0 +1,73 @@
+package com.github.cosycode.common.thread;
+
+/**
+ * <b>Description : </b> CtrlLoopThreadComp 循环统计信息的 JMX 接口, 参照 {@link CtrlLoopMetrics}
+ * <p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public interface CtrlLoopMetricsMXBean {
+
+    /**
+     * @return loop 方法执行次数
+     */
+    long getLoopCount();
+
+    /**
+     * @return loop 方法返回 false 的次数
+     */
+    long getFalseCount();
+
+    /**
+     * @return loop 方法抛出异常的次数
+     */
+    long getExceptionCount();
+
+    /**
+     * @return 执行 loop 方法的累计耗时(纳秒)
+     */
+    long getLoopNanos();
+
+    /**
+     * @return 处于暂停状态的累计时间(纳秒)
+     */
+    long getPausedNanos();
+
+    /**
+     * @return 两次循环之间间隔等待的累计时间(纳秒)
+     */
+    long getPacingNanos();
+
+    /**
+     * @return loop 方法返回 false 后, 按照空闲策略等待的累计时间(纳秒)
+     */
+    long getIdleNanos();
+
+    /**
+     * @return loop 方法耗时的中位数(纳秒, 近似值, 为所在区间的上限)
+     */
+    long getLatencyP50Nanos();
+
+    /**
+     * @return loop 方法耗时的 99 分位数(纳秒, 近似值, 为所在区间的上限)
+     */
+    long getLatencyP99Nanos();
+
+    /**
+     * @return loop 方法的最大耗时(纳秒)
+     */
+    long getLatencyMaxNanos();
+
+    /**
+     * @return loop 方法耗时直方图, 第 i 个元素表示耗时在 [2^i, 2^(i+1)) 纳秒之间的次数
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * 清空统计信息
+     */
+    void reset();
+
+}
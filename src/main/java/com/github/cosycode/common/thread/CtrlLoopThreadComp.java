@@ -1,10 +1,19 @@
 package com.github.cosycode.common.thread;
 
+import com.github.cosycode.common.util.common.ThreadUtils;
+import lombok.Getter;
+import lombok.NonNull;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
@@ -14,7 +23,14 @@ import java.util.function.Consumer;
  * <p>
  * <b>设计如下: </b>
  * <br> <b>线程终止: </b> 只要内置线程调用 interrupt() 方法即视为线程需要终止.
- * <br> <b>线程等待和唤醒机制: </b> 因为线程调用 interrupt() 方法视为线程需要终止, 因此此处使用 wait + notify 来管理线程等待和唤醒.
+ * <br> <b>线程等待和唤醒机制: </b> 因为线程调用 interrupt() 方法视为线程需要终止, 因此此处使用 LockSupport.park + unpark 来管理线程等待和唤醒.
+ * <br> <b>状态控制: </b> 循环状态及其参数打包在一个 AtomicLong 中, 通过 CAS 进行状态转换, 循环线程和控制线程之间不需要加锁.
+ * <br> <b>执行方式: </b> 默认每个实例内置一个平台线程, 也可以在启动之前通过 {@link #useVirtualThread()} 改为使用虚拟线程(JDK 21+),
+ * 或者通过 {@link #useExecutor(ScheduledExecutorService)} 将每一次循环作为任务提交到共享的执行器中, 这样成千上万个循环可以共用少量的线程.
+ * <br> <b>循环间隔: </b> 两次循环之间的间隔使用纳秒级的截止时间控制, 支持固定延迟和固定频率两种方式({@link PacingMode}),
+ * 间隔等待期间调用 wake, pause 等控制方法会立即打断等待.
+ * <br> <b>空闲策略: </b> loop 方法返回 false 表示本次没有活可干, 此时可以通过 {@link #setIdleStrategy(IdleStrategy)} 指定空闲时如何等待(自旋, 让出, 指数退避, 等待唤醒).
+ * <br> <b>统计信息: </b> 可以通过 {@link #enableMetrics()} 开启循环统计, 统计信息可以在其它线程无锁读取, 也可以注册到 JMX 中.
  * </p>
  * <b>created in </b> 2020/8/13
  *
@@ -36,18 +52,57 @@ public class CtrlLoopThreadComp implements AutoCloseable {
      */
     private static int threadInitNumber;
     /**
-     * 内置线程对象
+     * 内置线程对象, 在线程启动时创建; 执行器模式下没有内置线程, 该值始终为 null
      */
-    protected final Thread thread;
+    protected volatile Thread thread;
+    /**
+     * 线程名称
+     */
+    private volatile String name;
+    /**
+     * 执行方式
+     */
+    @Getter
+    private ExecMode execMode = ExecMode.PLATFORM_THREAD;
+    /**
+     * 执行器模式下使用的执行器
+     */
+    private ScheduledExecutorService executor;
+    /**
+     * 是否已经启动
+     */
+    private volatile boolean started;
+    /**
+     * 循环终止时计数减 1, 用于等待循环终止
+     */
+    private final CountDownLatch terminatedLatch = new CountDownLatch(1);
     /**
      * 线程每次执行的函数, 如果函数返回false, 则线程循环结束
      */
     private final BooleanSupplier booleanSupplier;
     /**
-     * 多长时间运行一次(while true 中的一个执行sleep多久)
+     * 两次循环之间的间隔(纳秒), 小于等于 0 表示不等待
      */
+    private volatile long periodNanos;
+    /**
+     * 循环间隔的计算方式, 默认为固定延迟
+     */
+    @Getter
+    @Setter
+    private volatile PacingMode pacingMode = PacingMode.FIXED_DELAY;
+    /**
+     * 固定频率模式下, 一次循环耗时超过间隔时的处理策略, 默认为追赶
+     */
+    @Getter
+    @Setter
+    private volatile OverrunPolicy overrunPolicy = OverrunPolicy.CATCH_UP;
+    /**
+     * loop 方法返回 false 时的空闲策略, 为 null 表示不做额外处理(按照循环间隔继续下一次循环);
+     * 不为 null 时, 空闲等待代替本次的循环间隔等待
+     */
+    @Getter
     @Setter
-    private int millisecond;
+    private volatile IdleStrategy idleStrategy;
     /**
      * 运行类
      */
@@ -57,6 +112,11 @@ public class CtrlLoopThreadComp implements AutoCloseable {
      */
     @SuppressWarnings("java:S3077")
     private volatile CtrlComp ctrlComp;
+    /**
+     * 循环统计信息, 为 null 表示未开启统计
+     */
+    @SuppressWarnings("java:S3077")
+    private volatile CtrlLoopMetrics metrics;
     /**
      * 返回 false 时调用方法
      */
@@ -95,9 +155,9 @@ public class CtrlLoopThreadComp implements AutoCloseable {
         this.booleanSupplier = booleanSupplier;
         this.falseConsumer = falseConsumer;
         this.catchConsumer = catchConsumer;
-        this.millisecond = millisecond;
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(millisecond);
         this.ctrlLoopRunnable = new CtrlLoopRunnable();
-        this.thread = new Thread(this.ctrlLoopRunnable, StringUtils.isBlank(name) ? "CtrlLoopThreadComp-" + nextThreadNum() : name);
+        this.name = StringUtils.isBlank(name) ? "CtrlLoopThreadComp-" + nextThreadNum() : name;
     }
 
     /**
@@ -109,6 +169,16 @@ public class CtrlLoopThreadComp implements AutoCloseable {
         return threadInitNumber++;
     }
 
+    /**
+     * 连续空闲次数加 1, 到达 Integer.MAX_VALUE 后不再增加; 长时间空闲时若溢出为负数, 退避策略会退回到自旋
+     *
+     * @param idleCount 当前连续空闲次数
+     * @return 加 1 后的连续空闲次数
+     */
+    static int nextIdleCount(int idleCount) {
+        return idleCount == Integer.MAX_VALUE ? idleCount : idleCount + 1;
+    }
+
     /**
      * @param runnable            运行函数
      * @param continueIfException 发生异常时是否继续.
@@ -193,34 +263,185 @@ public class CtrlLoopThreadComp implements AutoCloseable {
         ctrlLoopRunnable.changeState(1, 0, 0);
     }
 
+    /**
+     * 多长时间运行一次(两次循环之间间隔多少毫秒)
+     *
+     * @param millisecond 间隔的毫秒数, 小于等于 0 表示不等待
+     * @return 当前对象本身
+     */
+    public CtrlLoopThreadComp setMillisecond(int millisecond) {
+        return setPeriod(millisecond, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 设置两次循环之间的间隔, 具体如何计算间隔参照 {@link #setPacingMode(PacingMode)}
+     *
+     * @param period 间隔时间, 小于等于 0 表示不等待
+     * @param unit   时间单位
+     * @return 当前对象本身
+     */
+    public CtrlLoopThreadComp setPeriod(long period, @NonNull TimeUnit unit) {
+        this.periodNanos = unit.toNanos(period);
+        return this;
+    }
+
+    /**
+     * 开启循环统计, 开启后可以通过 {@link #getMetrics()} 获取统计信息, 若需要通过 JMX 查看, 可调用 {@link CtrlLoopMetrics#registerMBean(String)} 注册,
+     * 循环终止时会自动从 JMX 中注销.
+     *
+     * @return 当前对象本身
+     */
+    public synchronized CtrlLoopThreadComp enableMetrics() {
+        if (metrics == null) {
+            metrics = new CtrlLoopMetrics();
+        }
+        return this;
+    }
+
+    /**
+     * @return 循环统计信息, 未开启统计时返回 null
+     */
+    public CtrlLoopMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 使用虚拟线程执行循环, 需要在启动之前调用.
+     * <p>
+     * 虚拟线程需要 JDK 21 及以上版本, 运行时自动检测, 若当前 JVM 不支持, 则打印警告并退回到平台线程.
+     *
+     * @return 当前对象本身
+     */
+    public synchronized CtrlLoopThreadComp useVirtualThread() {
+        checkNotStarted();
+        if (ThreadUtils.isVirtualThreadSupported()) {
+            this.execMode = ExecMode.VIRTUAL_THREAD;
+        } else {
+            log.warn("virtual thread is not supported in current jvm, CtrlLoopThread [{}] will use platform thread", name);
+            this.execMode = ExecMode.PLATFORM_THREAD;
+        }
+        this.executor = null;
+        return this;
+    }
+
+    /**
+     * 使用执行器执行循环, 需要在启动之前调用.
+     * <p>
+     * 此模式下不会创建内置线程, 每一次循环都会作为一个任务提交到 executor 中, 执行完毕后再次提交下一次循环, 暂停期间不占用任何线程.
+     * <br> 多个实例共用同一个 executor 时, 各个循环会在 executor 的线程中交替执行, 因此 loop 方法中不宜长时间阻塞.
+     * <br> executor 的生命周期由调用方管理, close 方法不会关闭 executor.
+     *
+     * @param executor 执行循环的执行器
+     * @return 当前对象本身
+     */
+    public synchronized CtrlLoopThreadComp useExecutor(@NonNull ScheduledExecutorService executor) {
+        checkNotStarted();
+        this.execMode = ExecMode.EXECUTOR;
+        this.executor = executor;
+        return this;
+    }
+
+    private void checkNotStarted() {
+        if (started) {
+            throw new IllegalStateException(String.format("CtrlLoopThread [%s] has started, the execution mode cannot be changed", name));
+        }
+    }
+
     /**
      * 内置线程启动
      */
-    public void start() {
-        thread.start();
+    public synchronized void start() {
+        if (started) {
+            throw new IllegalThreadStateException(String.format("CtrlLoopThread [%s] has started", name));
+        }
+        started = true;
+        switch (execMode) {
+            case VIRTUAL_THREAD:
+                thread = ThreadUtils.newVirtualThread(name, ctrlLoopRunnable);
+                thread.start();
+                break;
+            case EXECUTOR:
+                ctrlLoopRunnable.startInExecutor();
+                break;
+            case PLATFORM_THREAD:
+            default:
+                thread = new Thread(ctrlLoopRunnable, name);
+                thread.start();
+        }
     }
 
     /**
      * 若没有启动的话, 则启动
      */
     public synchronized void startIfNotStart() {
-        if (Thread.State.NEW == thread.getState()) {
-            thread.start();
+        if (!started) {
+            start();
         }
     }
 
     /**
+     * 执行器模式下没有内置线程, 此时根据循环状态返回对应的线程状态: 暂停中返回 WAITING 或 TIMED_WAITING, 其余情况返回 RUNNABLE
+     *
      * @return 内置线程状态
      */
     public Thread.State getThreadState() {
-        return thread.getState();
+        final Thread t = thread;
+        if (t != null) {
+            return t.getState();
+        }
+        if (!started) {
+            return Thread.State.NEW;
+        }
+        return ctrlLoopRunnable.getExecutorState();
+    }
+
+    /**
+     * @return 循环是否已经被要求终止(调用过 close 方法), 或者已经终止
+     */
+    public boolean isClosed() {
+        return ctrlLoopRunnable.isClosed();
+    }
+
+    /**
+     * @return 循环是否处于暂停状态, 与 {@link #getThreadState()} 不同, 两次循环之间的间隔等待不视为暂停
+     */
+    public boolean isPaused() {
+        return ctrlLoopRunnable.isPaused();
+    }
+
+    /**
+     * @return 循环是否已经终止; 调用过 close 方法但还未启动的循环也视为已终止
+     */
+    public boolean isTerminated() {
+        return terminatedLatch.getCount() == 0 || (!started && isClosed());
+    }
+
+    /**
+     * 等待循环终止, 一般在调用 close 方法之后调用
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 循环是否已经终止, 超时返回 false
+     * @throws InterruptedException 等待期间被中断
+     */
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        if (!started && isClosed()) {
+            return true;
+        }
+        return terminatedLatch.await(timeout, unit);
+    }
+
+    /**
+     * 循环终止后, 在循环线程中调用, 此时等待终止的线程还未被唤醒; 方便子类释放资源
+     */
+    protected void afterTerminated() {
     }
 
     /**
      * 线程启动或恢复
      */
     public void startOrWake() {
-        final Thread.State state = thread.getState();
+        final Thread.State state = getThreadState();
         switch (state) {
             case NEW:
                 startIfNotStart();
@@ -232,14 +453,14 @@ public class CtrlLoopThreadComp implements AutoCloseable {
                 wake();
                 break;
             case TERMINATED:
-                log.warn("wrong invocation! CtrlLoopThread [{}] has ended!!!", thread.getName());
+                log.warn("wrong invocation! CtrlLoopThread [{}] has ended!!!", name);
                 break;
             default:
         }
     }
 
     /**
-     * 通过 interrupt 停止循环线程, 线程将会在执行完当前循环之后, 自动停止
+     * 停止循环线程, 线程将会在执行完当前循环之后, 自动停止; 若线程正处于暂停或间隔等待中, 则直接停止
      */
     @Override
     public void close() {
@@ -274,7 +495,7 @@ public class CtrlLoopThreadComp implements AutoCloseable {
      * @return 当前对象内线程名称
      */
     public String getName() {
-        return thread.getName();
+        return name;
     }
 
     /**
@@ -284,7 +505,11 @@ public class CtrlLoopThreadComp implements AutoCloseable {
      * @return 当前对象本身
      */
     public CtrlLoopThreadComp setName(String name) {
-        thread.setName(name);
+        this.name = name;
+        final Thread t = thread;
+        if (t != null) {
+            t.setName(name);
+        }
         return this;
     }
 
@@ -320,194 +545,714 @@ public class CtrlLoopThreadComp implements AutoCloseable {
      * @since 1.0
      **/
     private class CtrlLoopRunnable implements Runnable {
+        /*
+         * 控制字 ctrl 的布局: | arg (44 位) | seq (16 位) | state (4 位) |
+         * state: 循环状态; seq: 控制方法每调用一次加 1, 用于判断间隔等待期间是否有控制方法被调用;
+         * arg: 状态参数, state 为 STATE_RUN_COUNT 时表示剩余循环次数, state 为 STATE_PAUSING 时表示暂停时间(毫秒)
+         */
+        private static final int STATE_BITS = 4;
+        private static final int SEQ_BITS = 16;
+        private static final int ARG_SHIFT = STATE_BITS + SEQ_BITS;
+        private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+        private static final long SEQ_MASK = (1L << SEQ_BITS) - 1;
+        private static final long ARG_MAX = (1L << (Long.SIZE - ARG_SHIFT)) - 1;
+        /**
+         * 初始状态, 表示 state 还未被修改
+         */
+        private static final int STATE_INIT = 0;
+        /**
+         * 持续运行状态
+         */
+        private static final int STATE_RUN = 1;
+        /**
+         * 临时运行状态, 指定次数后转换为暂停状态, 此时 arg 表示剩余次数; 若剩余次数 > 0, 则指定次数后转换为永久暂停状态, 否则马上转为永久暂停状态
+         */
+        private static final int STATE_RUN_COUNT = 2;
+        /**
+         * 临时运行状态, 即将被暂停, 此时 arg 表示暂停时间; 若暂停时间 > 0, 则转为临时暂停状态, 否则转为永久暂停状态.
+         */
+        private static final int STATE_PAUSING = 3;
+        /**
+         * 临时暂停状态, 指定时间后被唤醒
+         */
+        private static final int STATE_TIMED_PAUSE = 4;
+        /**
+         * 永久暂停状态, 需要调用控制方法唤醒
+         */
+        private static final int STATE_PAUSE = 5;
+        /**
+         * 关闭状态, 执行完当前 loop 后终止, 此状态不可再被修改
+         */
+        private static final int STATE_CLOSING = 6;
         /**
-         * 用于线程启停的锁
+         * 终止状态, 此时修改 state 已经没有意义
          */
-        private final Object lock = new Object();
+        private static final int STATE_TERMINATED = 7;
+
         /**
-         * 添加了线程状态 state
+         * 控制字, 将 state, seq, 以及 waitTime / waitAfterLoopCount 打包进一个 long 中, 所有状态转换均通过 CAS 完成, 不需要加锁.
          * <p>
-         * <br>添加 state 的好处是 使得更改 state 状态时变得容易理解, 最主要的目的就是方法 {@link CtrlLoopRunnable#changeState(int, long, int)}
-         * <br>
-         * <br> <b>0: </b>初始状态, 表示 state 还未被修改
-         * <br> <b>1: </b>持续运行状态
-         * <br> <b>2: </b>临时运行状态, 指定次数后转换为暂停状态, 此时 waitAfterLoopCount 有意义; 若 waitAfterLoopCount > 0, 则指定次数后转换为永久暂停状态, 否则马上转为永久暂停状态
-         * <br> <b>3: </b>临时运行状态, 即将被暂停, 此时 waitTime 有意义; 若 waitTime>0, 则转为临时暂停状态, 否则转为永久暂停状态.
-         * <br> <b>4: </b>临时暂停状态, 指定时间后被唤醒
-         * <br> <b>5: </b>永久暂停状态, 需要使用 notify 唤醒
-         * <br> <b>-1: </b>终止状态, 此时修改 state 已经没有意义
+         * 执行 loop 的线程每次循环只需要读取一次该值, 没有控制方法调用时不会有任何竞争;
+         * 需要等待时通过 LockSupport.park 挂起, 控制方法修改状态后通过 LockSupport.unpark 唤醒.
+         */
+        private final AtomicLong ctrl = new AtomicLong();
+        /**
+         * 执行器模式下的任务代数: 偶数表示当前没有任务在执行(可能有任务在排队或延时等待), 奇数表示有任务正在执行.
+         * <p>
+         * 每个任务提交时记录当前代数, 执行时通过 CAS 将代数加 1 来抢占执行权, 执行完毕后再加 1 释放,
+         * 控制方法提交新任务时也会将代数加 2, 因此过期的任务(比如被提前唤醒的定时暂停任务)会因为 CAS 失败而被丢弃.
          */
-        private volatile int state;
+        private final AtomicLong epoch = new AtomicLong();
         /**
-         * 线程结束标记, 若该标记为 true, 则运行完当前 loop 则直接结束线程.
+         * 本次循环计划开始的时间(System.nanoTime), 固定频率模式据此计算下一次循环的开始时间, 0 表示需要重新以当前时间对齐; 只由执行 loop 的线程读写
          */
-        private volatile boolean endFlag;
+        private long deadline;
         /**
-         * 线程正处在 loop 方法循环里面
+         * 临时暂停状态的结束时间(System.nanoTime); 只由执行 loop 的线程读写
          */
-        private volatile int codeRunLocation;
+        private long pauseDeadline;
         /**
-         * 等待时间, 这里使用 wait 和 notify 对线程进行唤醒
+         * 开始暂停的时间(System.nanoTime), 0 表示没有暂停, 用于统计暂停时间; 只由执行 loop 的线程读写
          */
-        private long waitTime;
+        private long pausedAt;
         /**
-         * 在多少次循环后暂停标记
-         * <br> <b>-1: </b> 持续运行标记
-         * <br> <b>0: </b> 运行至检查点, 触发暂停事件, 该值转为 -1
-         * <br> <b>n(>0): </b> 运行至检查点, 该值减1
+         * 执行器模式下, 开始间隔等待或空闲等待的时间(System.nanoTime), 0 表示没有在等待, 用于统计等待时间; 只由执行 loop 的线程读写
          */
-        @Setter
-        private int waitAfterLoopCount;
+        private long waitSince;
+        /**
+         * 执行器模式下, 当前等待是否为空闲等待; 只由执行 loop 的线程读写
+         */
+        private boolean waitIdle;
+        /**
+         * loop 方法连续返回 false 的次数, 不会溢出; 只由执行 loop 的线程读写
+         */
+        private int idleCount;
+
+        private long word(int state, long seq, long arg) {
+            return (arg << ARG_SHIFT) | ((seq & SEQ_MASK) << STATE_BITS) | state;
+        }
+
+        private int stateOf(long c) {
+            return (int) (c & STATE_MASK);
+        }
+
+        private long seqOf(long c) {
+            return (c >>> STATE_BITS) & SEQ_MASK;
+        }
+
+        private long argOf(long c) {
+            return c >>> ARG_SHIFT;
+        }
 
         /**
          * 执行当前 loop 结束后, 关闭线程.
          * <p>
-         * 如果在 loop 中, 则通过更改标记位, 结束线程.
-         * 如果不在 loop 中, 而是在线程循环控制处理逻辑内, 则直接调用 interrupt 关闭线程.
+         * 将状态置为关闭状态, 并唤醒处在暂停或间隔等待中的线程, 如果正在 loop 中, 则执行完当前 loop 后结束.
          */
         protected void closeWhenThisLoopEnd() {
-            synchronized (lock) {
-                this.endFlag = true;
-                // 如果不是在 loop 的处理中, 则直接使用 interrupt 关闭线程
-                if (codeRunLocation < 3 || codeRunLocation >= 5) {
-                    thread.interrupt();
+            long c;
+            do {
+                c = ctrl.get();
+                if (stateOf(c) >= STATE_CLOSING) {
+                    return;
                 }
-            }
+            } while (!ctrl.compareAndSet(c, word(STATE_CLOSING, seqOf(c) + 1, 0)));
+            signal();
         }
 
         /**
-         * <br> <b>-2: </b> 运行完这一次直接关闭线程
          * <br> <b>1: </b>持续运行状态
-         * <br> <b>2: </b>临时运行状态, 指定次数后转换为暂停状态, 此时 waitAfterLoopCount 有意义
+         * <br> <b>2: </b>临时运行状态, 指定次数后转换为暂停状态, 此时 waitAfterLoopTime 有意义
          * <br> <b>3: </b>临时运行状态, 即将被暂停, 此时 waitTime 有意义
          *
-         * @param state             {@link CtrlLoopRunnable#state}
+         * @param state             目标状态
          * @param waitTime          等待时间, state=3时有意义, 若 waitTime>0, 则转为临时暂停状态, 否则转为永久暂停状态.
          * @param waitAfterLoopTime 循环指定次数后暂停, state=2时有意义, 若 waitAfterLoopCount > 0, 则指定次数后转换为永久暂停状态, 否则马上转为永久暂停状态
          */
         protected void changeState(final int state, final long waitTime, final int waitAfterLoopTime) {
-            synchronized (lock) {
-                switch (state) {
-                    case 1:
-                        this.waitTime = 0;
-                        this.waitAfterLoopCount = 0;
-                        lock.notifyAll();
+            final long arg;
+            switch (state) {
+                case STATE_RUN:
+                    arg = 0;
+                    break;
+                case STATE_RUN_COUNT:
+                    arg = Math.max(waitAfterLoopTime, 0);
+                    break;
+                case STATE_PAUSING:
+                    arg = Math.min(Math.max(waitTime, 0), ARG_MAX);
+                    break;
+                default:
+                    return;
+            }
+            long c;
+            do {
+                c = ctrl.get();
+                // 关闭之后状态不可再被修改
+                if (stateOf(c) >= STATE_CLOSING) {
+                    return;
+                }
+            } while (!ctrl.compareAndSet(c, word(state, seqOf(c) + 1, arg)));
+            signal();
+        }
+
+        /**
+         * 状态修改后, 唤醒处在暂停或间隔等待中的循环, 由循环根据新的状态决定是继续运行还是再次暂停
+         */
+        private void signal() {
+            final Thread t = thread;
+            if (t != null) {
+                LockSupport.unpark(t);
+            } else if (execMode == ExecMode.EXECUTOR && started) {
+                resubmitIfIdle();
+            }
+        }
+
+        /**
+         * @return 是否已经被要求关闭或者已经终止
+         */
+        private boolean isClosed() {
+            return stateOf(ctrl.get()) >= STATE_CLOSING;
+        }
+
+        /**
+         * @return 是否处于暂停状态(包括即将暂停)
+         */
+        private boolean isPaused() {
+            final int state = stateOf(ctrl.get());
+            return state >= STATE_PAUSING && state <= STATE_PAUSE;
+        }
+
+        /**
+         * 计算下一次循环开始的时间
+         *
+         * @param period 循环间隔(纳秒)
+         * @param now    当前时间(本次循环结束的时间)
+         * @return 下一次循环开始的时间
+         */
+        private long nextDeadline(long period, long now) {
+            if (pacingMode != PacingMode.FIXED_RATE) {
+                return now + period;
+            }
+            long next = deadline + period;
+            // 本次循环超时, 跳过错过的周期, 对齐到当前时间之后的下一个周期
+            if (next - now < 0 && overrunPolicy == OverrunPolicy.SKIP) {
+                next += ((now - next) / period + 1) * period;
+            }
+            return next;
+        }
+
+        /**
+         * 线程模式下, 使用 LockSupport.parkNanos 等待至指定时间
+         *
+         * @param next   截止时间
+         * @param seq    本次循环开始时的控制序号, 若控制序号发生变化, 则说明有控制方法被调用, 立即结束等待
+         * @param thread 当前线程
+         * @return 是否正常等待至截止时间, 被控制方法打断或者线程终止时返回 false
+         */
+        private boolean awaitDeadline(long next, long seq, Thread thread) {
+            while (!thread.isInterrupted()) {
+                final long c = ctrl.get();
+                if (seqOf(c) != seq || stateOf(c) >= STATE_CLOSING) {
+                    return false;
+                }
+                final long remaining = next - System.nanoTime();
+                if (remaining <= 0) {
+                    return true;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            return false;
+        }
+
+        /**
+         * 线程模式下, 按照空闲策略等待
+         *
+         * @param nanos  空闲策略返回的等待时间
+         * @param seq    本次循环开始时的控制序号
+         * @param thread 当前线程
+         */
+        private void idleWait(long nanos, long seq, Thread thread) {
+            if (nanos == IdleStrategy.SPIN) {
+                return;
+            }
+            if (nanos < 0) {
+                Thread.yield();
+                return;
+            }
+            final long start = System.nanoTime();
+            if (nanos == IdleStrategy.UNTIL_WOKEN) {
+                while (!thread.isInterrupted()) {
+                    final long c = ctrl.get();
+                    if (seqOf(c) != seq || stateOf(c) >= STATE_CLOSING) {
                         break;
-                    case 2:
-                        this.waitTime = 0;
-                        if (codeRunLocation == 2) {
-                            // 此时运行在执行自定义函数之前, 次数判定之后, 因此此时需要将次数 - 1
-                            this.waitAfterLoopCount = waitAfterLoopTime - 1;
+                    }
+                    LockSupport.park(this);
+                }
+            } else {
+                awaitDeadline(start + nanos, seq, thread);
+            }
+            final CtrlLoopMetrics m = metrics;
+            if (m != null) {
+                m.recordIdle(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * 线程模式下, 处理状态转换, 若需要暂停则挂起当前线程, 直到可以执行下一次 loop
+         *
+         * @param thread 当前线程
+         * @return 可以执行 loop 时的控制字, 若需要终止线程则返回 -1
+         */
+        @SuppressWarnings("java:S3776")
+        private long awaitRunnable(Thread thread) {
+            boolean paused = false;
+            while (true) {
+                final long c = ctrl.get();
+                switch (stateOf(c)) {
+                    case STATE_INIT:
+                    case STATE_RUN:
+                        if (paused) {
+                            endPause();
+                        }
+                        return c;
+                    case STATE_RUN_COUNT:
+                        final long count = argOf(c);
+                        final long n = count > 0 ? word(STATE_RUN_COUNT, seqOf(c), count - 1) : word(STATE_PAUSING, seqOf(c), 0);
+                        if (ctrl.compareAndSet(c, n) && count > 0) {
+                            if (paused) {
+                                endPause();
+                            }
+                            return n;
+                        }
+                        break;
+                    case STATE_PAUSING:
+                        startPause(c);
+                        paused = true;
+                        break;
+                    case STATE_TIMED_PAUSE:
+                        final long remaining = pauseDeadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            ctrl.compareAndSet(c, word(STATE_RUN, seqOf(c), 0));
                         } else {
-                            this.waitAfterLoopCount = waitAfterLoopTime;
+                            LockSupport.parkNanos(this, remaining);
                         }
-                        lock.notifyAll();
                         break;
-                    case 3:
-                        this.waitTime = waitTime;
-                        this.waitAfterLoopCount = 0;
-                        lock.notifyAll();
+                    case STATE_PAUSE:
+                        LockSupport.park(this);
                         break;
                     default:
+                        return -1;
+                }
+                if (thread.isInterrupted()) {
+                    log.debug("CtrlLoopThread [{}] was interrupted during waiting!!!", name);
+                    /* 线程中断即意味着线程结束 */
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * 即将暂停状态转为临时暂停或永久暂停状态
+         *
+         * @param c 当前控制字, 状态为 STATE_PAUSING
+         * @return 是否转换成功
+         */
+        private boolean startPause(long c) {
+            final long waitTime = argOf(c);
+            final long n = word(waitTime > 0 ? STATE_TIMED_PAUSE : STATE_PAUSE, seqOf(c), 0);
+            if (waitTime > 0) {
+                pauseDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTime);
+            }
+            if (ctrl.compareAndSet(c, n)) {
+                log.debug("CtrlLoopThread [{}] pause!!!", name);
+                deadline = 0;
+                if (pausedAt == 0) {
+                    pausedAt = System.nanoTime();
                 }
-                this.state = state;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 暂停结束, 统计暂停时间
+         */
+        private void endPause() {
+            log.debug("CtrlLoopThread [{}] wake!!!", name);
+            final CtrlLoopMetrics m = metrics;
+            if (m != null && pausedAt != 0) {
+                m.recordPaused(System.nanoTime() - pausedAt);
             }
+            pausedAt = 0;
         }
 
         @Override
-        @SuppressWarnings({"java:S1119", "java:S135", "java:S112"})
         public void run() {
             // 线程在启动之前, 可以不是0
-            if (state == 0) {
-                state = 1;
+            final long init = ctrl.get();
+            if (stateOf(init) == STATE_INIT) {
+                ctrl.compareAndSet(init, word(STATE_RUN, seqOf(init), 0));
             }
-            final String name = thread.getName();
+            final Thread thread = Thread.currentThread();
             log.debug("CtrlLoopThread [{}] start!!!", name);
-            outer:
-            while (!thread.isInterrupted()) {
-                // 临时运行状态, 指定次数后转换为暂停状态, 此时 waitAfterLoopCount 有意义
-                if (state == 2) {
-                    synchronized (lock) {
-                        if (state == 2) {
-                            if (waitAfterLoopCount > 0) {
-                                waitAfterLoopCount--;
-                            } else {
-                                state = 3;
-                                waitTime = 0;
-                            }
-                        }
+            try {
+                while (!thread.isInterrupted()) {
+                    final long c = awaitRunnable(thread);
+                    // 线程关闭或中断, 则关闭线程
+                    if (c < 0) {
+                        break;
                     }
-                }
-                codeRunLocation = 2;
-                /* 这个地方使用额外的对象锁停止线程, 而不是使用线程本身的停滞机制, 保证一次循环执行完毕后执行停止操作, 而不是一次循环正在执行 booleanSupplier 的时候停止*/
-                // 临时运行状态, 即将被暂停, 此时 waitTime 有意义, waitTime=0, 则转为永久暂停状态, waitTime>0, 则转为临时暂停状态
-                if (state == 3) {
-                    synchronized (lock) {
-                        // 此处之所以使用 while 而不是 if 是因为想要在线程等待过程中或者结束后, 依然可以通过控制 state 使得线程可以再次陷入等待, 以及可以最佳等待时间.
-                        while (state == 3) {
-                            log.debug("CtrlLoopThread [{}] pause!!!", name);
-                            try {
-                                // 添加添加临时变量防止幻读
-                                final long waitTmp = waitTime;
-                                if (waitTmp > 0) {
-                                    waitTime = 0;
-                                    state = 4;
-                                    lock.wait(waitTmp);
-                                } else {
-                                    state = 5;
-                                    lock.wait();
-                                }
-                            } catch (InterruptedException e) {
-                                log.debug("CtrlLoopThread [{}] was interrupted during waiting!!!", name);
-                                thread.interrupt();
-                                /* 线程中断即意味着线程结束, 此时跳出最外层循环 */
-                                break outer;
-                            }
-                            log.debug("CtrlLoopThread [{}] wake!!!", name);
-                        }
+                    final long period = periodNanos;
+                    if (period > 0 && deadline == 0) {
+                        deadline = System.nanoTime();
                     }
-                }
-                codeRunLocation = 3;
-                // 线程关闭标记为true, 则关闭线程
-                if (endFlag) {
-                    break;
-                }
-                /* 这个地方是正式执行线程的代码 */
-                try {
-                    final boolean cont = loop();
-                    codeRunLocation = 4;
-                    // 当结果返回 false 同时 falseConsumer 不为 null 时, 调用 falseConsumer 方法, 否则不做任何处理, 继续下一次循环
-                    if (!cont && falseConsumer != null) {
-                        falseConsumer.accept(getCtrlComp());
+                    /* 这个地方是正式执行线程的代码 */
+                    final boolean idle = !runLoopBody();
+                    // 线程关闭标记为true, 则关闭线程
+                    if (isClosed()) {
+                        break;
+                    }
+                    // 本次循环没有活可干, 按照空闲策略等待, 下一次循环重新对齐开始时间
+                    final IdleStrategy strategy = idleStrategy;
+                    if (idle && strategy != null) {
+                        idleCount = nextIdleCount(idleCount);
+                        idleWait(strategy.idleNanos(idleCount), seqOf(c), thread);
+                        deadline = 0;
+                        continue;
                     }
-                } catch (RuntimeException e) {
-                    /* 如果发生异常则调用 catchConsumer, 若 catchConsumer 为 null, 则封装现场并抛出异常 */
-                    if (catchConsumer != null) {
-                        catchConsumer.accept(getCtrlComp(), e);
+                    idleCount = 0;
+                    // 控制loop多久循环一次, 防止 CPU 过高占用; 等待被控制方法打断时, 下一次循环重新对齐开始时间
+                    if (period > 0) {
+                        final long now = System.nanoTime();
+                        final long next = nextDeadline(period, now);
+                        deadline = awaitDeadline(next, seqOf(c), thread) ? next : 0;
+                        final CtrlLoopMetrics m = metrics;
+                        if (m != null) {
+                            m.recordPacing(System.nanoTime() - now);
+                        }
                     } else {
-                        throw new RuntimeException(String.format("CtrlLoopThread [%s] processing exception, the thread stop!", name), e);
+                        deadline = 0;
                     }
                 }
-                codeRunLocation = 5;
-                // 线程关闭标记为true, 则关闭线程
-                if (endFlag) {
-                    break;
+            } finally {
+                log.debug("CtrlLoopThread [{}] end!!!", name);
+                ctrl.set(word(STATE_TERMINATED, 0, 0));
+                onTerminated();
+            }
+        }
+
+        /**
+         * 循环终止后, 从 JMX 中注销统计信息, 执行子类的终止回调, 并唤醒等待终止的线程
+         */
+        private void onTerminated() {
+            try {
+                final CtrlLoopMetrics m = metrics;
+                if (m != null) {
+                    m.unregisterMBean();
                 }
-                // 控制loop多久循环一次, 防止 CPU 过高占用
-                if (millisecond > 0) {
-                    try {
-                        Thread.sleep(millisecond);
-                    } catch (InterruptedException e) {
-                        log.debug("CtrlLoopThread [{}] was interrupted during sleep", name);
-                        thread.interrupt();
+                afterTerminated();
+            } finally {
+                terminatedLatch.countDown();
+            }
+        }
+
+        /**
+         * 执行一次 loop 方法, 并根据结果调用 falseConsumer 或 catchConsumer
+         *
+         * @return loop 方法的返回值, 发生异常时返回 true
+         */
+        private boolean runLoopBody() {
+            final CtrlLoopMetrics m = metrics;
+            try {
+                final boolean cont = m == null ? loop() : measuredLoop(m);
+                // 当结果返回 false 同时 falseConsumer 不为 null 时, 调用 falseConsumer 方法, 否则不做任何处理, 继续下一次循环
+                if (!cont && falseConsumer != null) {
+                    falseConsumer.accept(getCtrlComp());
+                }
+                return cont;
+            } catch (RuntimeException e) {
+                if (m != null) {
+                    m.recordException();
+                }
+                /* 如果发生异常则调用 catchConsumer, 若 catchConsumer 为 null, 则封装现场并抛出异常 */
+                if (catchConsumer != null) {
+                    catchConsumer.accept(getCtrlComp(), e);
+                } else {
+                    throw new RuntimeException(String.format("CtrlLoopThread [%s] processing exception, the thread stop!", name), e);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 执行 loop 方法并统计耗时
+         *
+         * @param m 统计信息
+         * @return loop 方法返回值
+         */
+        private boolean measuredLoop(CtrlLoopMetrics m) {
+            final long start = System.nanoTime();
+            try {
+                final boolean cont = loop();
+                if (!cont) {
+                    m.recordFalse();
+                }
+                return cont;
+            } finally {
+                m.recordLoop(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * 执行器模式下, 启动循环
+         */
+        private void startInExecutor() {
+            final long init = ctrl.get();
+            if (stateOf(init) == STATE_INIT) {
+                ctrl.compareAndSet(init, word(STATE_RUN, seqOf(init), 0));
+            }
+            log.debug("CtrlLoopThread [{}] start in executor!!!", name);
+            resubmitIfIdle();
+        }
+
+        /**
+         * 执行器模式下, 若当前没有任务正在执行, 则作废已提交的任务, 并立即提交一个新的任务
+         */
+        private void resubmitIfIdle() {
+            while (true) {
+                final long e = epoch.get();
+                // 有任务正在执行, 该任务结束时会检查状态是否被修改
+                if ((e & 1) != 0 || stateOf(ctrl.get()) == STATE_TERMINATED) {
+                    return;
+                }
+                if (epoch.compareAndSet(e, e + 2)) {
+                    schedule(e + 2, 0);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 执行器模式下, 提交一次循环任务
+         *
+         * @param taskEpoch 任务代数
+         * @param delay     延迟多少纳秒执行, 小于等于 0 则立即执行
+         */
+        private void schedule(long taskEpoch, long delay) {
+            final Runnable task = () -> step(taskEpoch);
+            try {
+                if (delay > 0) {
+                    executor.schedule(task, delay, TimeUnit.NANOSECONDS);
+                } else {
+                    executor.execute(task);
+                }
+            } catch (RejectedExecutionException e) {
+                log.error("CtrlLoopThread [" + name + "] was rejected by executor, the loop stop!", e);
+                terminate();
+            }
+        }
+
+        /**
+         * 执行器模式下, 释放执行权, 并根据需要提交下一次任务
+         *
+         * @param running 当前任务抢占后的代数(奇数)
+         * @param seq     当前任务开始时的控制序号
+         * @param delay   下一次任务的延迟(纳秒), 小于 0 表示不提交任务(永久暂停)
+         */
+        private void release(long running, long seq, long delay) {
+            final long idle = running + 1;
+            epoch.set(idle);
+            if (delay >= 0) {
+                schedule(idle, delay);
+            }
+            // 任务执行期间控制方法不会提交任务, 因此释放之后需要检查一下执行期间是否有控制方法被调用
+            if (seqOf(ctrl.get()) != seq) {
+                resubmitIfIdle();
+            }
+        }
+
+        /**
+         * 执行器模式下, 终止循环
+         */
+        private void terminate() {
+            if (stateOf(ctrl.getAndSet(word(STATE_TERMINATED, 0, 0))) != STATE_TERMINATED) {
+                log.debug("CtrlLoopThread [{}] end!!!", name);
+                onTerminated();
+            }
+        }
+
+        /**
+         * @return 执行器模式下, 根据循环状态映射的线程状态
+         */
+        private Thread.State getExecutorState() {
+            final int state = stateOf(ctrl.get());
+            if (state == STATE_TERMINATED) {
+                return Thread.State.TERMINATED;
+            }
+            if ((epoch.get() & 1) == 0) {
+                if (state == STATE_PAUSE) {
+                    return Thread.State.WAITING;
+                } else if (state == STATE_TIMED_PAUSE) {
+                    return Thread.State.TIMED_WAITING;
+                }
+            }
+            return Thread.State.RUNNABLE;
+        }
+
+        /**
+         * 执行器模式下, 执行一次循环, 执行完毕之后, 根据状态提交下一次循环任务, 或者进入暂停状态
+         *
+         * @param taskEpoch 任务代数
+         */
+        @SuppressWarnings("java:S3776")
+        private void step(long taskEpoch) {
+            // 过期任务, 或者已经有任务在执行了, 则直接丢弃
+            if (!epoch.compareAndSet(taskEpoch, taskEpoch + 1)) {
+                return;
+            }
+            final long running = taskEpoch + 1;
+            final long seq = seqOf(ctrl.get());
+            if (waitSince != 0) {
+                final CtrlLoopMetrics m = metrics;
+                if (m != null) {
+                    final long nanos = System.nanoTime() - waitSince;
+                    if (waitIdle) {
+                        m.recordIdle(nanos);
+                    } else {
+                        m.recordPacing(nanos);
                     }
                 }
+                waitSince = 0;
+            }
+            // 间隔等待被提前打断, 下一次循环重新对齐开始时间
+            if (deadline != 0 && deadline - System.nanoTime() > 0) {
+                deadline = 0;
+            }
+            boolean runnable = false;
+            while (!runnable) {
+                final long c = ctrl.get();
+                switch (stateOf(c)) {
+                    case STATE_INIT:
+                    case STATE_RUN:
+                        runnable = true;
+                        break;
+                    case STATE_RUN_COUNT:
+                        final long count = argOf(c);
+                        final long n = count > 0 ? word(STATE_RUN_COUNT, seqOf(c), count - 1) : word(STATE_PAUSING, seqOf(c), 0);
+                        runnable = ctrl.compareAndSet(c, n) && count > 0;
+                        break;
+                    case STATE_PAUSING:
+                        startPause(c);
+                        break;
+                    case STATE_TIMED_PAUSE:
+                        final long remaining = pauseDeadline - System.nanoTime();
+                        if (remaining > 0) {
+                            release(running, seq, remaining);
+                            return;
+                        }
+                        ctrl.compareAndSet(c, word(STATE_RUN, seqOf(c), 0));
+                        break;
+                    case STATE_PAUSE:
+                        release(running, seq, -1);
+                        return;
+                    default:
+                        terminate();
+                        return;
+                }
+            }
+            if (pausedAt != 0) {
+                endPause();
+            }
+            final long period = periodNanos;
+            if (period > 0 && deadline == 0) {
+                deadline = System.nanoTime();
+            }
+            boolean interrupted = false;
+            final boolean idle;
+            try {
+                idle = !runLoopBody();
+            } catch (RuntimeException e) {
+                log.error("CtrlLoopThread [" + name + "] processing exception, the loop stop!", e);
+                terminate();
+                return;
+            } finally {
+                // 执行器中的线程是共享的, 不能把中断状态遗留给下一个任务, 在这里中断即视为循环需要终止
+                interrupted = Thread.interrupted();
+            }
+            final IdleStrategy strategy = idleStrategy;
+            if (interrupted || isClosed()) {
+                terminate();
+            } else if (idle && strategy != null) {
+                // 本次循环没有活可干, 按照空闲策略等待, UNTIL_WOKEN 时不提交任务, 等待控制方法重新提交
+                idleCount = nextIdleCount(idleCount);
+                final long nanos = strategy.idleNanos(idleCount);
+                deadline = 0;
+                waitIdle = true;
+                waitSince = nanos > 0 ? System.nanoTime() : 0;
+                release(running, seq, nanos == IdleStrategy.UNTIL_WOKEN ? -1 : Math.max(nanos, 0));
+            } else if (period > 0 && seqOf(ctrl.get()) == seq) {
+                idleCount = 0;
+                final long now = System.nanoTime();
+                final long next = nextDeadline(period, now);
+                deadline = next;
+                waitIdle = false;
+                waitSince = now;
+                // 固定频率模式下追赶错过的循环时, next 可能早于当前时间
+                release(running, seq, Math.max(next - now, 0));
+            } else {
+                idleCount = 0;
+                deadline = 0;
+                release(running, seq, 0);
             }
-            log.debug("CtrlLoopThread [{}] end!!!", name);
-            state = -1;
         }
     }
 
+    /**
+     * 循环的执行方式
+     */
+    public enum ExecMode {
+        /**
+         * 每个实例内置一个平台线程(默认)
+         */
+        PLATFORM_THREAD,
+        /**
+         * 每个实例内置一个虚拟线程(JDK 21+)
+         */
+        VIRTUAL_THREAD,
+        /**
+         * 每一次循环作为任务提交到共享的执行器中执行
+         */
+        EXECUTOR
+    }
+
+    /**
+     * 循环间隔的计算方式
+     */
+    public enum PacingMode {
+        /**
+         * 固定延迟: 上一次循环结束之后, 间隔指定时间再开始下一次循环, 周期会随 loop 的耗时漂移
+         */
+        FIXED_DELAY,
+        /**
+         * 固定频率: 以上一次循环计划开始的时间为基准, 每隔指定时间开始一次循环, 周期不受 loop 耗时影响
+         */
+        FIXED_RATE
+    }
+
+    /**
+     * 固定频率模式下, 一次循环耗时超过间隔时的处理策略
+     */
+    public enum OverrunPolicy {
+        /**
+         * 追赶: 立即开始错过的循环, 直到追上原有的节奏
+         */
+        CATCH_UP,
+        /**
+         * 跳过: 放弃错过的循环, 对齐到下一个周期开始
+         */
+        SKIP
+    }
+
     /**
      * 当前类的控制器
      */
@@ -0,0 +1,105 @@
+package com.github.cosycode.common.thread;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <b>Description : </b> CtrlLoopThreadComp 中 loop 方法返回 false(即本次循环没有活可干)时的空闲策略
+ * <p>
+ * 策略本身不执行等待, 只根据连续空闲的次数返回需要等待多久, 由 CtrlLoopThreadComp 根据执行方式(线程或执行器)完成等待,
+ * 因此同一个策略对象可以被多个循环共用.
+ * <br> 空闲等待期间调用 wake, pause 等控制方法会立即结束等待, 所以生产者在放入数据后调用一次 wake, 循环即可马上响应.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@FunctionalInterface
+public interface IdleStrategy {
+
+    /**
+     * 不等待, 直接进行下一次循环
+     */
+    long SPIN = 0;
+
+    /**
+     * 让出 CPU(Thread.yield)后进行下一次循环; 执行器模式下等同于 SPIN
+     */
+    long YIELD = -1;
+
+    /**
+     * 一直等待, 直到有控制方法(wake 等)被调用
+     */
+    long UNTIL_WOKEN = Long.MAX_VALUE;
+
+    /**
+     * 计算本次空闲需要等待的时间
+     *
+     * @param idleCount 连续空闲的次数, 从 1 开始, loop 方法返回 true 后重新计数
+     * @return 需要等待的纳秒数, 或者 {@link #SPIN}, {@link #YIELD}, {@link #UNTIL_WOKEN}
+     */
+    long idleNanos(int idleCount);
+
+    /**
+     * @return 忙等策略: 不做任何等待, 延迟最低, 但会一直占用一个 CPU 核心
+     */
+    static IdleStrategy busySpin() {
+        return idleCount -> SPIN;
+    }
+
+    /**
+     * @return 让出策略: 每次空闲调用一次 Thread.yield
+     */
+    static IdleStrategy yielding() {
+        return idleCount -> YIELD;
+    }
+
+    /**
+     * @return 等待唤醒策略: 空闲后一直等待, 直到有控制方法(wake 等)被调用
+     */
+    static IdleStrategy untilWoken() {
+        return idleCount -> UNTIL_WOKEN;
+    }
+
+    /**
+     * 退避策略, 自旋 10 次, 让出 5 次之后, 从 minParkNanos 开始以指数退避的方式等待, 最多等待 maxParkNanos
+     *
+     * @param minParkNanos 最小等待时间(纳秒)
+     * @param maxParkNanos 最大等待时间(纳秒)
+     * @return 退避策略
+     */
+    static IdleStrategy backoff(long minParkNanos, long maxParkNanos) {
+        return backoff(10, 5, minParkNanos, maxParkNanos);
+    }
+
+    /**
+     * 退避策略: 先自旋 maxSpins 次, 再让出 maxYields 次, 之后从 minParkNanos 开始, 每次等待时间翻倍, 最多等待 maxParkNanos
+     *
+     * @param maxSpins     自旋次数
+     * @param maxYields    让出次数
+     * @param minParkNanos 最小等待时间(纳秒)
+     * @param maxParkNanos 最大等待时间(纳秒), 必须小于 {@link #UNTIL_WOKEN}
+     * @return 退避策略
+     */
+    static IdleStrategy backoff(int maxSpins, int maxYields, long minParkNanos, long maxParkNanos) {
+        Validate.isTrue(maxSpins >= 0 && maxYields >= 0, "maxSpins: %s and maxYields: %s cannot < 0", maxSpins, maxYields);
+        Validate.isTrue(minParkNanos > 0 && minParkNanos <= maxParkNanos, "need 0 < minParkNanos(%s) <= maxParkNanos(%s)", minParkNanos, maxParkNanos);
+        // 等于 UNTIL_WOKEN 时退避到上限后会一直等待, 在线程池模式下不再重新提交
+        Validate.isTrue(maxParkNanos < UNTIL_WOKEN, "maxParkNanos: %s must < UNTIL_WOKEN", maxParkNanos);
+        return idleCount -> {
+            if (idleCount <= maxSpins) {
+                return SPIN;
+            }
+            if (idleCount - maxSpins <= maxYields) {
+                return YIELD;
+            }
+            final int shift = idleCount - maxSpins - maxYields - 1;
+            // 防止左移溢出
+            if (shift >= Long.numberOfLeadingZeros(minParkNanos) - 1) {
+                return maxParkNanos;
+            }
+            return Math.min(minParkNanos << shift, maxParkNanos);
+        };
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.github.cosycode.common.thread;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <b>Description : </b> 以 2 的幂次划分区间的耗时直方图, 第 i 个区间表示耗时在 [2^i, 2^(i+1)) 纳秒之间, 可以多线程并发写入
+ * <p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+final class Log2Histogram {
+
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos 耗时(纳秒)
+     * @return 耗时所在区间的序号
+     */
+    static int bucketOf(long nanos) {
+        return nanos <= 0 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * 根据直方图估算分位数
+     *
+     * @param histogram  直方图
+     * @param max        最大耗时
+     * @param percentile 分位, 取值范围 [0, 1]
+     * @return 分位数所在区间的上限(纳秒, 不超过最大耗时), 没有数据时返回 0
+     */
+    static long percentile(long[] histogram, long max, double percentile) {
+        long total = 0;
+        for (long c : histogram) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(total * percentile));
+        long sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            sum += histogram[i];
+            if (sum >= target) {
+                final long upper = i >= Long.SIZE - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upper, max);
+            }
+        }
+        return max;
+    }
+
+    void record(long nanos) {
+        buckets.incrementAndGet(bucketOf(nanos));
+        long m;
+        while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) {
+            // 其它线程同时更新了最大值, 重试
+        }
+    }
+
+    long[] snapshot() {
+        final long[] arr = new long[buckets.length()];
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = buckets.get(i);
+        }
+        return arr;
+    }
+
+    long getCount() {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    long percentile(double percentile) {
+        return percentile(snapshot(), getMax(), percentile);
+    }
+
+    void reset() {
+        max.set(0);
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+    }
+
+}
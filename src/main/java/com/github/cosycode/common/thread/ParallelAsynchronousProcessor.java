@@ -0,0 +1,249 @@
+package com.github.cosycode.common.thread;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <b>Description : </b> 多消费线程异步处理器, 由多个 AsynchronousProcessor 组成, 通过 CtrlLoopGroup 统一管理
+ * <p>
+ * <b>共享队列: </b> 未指定 keyExtractor 时, 所有消费线程共用同一个队列, 任意空闲的消费线程都可以处理下一条消息, 消息之间不保证处理顺序.
+ * <br> <b>按 key 保序: </b> 指定 keyExtractor 时, 每个消费线程拥有独立的队列, 消息根据 key 的 hash 值固定分配到其中一个消费线程,
+ * 因此相同 key 的消息总是由同一个线程按照添加顺序处理, 不同 key 的消息并行处理.
+ * </p>
+ * <b>created in </b> 2026/10/18
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class ParallelAsynchronousProcessor<T> implements AutoCloseable {
+
+    /**
+     * 消费线程
+     */
+    private final AsynchronousProcessor<T>[] workers;
+
+    /**
+     * 根据消息获取分配的 key, 为 null 表示所有消费线程共用同一个队列
+     */
+    private final Function<? super T, ?> keyExtractor;
+
+    /**
+     * 所有消费线程共用的队列, 按 key 保序时为 null
+     */
+    private final BlockingQueue<T> sharedQueue;
+
+    /**
+     * 管理所有消费线程的分组
+     */
+    @Getter
+    private final CtrlLoopGroup group;
+
+    /**
+     * @param name          名称, 消费线程命名为 name-序号
+     * @param parallelism   消费线程数量
+     * @param queueSupplier 阻塞缓存队列提供者, 共享队列时只调用一次, 否则为每个消费线程调用一次
+     * @param keyExtractor  根据消息获取分配的 key, 为 null 表示所有消费线程共用同一个队列
+     * @param thenFun       消息的消息函数处理接口(不可为空)
+     * @param catchFun      出错时的消费函数接口
+     */
+    public ParallelAsynchronousProcessor(@NonNull String name, int parallelism, @NonNull Supplier<BlockingQueue<T>> queueSupplier, Function<? super T, ?> keyExtractor, @NonNull Predicate<T> thenFun, Consumer<T> catchFun) {
+        Validate.isTrue(parallelism > 0, "parallelism:%s must > 0", parallelism);
+        this.keyExtractor = keyExtractor;
+        this.group = new CtrlLoopGroup(name);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final AsynchronousProcessor<T>[] arr = new AsynchronousProcessor[parallelism];
+        this.workers = arr;
+        this.sharedQueue = keyExtractor == null ? queueSupplier.get() : null;
+        for (int i = 0; i < parallelism; i++) {
+            final BlockingQueue<T> queue = sharedQueue != null ? sharedQueue : queueSupplier.get();
+            workers[i] = new AsynchronousProcessor<>(queue, thenFun, catchFun, 0).setName(name + "-" + i);
+            group.add(workers[i]);
+        }
+    }
+
+    /**
+     * 所有消费线程共用一个无界队列, 不保证处理顺序
+     *
+     * @param parallelism 消费线程数量
+     * @param thenFun     消息的消息函数处理接口(不可为空)
+     * @param <T>         ParallelAsynchronousProcessor对象中的模板T
+     * @return ParallelAsynchronousProcessor 的实例对象
+     */
+    public static <T> ParallelAsynchronousProcessor<T> ofConsumer(int parallelism, @NonNull Consumer<T> thenFun) {
+        return ofConsumer(parallelism, null, thenFun);
+    }
+
+    /**
+     * 每个消费线程拥有一个无界队列, 相同 key 的消息按添加顺序处理
+     *
+     * @param parallelism  消费线程数量
+     * @param keyExtractor 根据消息获取分配的 key
+     * @param thenFun      消息的消息函数处理接口(不可为空)
+     * @param <T>          ParallelAsynchronousProcessor对象中的模板T
+     * @return ParallelAsynchronousProcessor 的实例对象
+     */
+    public static <T> ParallelAsynchronousProcessor<T> ofConsumer(int parallelism, Function<? super T, ?> keyExtractor, @NonNull Consumer<T> thenFun) {
+        return new ParallelAsynchronousProcessor<>("ParallelAsynchronousProcessor", parallelism, LinkedBlockingQueue::new, keyExtractor, t -> {
+            thenFun.accept(t);
+            return true;
+        }, null);
+    }
+
+    /**
+     * 所有消费线程共用一个无界队列, 不保证处理顺序
+     *
+     * @param parallelism 消费线程数量
+     * @param thenFun     消息的消息函数处理接口(不可为空)
+     * @param <T>         ParallelAsynchronousProcessor对象中的模板T
+     * @return ParallelAsynchronousProcessor 的实例对象
+     */
+    public static <T> ParallelAsynchronousProcessor<T> ofPredicate(int parallelism, @NonNull Predicate<T> thenFun) {
+        return new ParallelAsynchronousProcessor<>("ParallelAsynchronousProcessor", parallelism, LinkedBlockingQueue::new, null, thenFun, null);
+    }
+
+    /**
+     * 根据消息选择消费线程; 共享队列时选择任意一个还在接收消息的消费线程, 全部停止接收时返回第一个
+     *
+     * @param t 处理对象
+     * @return 处理该消息的消费线程
+     */
+    protected AsynchronousProcessor<T> select(T t) {
+        if (keyExtractor == null) {
+            for (AsynchronousProcessor<T> worker : workers) {
+                if (!worker.isShutdown()) {
+                    return worker;
+                }
+            }
+            return workers[0];
+        }
+        return workers[Math.floorMod(Objects.hashCode(keyExtractor.apply(t)), workers.length)];
+    }
+
+    /**
+     * 启动所有消费线程
+     */
+    public void start() {
+        group.startAll();
+    }
+
+    /**
+     * 向异步缓存队列中添加处理对象
+     *
+     * @param t 处理对象
+     */
+    public void add(T t) {
+        if (t != null) {
+            select(t).add(t);
+        }
+    }
+
+    /**
+     * 向异步缓存队列中添加处理对象
+     *
+     * @param t 处理对象
+     * @return 是否添加成功
+     */
+    public boolean offer(T t) {
+        return t != null && select(t).offer(t);
+    }
+
+    /**
+     * 暂停所有消费线程
+     */
+    public void pause() {
+        group.pauseAll();
+    }
+
+    /**
+     * 唤醒所有消费线程
+     */
+    public void wake() {
+        group.wakeAll();
+    }
+
+    /**
+     * 通知所有消费线程关闭, 不会等待
+     */
+    @Override
+    public void close() {
+        group.close();
+    }
+
+    /**
+     * 停止接收新消息, 在指定时间内等待所有队列中已有的消息处理完毕; 超时则立即停止所有消费线程
+     *
+     * @param timeout 最长等待时间
+     * @return 未处理的消息, 全部处理完毕时返回空列表
+     * @throws InterruptedException 等待期间被中断
+     */
+    public List<T> shutdown(@NonNull Duration timeout) throws InterruptedException {
+        for (AsynchronousProcessor<T> worker : workers) {
+            worker.shutdown();
+        }
+        if (!group.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            group.closeAll();
+        }
+        // 共享队列时每个消费线程取出的是同一个队列, 但需要分别等待经由各个消费线程正在添加的消息
+        final List<T> rest = new ArrayList<>();
+        for (AsynchronousProcessor<T> worker : workers) {
+            worker.drainRemaining(rest);
+        }
+        return rest;
+    }
+
+    /**
+     * 在同一个截止时间内等待所有消费线程终止
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 是否全部终止, 超时返回 false
+     * @throws InterruptedException 等待期间被中断
+     */
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        return group.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * @return 消费线程数量
+     */
+    public int getParallelism() {
+        return workers.length;
+    }
+
+    /**
+     * @return 所有消费线程(只读)
+     */
+    public List<AsynchronousProcessor<T>> getWorkers() {
+        return Collections.unmodifiableList(Arrays.asList(workers));
+    }
+
+    /**
+     * @return 当前异步队列中的数据大小
+     */
+    public int getSize() {
+        if (sharedQueue != null) {
+            return sharedQueue.size();
+        }
+        int size = 0;
+        for (AsynchronousProcessor<T> worker : workers) {
+            size += worker.getSize();
+        }
+        return size;
+    }
+
+}
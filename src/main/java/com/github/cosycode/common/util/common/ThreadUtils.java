@@ -7,6 +7,9 @@ import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.Collections;
@@ -27,6 +30,62 @@ import java.util.function.Consumer;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ThreadUtils {
 
+    /**
+     * 创建虚拟线程的方法句柄: (String name, Runnable task) -> Thread, 若当前 JDK 不支持虚拟线程(JDK 21 以下), 则为 null
+     */
+    private static final MethodHandle VIRTUAL_THREAD_FACTORY = findVirtualThreadFactory();
+
+    /**
+     * 通过反射查找 JDK 21 中的 Thread.ofVirtual().name(name).unstarted(task), 本包编译目标为 1.8, 因此无法直接引用相关 API
+     *
+     * @return 创建虚拟线程的方法句柄, 不支持则返回 null
+     */
+    @SuppressWarnings("java:S1181")
+    private static MethodHandle findVirtualThreadFactory() {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            final MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+            final MethodHandle name = lookup.findVirtual(builderClass, "name", MethodType.methodType(builderClass, String.class));
+            final MethodHandle unstarted = lookup.findVirtual(builderClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+            // 检测一下是否真正可用(JDK 19, 20 中虚拟线程为预览特性, 未开启预览时调用会抛出异常)
+            ofVirtual.invoke();
+            // (name, task) -> unstarted(name(ofVirtual(), name), task)
+            final MethodHandle builderWithName = MethodHandles.collectArguments(name, 0, ofVirtual.asType(MethodType.methodType(builderClass)));
+            return MethodHandles.collectArguments(unstarted, 0, builderWithName);
+        } catch (Throwable e) {
+            log.debug("virtual thread is not supported in current jvm: {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @return 当前运行的 JVM 是否支持虚拟线程(JDK 21+)
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * 创建一个未启动的虚拟线程, 若当前 JVM 不支持虚拟线程, 则返回 null
+     *
+     * @param name     线程名称
+     * @param runnable 线程执行的任务
+     * @return 未启动的虚拟线程, 不支持时返回 null
+     */
+    @SuppressWarnings("java:S1181")
+    public static Thread newVirtualThread(@NonNull String name, @NonNull Runnable runnable) {
+        if (VIRTUAL_THREAD_FACTORY == null) {
+            return null;
+        }
+        try {
+            return (Thread) VIRTUAL_THREAD_FACTORY.invoke(name, runnable);
+        } catch (Throwable e) {
+            throw new ShouldNotHappenException("failed to create virtual thread", e);
+        }
+    }
+
     /**
      * 获取 操作线程 所在的 线程组中 的 所有存活的线程
      *
@@ -0,0 +1,122 @@
+package cn.cpf.test.proxy;
+
+import com.github.cosycode.common.ext.proxy.AsyncCacheClosureProxy;
+import com.github.cosycode.common.ext.proxy.AsyncCurrentLimitClosureProxy;
+import com.github.cosycode.common.ext.proxy.AsyncSingletonClosureProxy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class AsyncClosureProxyTest {
+
+    /**
+     * 成功的 future 被缓存, 失败的 future 被删除
+     */
+    @Test
+    public void asyncCacheTest() {
+        final List<CompletableFuture<String>> pending = new ArrayList<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final Function<String, CompletableFuture<String>> function = AsyncCacheClosureProxy.of(k -> {
+            calls.incrementAndGet();
+            final CompletableFuture<String> f = new CompletableFuture<>();
+            pending.add(f);
+            return f;
+        });
+        final CompletableFuture<String> f1 = function.apply("a");
+        Assert.assertSame(f1, function.apply("a"));
+        pending.get(0).completeExceptionally(new IllegalStateException("timeout"));
+        final CompletableFuture<String> f2 = function.apply("a");
+        Assert.assertNotSame(f1, f2);
+        pending.get(1).complete("A");
+        Assert.assertSame(f2, function.apply("a"));
+        Assert.assertEquals("A", function.apply("a").join());
+        Assert.assertEquals(2, calls.get());
+
+        // 同步抛出的异常转换为失败的 future, 且不被缓存
+        final AtomicInteger failCalls = new AtomicInteger();
+        final Function<String, CompletableFuture<String>> failing = AsyncCacheClosureProxy.of(k -> {
+            failCalls.incrementAndGet();
+            throw new IllegalArgumentException(k);
+        });
+        Assert.assertTrue(failing.apply("x").isCompletedExceptionally());
+        Assert.assertTrue(failing.apply("x").isCompletedExceptionally());
+        Assert.assertEquals(2, failCalls.get());
+    }
+
+    @Test
+    public void asyncSingletonTest() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Supplier<CompletableFuture<Integer>> supplier = AsyncSingletonClosureProxy.of(() -> {
+            final CompletableFuture<Integer> f = new CompletableFuture<>();
+            if (calls.incrementAndGet() == 1) {
+                f.completeExceptionally(new IllegalStateException("init failed"));
+            } else {
+                f.complete(calls.get());
+            }
+            return f;
+        });
+        Assert.assertTrue(supplier.get().isCompletedExceptionally());
+        Assert.assertEquals(2, (int) supplier.get().join());
+        Assert.assertEquals(2, (int) supplier.get().join());
+        Assert.assertEquals(2, calls.get());
+    }
+
+    /**
+     * 被代理方法同步抛出 Error 时, 返回异常完成的 future, 且不保留为单例
+     */
+    @Test
+    public void asyncSingletonErrorTest() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Supplier<CompletableFuture<Integer>> supplier = AsyncSingletonClosureProxy.of(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new NoClassDefFoundError("init failed");
+            }
+            return CompletableFuture.completedFuture(calls.get());
+        });
+        Assert.assertTrue(supplier.get().isCompletedExceptionally());
+        Assert.assertEquals(2, (int) supplier.get().getNow(-1));
+        Assert.assertEquals(2, calls.get());
+    }
+
+    /**
+     * 超出限制的调用排队, 不阻塞调用线程
+     */
+    @Test
+    public void asyncLimitTest() {
+        final List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        final AsyncCurrentLimitClosureProxy<Function<Integer, CompletableFuture<Integer>>, Integer, Integer> proxy =
+                new AsyncCurrentLimitClosureProxy<>(2, i -> {
+                    final CompletableFuture<Integer> f = new CompletableFuture<>();
+                    pending.add(f);
+                    return f;
+                });
+        final Function<Integer, CompletableFuture<Integer>> function = proxy.proxy();
+        final List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(function.apply(i));
+        }
+        Assert.assertEquals(2, pending.size());
+        Assert.assertEquals(2, proxy.getActiveCount());
+        Assert.assertEquals(3, proxy.getQueueSize());
+        // 排队中被取消的调用不再执行
+        results.get(2).cancel(false);
+        pending.get(0).complete(0);
+        Assert.assertEquals(0, (int) results.get(0).join());
+        Assert.assertEquals(3, pending.size());
+        pending.get(1).completeExceptionally(new IllegalStateException());
+        Assert.assertTrue(results.get(1).isCompletedExceptionally());
+        Assert.assertEquals(4, pending.size());
+        pending.get(2).complete(3);
+        pending.get(3).complete(4);
+        Assert.assertEquals(4, (int) results.get(4).join());
+        Assert.assertEquals(0, proxy.getActiveCount());
+        Assert.assertEquals(0, proxy.getQueueSize());
+    }
+
+}
@@ -0,0 +1,228 @@
+package cn.cpf.test.proxy;
+
+import com.github.cosycode.common.ext.proxy.CacheClosureProxy;
+import com.github.cosycode.common.ext.struct.BoundedCache;
+import com.github.cosycode.common.ext.struct.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Slf4j
+public class CacheClosureProxyTest {
+
+    @Test
+    public void lruTest() {
+        final AtomicInteger loads = new AtomicInteger();
+        final BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>().setMaximumSize(3);
+        final Function<Integer, String> function = CacheClosureProxy.of(i -> {
+            loads.incrementAndGet();
+            return "v" + i;
+        }, cache);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("v" + i, function.apply(i));
+        }
+        // 访问 0, 使 1 成为最久未访问的数据
+        function.apply(0);
+        function.apply(3);
+        Assert.assertEquals(3, cache.size());
+        Assert.assertNull(cache.getIfPresent(1));
+        Assert.assertEquals("v0", cache.getIfPresent(0));
+        final CacheStats stats = cache.stats();
+        log.info("{}", stats);
+        Assert.assertEquals(4, loads.get());
+        Assert.assertEquals(1, stats.getEvictionCount());
+        Assert.assertEquals(2, stats.getHitCount());
+    }
+
+    /**
+     * 热点数据中混入大量只访问一次的数据, W-TinyLFU 的命中率应明显高于 LRU
+     */
+    @Test
+    public void tinyLfuTest() {
+        final double lru = mixedHitRate(BoundedCache.EvictionPolicy.LRU);
+        final double tinyLfu = mixedHitRate(BoundedCache.EvictionPolicy.W_TINY_LFU);
+        log.info("lru hit rate: {}, w-tinylfu hit rate: {}", lru, tinyLfu);
+        // 热点数据占全部访问的 1/4, 命中率上限为 0.25
+        Assert.assertTrue(tinyLfu > 0.2);
+        Assert.assertTrue(tinyLfu > lru + 0.15);
+    }
+
+    private double mixedHitRate(BoundedCache.EvictionPolicy policy) {
+        final BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>().setPolicy(policy).setMaximumSize(100);
+        int scan = 1000;
+        for (int i = 0; i < 20000; i++) {
+            cache.get(i % 50, Function.identity());
+            for (int j = 0; j < 3; j++) {
+                cache.get(scan++, Function.identity());
+            }
+        }
+        Assert.assertTrue(cache.getWeightedSize() <= 100);
+        return cache.stats().hitRate();
+    }
+
+    @Test
+    public void expireAndWeightTest() {
+        final AtomicLong now = new AtomicLong();
+        final BoundedCache<String, String> cache = new BoundedCache<String, String>()
+                .setExpireAfterWrite(10, TimeUnit.SECONDS).setExpireAfterAccess(3, TimeUnit.SECONDS)
+                .setMaximumWeight(10, (k, v) -> v.length()).setTicker(now::get);
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.put("c", "cccc");
+        // 超出权重, 淘汰最早的 a
+        Assert.assertNull(cache.getIfPresent("a"));
+        Assert.assertEquals(8, cache.getWeightedSize());
+        for (int i = 0; i < 4; i++) {
+            now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+            Assert.assertEquals("bbbb", cache.getIfPresent("b"));
+        }
+        // c 超过 3 秒未访问; b 虽然一直被访问, 但写入已满 10 秒
+        Assert.assertNull(cache.getIfPresent("c"));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        Assert.assertNull(cache.getIfPresent("b"));
+        cache.cleanUp();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getWeightedSize());
+    }
+
+    /**
+     * 需要刷新的数据先返回旧值, 刷新完成后返回新值; 刷新失败时保留旧值
+     */
+    @Test
+    public void refreshTest() {
+        final AtomicLong now = new AtomicLong();
+        final AtomicInteger version = new AtomicInteger();
+        final AtomicInteger fail = new AtomicInteger();
+        final List<Runnable> tasks = new ArrayList<>();
+        final BoundedCache<String, String> cache = new BoundedCache<String, String>()
+                .setRefreshAfterWrite(1, TimeUnit.SECONDS).setRefreshExecutor(tasks::add).setTicker(now::get);
+        final Function<String, String> function = CacheClosureProxy.of(k -> {
+            if (fail.get() > 0) {
+                throw new IllegalStateException("downstream unavailable");
+            }
+            return k + version.incrementAndGet();
+        }, cache);
+        Assert.assertEquals("a1", function.apply("a"));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        // 触发刷新, 仍然返回旧值, 且同时只提交一次刷新
+        Assert.assertEquals("a1", function.apply("a"));
+        Assert.assertEquals("a1", function.apply("a"));
+        Assert.assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        Assert.assertEquals("a2", function.apply("a"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        fail.set(1);
+        Assert.assertEquals("a2", function.apply("a"));
+        tasks.remove(0).run();
+        Assert.assertEquals("a2", cache.getIfPresent("a"));
+        Assert.assertEquals(1, cache.stats().getLoadFailureCount());
+
+        // 不保留旧值时, 刷新失败后删除
+        final BoundedCache<String, String> dropStale = new BoundedCache<String, String>().setRefreshAfterWrite(1, TimeUnit.SECONDS)
+                .setRefreshExecutor(tasks::add).setKeepStaleOnRefreshFailure(false).setTicker(now::get);
+        final Function<String, String> dropping = CacheClosureProxy.of(k -> {
+            if (fail.get() > 0) {
+                throw new IllegalStateException("downstream unavailable");
+            }
+            return k + version.incrementAndGet();
+        }, dropStale);
+        fail.set(0);
+        Assert.assertEquals("b3", dropping.apply("b"));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        fail.set(1);
+        Assert.assertEquals("b3", dropping.apply("b"));
+        tasks.remove(0).run();
+        Assert.assertNull(dropStale.getIfPresent("b"));
+    }
+
+    /**
+     * 缓存 null 结果和 null 参数, 异常在设置的时间内直接抛出
+     */
+    @Test
+    public void negativeCacheTest() {
+        final AtomicLong now = new AtomicLong();
+        final AtomicInteger calls = new AtomicInteger();
+        final BoundedCache<String, String> cache = new BoundedCache<String, String>().setTicker(now::get)
+                .setCacheNullValues(true).setAllowNullKeys(true).setExpireAfterFailure(1, TimeUnit.SECONDS);
+        final Function<String, String> function = CacheClosureProxy.of(k -> {
+            calls.incrementAndGet();
+            if ("bad".equals(k)) {
+                throw new IllegalArgumentException(k);
+            }
+            return k == null ? "null-param" : null;
+        }, cache);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertNull(function.apply("missing"));
+            Assert.assertEquals("null-param", function.apply(null));
+            Assert.assertThrows(IllegalArgumentException.class, () -> function.apply("bad"));
+        }
+        Assert.assertEquals(3, calls.get());
+        // 异常过期后重新调用
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> function.apply("bad"));
+        Assert.assertEquals(4, calls.get());
+        Assert.assertEquals(2, cache.stats().getLoadFailureCount());
+
+        // 默认的缓存代理也支持 null 参数
+        final CacheClosureProxy<String, String> proxy = new CacheClosureProxy<>(k -> k == null ? "supplied" : k);
+        Assert.assertEquals("supplied", proxy.closureSupplier());
+    }
+
+    /**
+     * 无界, 不过期的默认配置下写入不加淘汰锁, 并发写入和删除之后总权重仍然准确; 使用之后不能再修改配置
+     */
+    @Test
+    public void unboundedConcurrentTest() throws InterruptedException {
+        final BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>().setMaximumWeight(Long.MAX_VALUE, (k, v) -> v);
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    final int key = (i * 31 + seed) % 64;
+                    if (i % 3 == 0) {
+                        cache.invalidate(key);
+                    } else {
+                        cache.put(key, i % 7);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(10_000);
+            Assert.assertFalse(thread.isAlive());
+        }
+        long expected = 0;
+        for (int key = 0; key < 64; key++) {
+            final Integer v = cache.getIfPresent(key);
+            expected += v == null ? 0 : v;
+        }
+        Assert.assertEquals(expected, cache.getWeightedSize());
+
+        Assert.assertThrows(IllegalStateException.class, () -> cache.setCacheNullValues(true));
+        Assert.assertThrows(IllegalStateException.class, () -> cache.setExpireAfterFailure(1, TimeUnit.SECONDS));
+        Assert.assertThrows(IllegalStateException.class, () -> cache.setAllowNullKeys(true));
+        Assert.assertThrows(IllegalStateException.class, () -> cache.setRefreshExecutor(Runnable::run));
+        Assert.assertThrows(IllegalStateException.class, () -> cache.setKeepStaleOnRefreshFailure(false));
+    }
+
+    /**
+     * 加载函数中可以递归调用代理后的方法
+     */
+    @Test
+    public void recursiveLoadTest() {
+        final Function<Integer, Long>[] fib = new Function[1];
+        fib[0] = CacheClosureProxy.of(n -> n < 2 ? (long) n : fib[0].apply(n - 1) + fib[0].apply(n - 2), new BoundedCache<>());
+        Assert.assertEquals(12586269025L, (long) fib[0].apply(50));
+    }
+
+}
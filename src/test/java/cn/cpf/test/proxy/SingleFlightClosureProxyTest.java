@@ -0,0 +1,73 @@
+package cn.cpf.test.proxy;
+
+import com.github.cosycode.common.ext.proxy.SingleFlightClosureProxy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class SingleFlightClosureProxyTest {
+
+    /**
+     * 8 个线程同时调用只执行一次, 结束后不缓存结果
+     */
+    @Test
+    public void coalesceTest() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final SingleFlightClosureProxy<Function<String, String>, String, String> proxy = new SingleFlightClosureProxy<>(k -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return k + calls.get();
+        });
+        final Function<String, String> function = proxy.proxy();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final AtomicInteger arrived = new AtomicInteger();
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    arrived.incrementAndGet();
+                    return function.apply("config");
+                }));
+            }
+            // 等待调用全部到达; 此时只有一个正在执行
+            while (arrived.get() < 8 || calls.get() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            Assert.assertEquals(1, proxy.getInFlightCount());
+            release.countDown();
+            for (Future<String> future : futures) {
+                Assert.assertEquals("config1", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(0, proxy.getInFlightCount());
+        Assert.assertEquals("config2", function.apply("config"));
+    }
+
+    @Test
+    public void exceptionTest() {
+        final Function<String, String> function = SingleFlightClosureProxy.of(k -> {
+            throw new IllegalStateException(String.valueOf(k));
+        });
+        final IllegalStateException e = Assert.assertThrows(IllegalStateException.class, () -> function.apply(null));
+        Assert.assertEquals("null", e.getMessage());
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.github.cosycode.common.override.java.juc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b>Description : </b>
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class ArrayBatchBlockingQueueTest {
+
+    /**
+     * 批量取出测试: 环形数组跨越末尾时分两段复制, 迭代器和下标保持正确
+     */
+    @Test
+    public void drainToArrayTest() throws InterruptedException {
+        final ArrayBatchBlockingQueue<Integer> queue = new ArrayBatchBlockingQueue<>(8);
+        for (int i = 0; i < 6; i++) {
+            queue.put(i);
+        }
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), queue.pollBatch(5));
+        // takeIndex = 5, 再放入 6 个元素后跨越数组末尾
+        for (int i = 6; i < 12; i++) {
+            queue.put(i);
+        }
+        final Iterator<Integer> iterator = queue.iterator();
+        final Integer[] buffer = new Integer[10];
+        Assert.assertEquals(5, queue.drainTo(buffer, 1, 5));
+        Assert.assertArrayEquals(new Integer[]{null, 5, 6, 7, 8, 9, null, null, null, null}, buffer);
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(5, iterator.next().intValue());
+        Assert.assertEquals(10, iterator.next().intValue());
+        Assert.assertEquals(11, iterator.next().intValue());
+        Assert.assertFalse(iterator.hasNext());
+        queue.put(12);
+        Assert.assertEquals(Arrays.asList(10, 11, 12), queue.takeBatch(10));
+        Assert.assertEquals(0, queue.drainTo(buffer, 0, 10));
+        Assert.assertTrue(queue.pollBatch(10).isEmpty());
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> queue.drainTo(buffer, 5, 6));
+    }
+
+    /**
+     * 批量放入测试: 跨越数组末尾写入, 空间不足时只放入能放下的部分, 超时返回已放入的数量
+     */
+    @Test
+    public void putBatchTest() throws InterruptedException {
+        final ArrayBatchBlockingQueue<Integer> queue = new ArrayBatchBlockingQueue<>(8);
+        queue.putBatch(Arrays.asList(0, 1, 2, 3, 4, 5));
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), queue.pollBatch(4));
+        final Integer[] a = {6, 7, 8, 9, 10, 11, 12};
+        Assert.assertEquals(6, queue.offerBatch(a, 0, a.length));
+        Assert.assertEquals(0, queue.remainingCapacity());
+        Assert.assertEquals(0, queue.offerBatch(a, 6, 7, 10, TimeUnit.MILLISECONDS));
+        Assert.assertThrows(NullPointerException.class, () -> queue.offerBatch(new Integer[]{1, null}, 0, 2));
+        Assert.assertEquals(Arrays.asList(4, 5, 6, 7, 8, 9, 10, 11), queue.pollBatch(10));
+
+        // 容量不足时, 消费者取走之后继续放入剩余的部分
+        final Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 20; ) {
+                    i += queue.takeBatch(3).size();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        final Integer[] b = new Integer[20];
+        Arrays.fill(b, 1);
+        Assert.assertEquals(20, queue.offerBatch(b, 0, 20, 1, TimeUnit.SECONDS));
+        consumer.join(1000);
+        Assert.assertFalse(consumer.isAlive());
+        Assert.assertEquals(0, queue.size());
+    }
+
+    /**
+     * 超时和凑批测试
+     */
+    @Test
+    public void lingerTest() throws InterruptedException {
+        final ArrayBatchBlockingQueue<Integer> queue = new ArrayBatchBlockingQueue<>(16);
+        long start = System.nanoTime();
+        Assert.assertTrue(queue.takeBatch(4, 20, TimeUnit.MILLISECONDS).isEmpty());
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+
+        queue.setLinger(4, 2, TimeUnit.SECONDS);
+        final Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 4; i++) {
+                    queue.put(i);
+                    Thread.sleep(5);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        final Integer[] buffer = new Integer[4];
+        Assert.assertEquals(4, queue.takeBatch(buffer, 0, 4, 1, TimeUnit.SECONDS));
+        Assert.assertArrayEquals(new Integer[]{0, 1, 2, 3}, buffer);
+        producer.join();
+
+        // 不足最小批量时, 等待 linger 之后取出已有的元素
+        queue.setLinger(4, 20, TimeUnit.MILLISECONDS);
+        queue.put(4);
+        start = System.nanoTime();
+        Assert.assertEquals(Arrays.asList(4), queue.takeBatch(4, 1, TimeUnit.SECONDS));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+
+        // 凑批等待不超过取出方法的超时时间
+        queue.setLinger(4, 5, TimeUnit.SECONDS);
+        queue.put(5);
+        start = System.nanoTime();
+        Assert.assertEquals(Arrays.asList(5), queue.takeBatch(4, 50, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        queue.put(6);
+        start = System.nanoTime();
+        Assert.assertEquals(1, queue.takeBatch(buffer, 0, 4, 50, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(6, buffer[0].intValue());
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.github.cosycode.common.override.java.juc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * <b>Description : </b> 阻塞队列吞吐量的简单基准测试, 手动运行
+ * <p>
+ * 1 到 16 个生产者线程平分固定数量的元素放入队列, 一个消费者线程全部取出, 统计每秒传递的元素数量.
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+@Ignore
+public class BlockingQueueBenchmark {
+
+    private static final int CAPACITY = 1024;
+
+    private static final int TOTAL = 8_000_000;
+
+    private static final int[] PRODUCERS = {1, 2, 4, 8, 16};
+
+    private static final int ROUNDS = 5;
+
+    private static final Integer ITEM = 1;
+
+    @Test
+    public void linkedBlockingQueue() throws InterruptedException {
+        run("LinkedBlockingQueue", () -> new LinkedBlockingQueue<>(CAPACITY));
+    }
+
+    @Test
+    public void arrayBlockingQueue() throws InterruptedException {
+        run("ArrayBlockingQueue", () -> new ArrayBlockingQueue<>(CAPACITY));
+    }
+
+    @Test
+    public void arrayBlockingQueueCopy() throws InterruptedException {
+        run("ArrayBlockingQueueCopy", () -> new ArrayBlockingQueueCopy<>(CAPACITY));
+    }
+
+    @Test
+    public void twoLockArrayBlockingQueue() throws InterruptedException {
+        run("TwoLockArrayBlockingQueue", () -> new TwoLockArrayBlockingQueue<>(CAPACITY));
+    }
+
+    @Test
+    public void mpscArrayBlockingQueue() throws InterruptedException {
+        run("MpscArrayBlockingQueue", () -> new MpscArrayBlockingQueue<>(CAPACITY));
+    }
+
+    private void run(String name, Supplier<BlockingQueue<Integer>> supplier) throws InterruptedException {
+        for (int producers : PRODUCERS) {
+            for (int i = 0; i < ROUNDS; i++) {
+                log.info("{} with {} producers : {} M ops/s", name, producers, String.format("%.2f", measure(supplier.get(), producers)));
+            }
+        }
+    }
+
+    /**
+     * @return 每秒传递的元素数量(百万)
+     */
+    private double measure(BlockingQueue<Integer> queue, int producers) throws InterruptedException {
+        final int perProducer = TOTAL / producers;
+        final Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.put(ITEM);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        final long total = (long) producers * perProducer;
+        final long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (long i = 0; i < total; i++) {
+            queue.take();
+        }
+        final long cost = System.nanoTime() - start;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return total * 1e3 / cost;
+    }
+
+}
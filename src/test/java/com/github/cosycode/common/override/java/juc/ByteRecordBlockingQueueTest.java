@@ -0,0 +1,109 @@
+package com.github.cosycode.common.override.java.juc;
+
+import com.github.cosycode.common.ext.hub.Throws;
+import com.github.cosycode.common.thread.AsynchronousProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <b>Description : </b>
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class ByteRecordBlockingQueueTest {
+
+    /**
+     * 基础功能测试: 按字节计算容量, 末尾空间不足时回绕
+     */
+    @Test
+    public void baseTest() throws InterruptedException {
+        final ByteRecordBlockingQueue queue = ByteRecordBlockingQueue.direct(32);
+        // 每条记录占用 4 + 6 = 10 字节
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(queue.offer(new byte[]{(byte) i, 1, 2, 3, 4, 5}));
+        }
+        Assert.assertFalse(queue.offer(new byte[6]));
+        Assert.assertEquals(30, queue.getUsedBytes());
+        Assert.assertEquals(0, queue.poll()[0]);
+        // 末尾只剩 2 字节, 跳过之后写在开头
+        Assert.assertTrue(queue.offer(new byte[]{3, 0, 0, 0, 0, 0}));
+        Assert.assertEquals(32, queue.getUsedBytes());
+        final List<byte[]> list = new ArrayList<>();
+        queue.forEach(list::add);
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals(1, queue.take()[0]);
+        Assert.assertEquals(2, queue.peek()[0]);
+        Assert.assertEquals(2, queue.take()[0]);
+        // 末尾跳过的 2 字节在读取完前面的记录后释放
+        Assert.assertEquals(10, queue.getUsedBytes());
+        Assert.assertEquals(3, queue.take()[0]);
+        Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(queue.offer(new byte[0]));
+        Assert.assertEquals(0, queue.take().length);
+        Assert.assertThrows(IllegalArgumentException.class, () -> queue.offer(new byte[29]));
+    }
+
+    /**
+     * drainTo 时目标集合的 add 抛出异常, 该记录仍留在队列中
+     */
+    @Test
+    public void drainToAddFailureTest() {
+        final ByteRecordBlockingQueue queue = ByteRecordBlockingQueue.direct(64);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(queue.offer(new byte[]{(byte) i}));
+        }
+        final List<byte[]> list = new ArrayList<byte[]>() {
+            @Override
+            public boolean add(byte[] bytes) {
+                if (size() == 1) {
+                    throw new IllegalStateException("full");
+                }
+                return super.add(bytes);
+            }
+        };
+        Assert.assertThrows(IllegalStateException.class, () -> queue.drainTo(list));
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(10, queue.getUsedBytes());
+        Assert.assertEquals(1, queue.poll()[0]);
+        Assert.assertEquals(2, queue.poll()[0]);
+    }
+
+    /**
+     * 作为 AsynchronousProcessor 的缓存队列, 使用内存映射文件存储
+     */
+    @Test
+    public void mappedProcessorTest() throws IOException, InterruptedException {
+        final File file = File.createTempFile("byte-record-queue", ".dat");
+        file.deleteOnExit();
+        final ByteRecordBlockingQueue queue = ByteRecordBlockingQueue.mapped(file.toPath(), 1 << 16);
+        final AtomicLong sum = new AtomicLong();
+        final AsynchronousProcessor<byte[]> processor = new AsynchronousProcessor<byte[]>(queue, bytes -> {
+            sum.addAndGet(ByteBuffer.wrap(bytes).getLong());
+            return true;
+        }, null, 0).setOverflowPolicy(AsynchronousProcessor.OverflowPolicy.BLOCK).setName("堆外队列测试");
+        processor.start();
+        for (long i = 1; i <= 100_000; i++) {
+            processor.add(ByteBuffer.allocate(Long.BYTES).putLong(i).array());
+        }
+        Assert.assertTrue(processor.shutdown(Duration.ofSeconds(10)).isEmpty());
+        Assert.assertEquals(100_000L * 100_001 / 2, sum.get());
+        Throws.con(file, File::delete).logThrowable();
+    }
+
+}
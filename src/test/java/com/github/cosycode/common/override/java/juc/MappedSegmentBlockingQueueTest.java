@@ -0,0 +1,169 @@
+package com.github.cosycode.common.override.java.juc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * <b>Description : </b>
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class MappedSegmentBlockingQueueTest {
+
+    private static byte[] record(int i) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(i).array();
+    }
+
+    private static int value(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).getInt();
+    }
+
+    /**
+     * 复用备用文件后, 结束标记没有落盘(文件中仍然是旧分段的内容)时, 恢复不应重放旧记录
+     */
+    @Test
+    public void recoverWithStaleSpareTest() throws IOException, InterruptedException {
+        final Path dir = Files.createTempDirectory("mapped-segment-queue");
+        try {
+            final MappedSegmentBlockingQueue queue = new MappedSegmentBlockingQueue(dir, 120).setCheckpointEvery(0);
+            for (int i = 0; i < 11; i++) {
+                queue.put(record(i));
+            }
+            for (int i = 0; i < 11; i++) {
+                Assert.assertEquals(i, value(queue.take()));
+            }
+            // 检查点越过分段 0, 分段 0 成为备用文件
+            queue.checkpoint();
+            final Path spare;
+            try (Stream<Path> paths = Files.list(dir)) {
+                spare = paths.filter(path -> path.getFileName().toString().startsWith("spare-")).findFirst().orElseThrow(AssertionError::new);
+            }
+            final byte[] stale = Files.readAllBytes(spare);
+            // 分段 1 写满后切换到分段 2, 复用备用文件
+            for (int i = 11; i < 21; i++) {
+                queue.put(record(i));
+            }
+            Assert.assertFalse(Files.exists(spare));
+            queue.close();
+
+            // 模拟崩溃: 分段 2 的新内容(包括开头的结束标记)都没有落盘
+            final Path segment2 = dir.resolve(String.format("%020d.seg", 2));
+            Assert.assertTrue(Files.exists(segment2));
+            Files.write(segment2, stale);
+
+            final MappedSegmentBlockingQueue reopened = new MappedSegmentBlockingQueue(dir, 120);
+            Assert.assertEquals(9, reopened.size());
+            for (int i = 11; i < 20; i++) {
+                Assert.assertEquals(i, value(reopened.poll()));
+            }
+            Assert.assertNull(reopened.poll());
+            reopened.close();
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * drainTo 时目标集合的 add 抛出异常, 该记录仍留在队列中, 关闭时的消费位置也不会越过它
+     */
+    @Test
+    public void drainToAddFailureTest() throws IOException {
+        final Path dir = Files.createTempDirectory("mapped-segment-queue");
+        try {
+            final MappedSegmentBlockingQueue queue = new MappedSegmentBlockingQueue(dir, 120);
+            for (int i = 0; i < 5; i++) {
+                queue.put(record(i));
+            }
+            final List<byte[]> list = new ArrayList<byte[]>() {
+                @Override
+                public boolean add(byte[] bytes) {
+                    if (size() == 1) {
+                        throw new IllegalStateException("full");
+                    }
+                    return super.add(bytes);
+                }
+            };
+            Assert.assertThrows(IllegalStateException.class, () -> queue.drainTo(list));
+            Assert.assertEquals(1, list.size());
+            Assert.assertEquals(4, queue.size());
+            Assert.assertEquals(1, value(queue.peek()));
+            queue.close();
+
+            final MappedSegmentBlockingQueue reopened = new MappedSegmentBlockingQueue(dir, 120);
+            Assert.assertEquals(4, reopened.size());
+            Assert.assertEquals(1, value(reopened.poll()));
+            reopened.close();
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * 恢复测试: 未关闭(模拟崩溃)时从自动检查点恢复, 正常关闭时从关闭时的位置恢复, 检查点之前的分段被回收
+     */
+    @Test
+    public void recoverTest() throws IOException, InterruptedException {
+        final Path dir = Files.createTempDirectory("mapped-segment-queue");
+        try {
+            // 每条记录 12 字节, 每个分段 10 条记录
+            final MappedSegmentBlockingQueue crashed = new MappedSegmentBlockingQueue(dir, 120).setCheckpointEvery(10);
+            for (int i = 0; i < 100; i++) {
+                crashed.put(record(i));
+            }
+            Assert.assertEquals(10, crashed.getSegmentCount());
+            for (int i = 0; i < 35; i++) {
+                Assert.assertEquals(i, value(crashed.take()));
+            }
+            // 第 30 次取出时以取出之前的位置写入检查点
+            Assert.assertEquals(8, crashed.getSegmentCount());
+            crashed.sync();
+
+            final MappedSegmentBlockingQueue queue = new MappedSegmentBlockingQueue(dir, 120).setCheckpointEvery(0);
+            Assert.assertEquals(71, queue.size());
+            Assert.assertEquals(29, value(queue.peek()));
+            for (int i = 29; i < 50; i++) {
+                Assert.assertEquals(i, value(queue.poll()));
+            }
+            queue.put(record(100));
+            queue.close();
+            Assert.assertThrows(IllegalStateException.class, queue::poll);
+
+            final MappedSegmentBlockingQueue reopened = new MappedSegmentBlockingQueue(dir, 120);
+            Assert.assertEquals(51, reopened.size());
+            int expected = 50;
+            for (byte[] bytes : reopened) {
+                Assert.assertEquals(expected++, value(bytes));
+            }
+            Assert.assertEquals(101, expected);
+            reopened.clear();
+            Assert.assertNull(reopened.poll(10, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(1, reopened.getSegmentCount());
+            reopened.close();
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+}
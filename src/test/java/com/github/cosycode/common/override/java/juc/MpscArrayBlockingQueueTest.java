@@ -0,0 +1,207 @@
+package com.github.cosycode.common.override.java.juc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <b>Description : </b>
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class MpscArrayBlockingQueueTest {
+
+    /**
+     * 基础功能测试: 容量不是 2 的幂次时, 元素数量也不能超过容量
+     */
+    @Test
+    public void baseTest() throws InterruptedException {
+        final MpscArrayBlockingQueue<Integer> queue = new MpscArrayBlockingQueue<>(10);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.offer(10));
+        Assert.assertFalse(queue.offer(10, 10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(10, queue.size());
+        Assert.assertEquals(0, queue.remainingCapacity());
+        Assert.assertEquals(0, queue.peek().intValue());
+        Assert.assertEquals(0, queue.poll().intValue());
+        Assert.assertTrue(queue.offer(10));
+        final List<Integer> list = new ArrayList<>();
+        queue.forEach(list::add);
+        Assert.assertEquals(10, list.size());
+        Assert.assertEquals(5, queue.drainTo(new ArrayList<>(), 5));
+        Assert.assertEquals(6, queue.take().intValue());
+        Assert.assertEquals(4, queue.drainTo(list));
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 多生产者测试: 4 个生产者各放入 200000 个元素, 单个消费者按生产者分别检查顺序和数量
+     */
+    @Test
+    public void multiProducerTest() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 200_000;
+        final MpscArrayBlockingQueue<long[]> queue = new MpscArrayBlockingQueue<>(1000);
+        final Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    try {
+                        queue.put(new long[]{id, i});
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        final long[] next = new long[producers];
+        for (int i = 0; i < producers * perProducer; i++) {
+            final long[] e = queue.take();
+            Assert.assertEquals(next[(int) e[0]]++, e[1]);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * 删除测试: 删除中间和队头的元素, 之后的取出, 查看, 迭代都越过被删除的元素
+     */
+    @Test
+    public void removeTest() {
+        final MpscArrayBlockingQueue<Integer> queue = new MpscArrayBlockingQueue<>(8);
+        for (int i = 0; i < 6; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.remove(null));
+        Assert.assertFalse(queue.remove(10));
+        Assert.assertTrue(queue.remove(3));
+        Assert.assertFalse(queue.remove(3));
+        Assert.assertTrue(queue.remove(0));
+        Assert.assertEquals(Arrays.asList(1, 2, 4, 5), new ArrayList<>(queue));
+        Assert.assertFalse(queue.contains(3));
+        Assert.assertEquals(1, queue.peek().intValue());
+        Assert.assertEquals(1, queue.poll().intValue());
+        Assert.assertEquals(2, queue.poll().intValue());
+        Assert.assertEquals(4, queue.peek().intValue());
+        final List<Integer> list = new ArrayList<>();
+        Assert.assertEquals(2, queue.drainTo(list));
+        Assert.assertEquals(Arrays.asList(4, 5), list);
+        Assert.assertTrue(queue.isEmpty());
+        // 被删除的元素在越过之前仍然计入 size
+        Assert.assertTrue(queue.offer(-1));
+        Assert.assertTrue(queue.remove(-1));
+        Assert.assertEquals(1, queue.size());
+        Assert.assertNull(queue.peek());
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+    }
+
+    /**
+     * drainTo 时目标集合的 add 抛出异常, 该元素仍留在队头; 与 poll 并发时每个元素恰好被取出一次
+     */
+    @Test
+    public void drainToAddFailureTest() throws InterruptedException {
+        final MpscArrayBlockingQueue<Integer> queue = new MpscArrayBlockingQueue<>(8);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertTrue(queue.remove(1));
+        final List<Integer> list = new ArrayList<Integer>() {
+            @Override
+            public boolean add(Integer integer) {
+                if (size() == 1) {
+                    throw new IllegalStateException("full");
+                }
+                return super.add(integer);
+            }
+        };
+        Assert.assertThrows(IllegalStateException.class, () -> queue.drainTo(list));
+        Assert.assertEquals(Collections.singletonList(0), list);
+        Assert.assertEquals(3, queue.size());
+        Assert.assertEquals(2, queue.peek().intValue());
+        final List<Integer> rest = new ArrayList<>();
+        Assert.assertEquals(3, queue.drainTo(rest));
+        Assert.assertEquals(Arrays.asList(2, 3, 4), rest);
+
+        final int total = 100_000;
+        final MpscArrayBlockingQueue<Integer> shared = new MpscArrayBlockingQueue<>(total);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(shared.offer(i));
+        }
+        final List<Integer> polled = new ArrayList<>();
+        final Thread poller = new Thread(() -> {
+            Integer e;
+            while ((e = shared.poll()) != null) {
+                polled.add(e);
+            }
+        });
+        poller.start();
+        final List<Integer> drained = new ArrayList<>();
+        while (shared.drainTo(drained, 16) > 0) {
+            Thread.yield();
+        }
+        poller.join(5000);
+        Assert.assertFalse(poller.isAlive());
+        final boolean[] seen = new boolean[total];
+        for (List<Integer> part : Arrays.asList(polled, drained)) {
+            for (int e : part) {
+                Assert.assertFalse(seen[e]);
+                seen[e] = true;
+            }
+        }
+        Assert.assertEquals(total, polled.size() + drained.size());
+    }
+
+    /**
+     * 删除与消费并发: 一个线程删除偶数元素, 消费者同时取出, 每个元素恰好被删除或取出一次
+     */
+    @Test
+    public void concurrentRemoveTest() throws InterruptedException {
+        final int total = 100_000;
+        final MpscArrayBlockingQueue<Integer> queue = new MpscArrayBlockingQueue<>(total);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        final AtomicLongArray seen = new AtomicLongArray(total);
+        final Thread remover = new Thread(() -> {
+            for (int i = total - 2; i >= 0; i -= 2) {
+                if (queue.remove(i)) {
+                    seen.incrementAndGet(i);
+                }
+            }
+        });
+        remover.start();
+        Integer e;
+        while ((e = queue.poll()) != null || remover.isAlive()) {
+            if (e != null) {
+                seen.incrementAndGet(e);
+            }
+        }
+        remover.join();
+        for (int i = 0; i < total; i++) {
+            Assert.assertEquals("element " + i, 1, seen.get(i));
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.github.cosycode.common.override.java.juc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b>Description : </b>
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class PriorityBatchBlockingQueueTest {
+
+    /**
+     * 优先级测试: 批量取出时按照优先级排序, 队列有界
+     */
+    @Test
+    public void priorityTest() throws InterruptedException {
+        final PriorityBatchBlockingQueue<Integer> queue = new PriorityBatchBlockingQueue<>(8, Comparator.reverseOrder());
+        for (int i : new int[]{5, 1, 7, 3, 8, 2, 6, 4}) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.offer(9));
+        Assert.assertEquals(8, queue.peek().intValue());
+        Assert.assertEquals(Arrays.asList(8, 7, 6), queue.takeBatch(3));
+        Assert.assertTrue(queue.remove(4));
+        Assert.assertEquals(Arrays.asList(5, 3, 2, 1), queue.pollBatch(10));
+        Assert.assertTrue(queue.takeBatch(10, 10, TimeUnit.MILLISECONDS).isEmpty());
+    }
+
+    /**
+     * 延迟测试: 只取出到期的元素, 同时到期的元素一次性取出
+     */
+    @Test
+    public void delayTest() throws InterruptedException {
+        final DelayBatchBlockingQueue<Timer> queue = new DelayBatchBlockingQueue<>(100);
+        final long now = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            queue.put(new Timer(i, now + TimeUnit.MILLISECONDS.toNanos(30)));
+        }
+        queue.put(new Timer(50, now + TimeUnit.SECONDS.toNanos(10)));
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.pollBatch(100).isEmpty());
+        final List<Timer> batch = queue.takeBatch(100);
+        Assert.assertTrue(System.nanoTime() - now >= TimeUnit.MILLISECONDS.toNanos(30));
+        Assert.assertEquals(50, batch.size());
+        Assert.assertEquals(1, queue.size());
+        Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    private static class Timer implements Delayed {
+        private final int id;
+        private final long deadline;
+
+        Timer(int id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(deadline, ((Timer) o).deadline);
+        }
+
+        @Override
+        public String toString() {
+            return "Timer" + id;
+        }
+    }
+
+}
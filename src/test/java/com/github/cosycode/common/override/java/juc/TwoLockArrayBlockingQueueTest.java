@@ -0,0 +1,193 @@
+package com.github.cosycode.common.override.java.juc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <b>Description : </b>
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class TwoLockArrayBlockingQueueTest {
+
+    /**
+     * 基础功能测试: 容量限制, 跨越数组末尾, 中间元素删除
+     */
+    @Test
+    public void baseTest() throws InterruptedException {
+        final TwoLockArrayBlockingQueue<Integer> queue = new TwoLockArrayBlockingQueue<>(5);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.offer(5));
+        Assert.assertFalse(queue.offer(5, 10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, queue.remainingCapacity());
+        Assert.assertEquals(0, queue.poll().intValue());
+        Assert.assertEquals(1, queue.take().intValue());
+        queue.put(5);
+        queue.put(6);
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5, 6), new ArrayList<>(queue));
+        Assert.assertTrue(queue.remove(4));
+        Assert.assertFalse(queue.contains(4));
+        Assert.assertEquals(Arrays.asList(2, 3, 5, 6), new ArrayList<>(queue));
+        Assert.assertEquals(2, queue.peek().intValue());
+        final List<Integer> list = new ArrayList<>();
+        Assert.assertEquals(2, queue.drainTo(list, 2));
+        Assert.assertEquals(Arrays.asList(2, 3), list);
+        queue.clear();
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 多生产者测试: 4 个生产者各放入 200000 个元素, 单个消费者按生产者分别检查顺序和数量
+     */
+    @Test
+    public void multiProducerTest() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 200_000;
+        final TwoLockArrayBlockingQueue<long[]> queue = new TwoLockArrayBlockingQueue<>(1000);
+        final Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    try {
+                        queue.put(new long[]{id, i});
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        final long[] next = new long[producers];
+        for (int i = 0; i < producers * perProducer; i++) {
+            final long[] e = queue.take();
+            Assert.assertEquals(next[(int) e[0]]++, e[1]);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * 双锁测试: 持有 putLock 时仍然可以取出, 持有 takeLock 时仍然可以放入(队列非空非满, 不需要通知另一端)
+     */
+    @Test
+    public void independentLockTest() throws Exception {
+        final TwoLockArrayBlockingQueue<Integer> queue = new TwoLockArrayBlockingQueue<>(5);
+        queue.put(1);
+        queue.put(2);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            queue.putLock.lock();
+            try {
+                Assert.assertEquals(1, executor.submit(queue::take).get(5, TimeUnit.SECONDS).intValue());
+            } finally {
+                queue.putLock.unlock();
+            }
+            queue.takeLock.lock();
+            try {
+                executor.submit(() -> {
+                    queue.put(3);
+                    return null;
+                }).get(5, TimeUnit.SECONDS);
+                Assert.assertTrue(executor.submit(() -> queue.offer(4)).get(5, TimeUnit.SECONDS));
+            } finally {
+                queue.takeLock.unlock();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(Arrays.asList(2, 3, 4), new ArrayList<>(queue));
+    }
+
+    /**
+     * 满容量测试: 容量为 1, 2 个生产者和 2 个消费者同时阻塞放入和取出, 生产者和消费者之间的通知不丢失, 每个元素恰好被取出一次
+     */
+    @Test
+    public void putTakeAtCapacityTest() throws InterruptedException {
+        final int perProducer = 50_000;
+        final TwoLockArrayBlockingQueue<Integer> queue = new TwoLockArrayBlockingQueue<>(1);
+        final AtomicLongArray seen = new AtomicLongArray(2 * perProducer);
+        final AtomicInteger taken = new AtomicInteger();
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            final int base = p * perProducer;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.put(base + i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++) {
+                        seen.incrementAndGet(queue.take());
+                        taken.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+            Assert.assertFalse("put or take was not woken up", thread.isAlive());
+        }
+        Assert.assertEquals(2 * perProducer, taken.get());
+        for (int i = 0; i < seen.length(); i++) {
+            Assert.assertEquals(1, seen.get(i));
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * drainTo 时目标集合抛出异常, 未能放入的元素仍然留在队列中, 已满的队列在取出部分元素后唤醒生产者
+     */
+    @Test
+    public void drainToExceptionTest() throws InterruptedException {
+        final TwoLockArrayBlockingQueue<Integer> queue = new TwoLockArrayBlockingQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            queue.put(i);
+        }
+        final List<Integer> list = new ArrayList<Integer>() {
+            @Override
+            public boolean add(Integer e) {
+                if (size() == 2) {
+                    throw new IllegalStateException("full");
+                }
+                return super.add(e);
+            }
+        };
+        Assert.assertThrows(IllegalStateException.class, () -> queue.drainTo(list));
+        Assert.assertEquals(Arrays.asList(0, 1), list);
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(Arrays.asList(2, 3), new ArrayList<>(queue));
+        Assert.assertTrue(queue.offer(4, 1, TimeUnit.SECONDS));
+        Assert.assertEquals(2, queue.take().intValue());
+    }
+
+}
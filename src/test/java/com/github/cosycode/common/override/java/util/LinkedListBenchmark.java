@@ -0,0 +1,163 @@
+package com.github.cosycode.common.override.java.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * <b>Description : </b> LinkedListCopy 和 UnrolledLinkedList 的简单基准测试, 手动运行
+ * <p>
+ * 工作队列场景: 反复在尾部添加, 从头部取出; LRU 场景: 反复将节点移动到尾部; 遍历场景: 遍历 1M 个元素的列表.
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+@Ignore
+public class LinkedListBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private static final int OPS = 20_000_000;
+
+    private static final int ROUNDS = 5;
+
+    private static final Integer ITEM = 1;
+
+    /**
+     * 工作队列: 保持 SIZE 个元素, 每次尾部添加一个, 头部取出一个
+     */
+    @Test
+    public void workList() {
+        for (int r = 0; r < ROUNDS; r++) {
+            final LinkedList<Integer> linkedList = new LinkedList<>();
+            final ArrayDeque<Integer> arrayDeque = new ArrayDeque<>();
+            final LinkedListCopy<Integer> copy = new LinkedListCopy<>();
+            final LinkedListCopy<Integer> pooled = new LinkedListCopy<Integer>().setMaxNodePoolSize(SIZE);
+            for (int i = 0; i < SIZE; i++) {
+                linkedList.addLast(ITEM);
+                arrayDeque.addLast(ITEM);
+                copy.addLast(ITEM);
+                pooled.addLast(ITEM);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < OPS; i++) {
+                linkedList.addLast(linkedList.pollFirst());
+            }
+            log.info("LinkedList     : {} M ops/s", rate(start));
+            start = System.nanoTime();
+            for (int i = 0; i < OPS; i++) {
+                arrayDeque.addLast(arrayDeque.pollFirst());
+            }
+            log.info("ArrayDeque     : {} M ops/s", rate(start));
+            start = System.nanoTime();
+            for (int i = 0; i < OPS; i++) {
+                copy.addLast(copy.pollFirst());
+            }
+            log.info("LinkedListCopy : {} M ops/s", rate(start));
+            start = System.nanoTime();
+            for (int i = 0; i < OPS; i++) {
+                pooled.addLast(pooled.pollFirst());
+            }
+            log.info("LinkedListCopy with node pool : {} M ops/s", rate(start));
+        }
+    }
+
+    /**
+     * LRU: 按照固定的随机顺序将元素移动到尾部; LinkedList 和 ArrayDeque 只能先按值删除再添加, LinkedListCopy 直接移动节点
+     */
+    @Test
+    public void lruTouch() {
+        final int ops = OPS / 100;
+        final Random random = new Random(42);
+        final Integer[] keys = new Integer[SIZE * 4];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(SIZE);
+        }
+        for (int r = 0; r < ROUNDS; r++) {
+            final LinkedList<Integer> linkedList = new LinkedList<>();
+            final ArrayDeque<Integer> arrayDeque = new ArrayDeque<>();
+            final LinkedListCopy<Integer> copy = new LinkedListCopy<>();
+            @SuppressWarnings("unchecked") final LinkedListCopy.Node<Integer>[] nodes = new LinkedListCopy.Node[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                linkedList.addLast(i);
+                arrayDeque.addLast(i);
+                nodes[i] = copy.addLastNode(i);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ops; i++) {
+                final Integer key = keys[i & (keys.length - 1)];
+                linkedList.removeFirstOccurrence(key);
+                linkedList.addLast(key);
+            }
+            log.info("LinkedList     : {} M touches/s", rate(start, ops));
+            start = System.nanoTime();
+            for (int i = 0; i < ops; i++) {
+                final Integer key = keys[i & (keys.length - 1)];
+                arrayDeque.removeFirstOccurrence(key);
+                arrayDeque.addLast(key);
+            }
+            log.info("ArrayDeque     : {} M touches/s", rate(start, ops));
+            start = System.nanoTime();
+            for (int i = 0; i < ops; i++) {
+                copy.moveToLast(nodes[keys[i & (keys.length - 1)]]);
+            }
+            log.info("LinkedListCopy : {} M touches/s", rate(start, ops));
+        }
+    }
+
+    /**
+     * 遍历: 1M 个元素的列表, 按迭代器求和
+     */
+    @Test
+    public void iterate() {
+        final int n = 1 << 20;
+        final List<Integer> arrayList = new ArrayList<>(n);
+        final List<Integer> linkedList = new LinkedList<>();
+        final List<Integer> copy = new LinkedListCopy<>();
+        final List<Integer> unrolled = new UnrolledLinkedList<>();
+        for (int i = 0; i < n; i++) {
+            // 交替添加, 使各个链表的节点在堆上交错分布, 接近实际使用时的内存布局
+            final Integer e = i & 127;
+            arrayList.add(e);
+            linkedList.add(e);
+            copy.add(e);
+            unrolled.add(e);
+        }
+        for (int r = 0; r < ROUNDS; r++) {
+            iterate("ArrayList", arrayList);
+            iterate("LinkedList", linkedList);
+            iterate("LinkedListCopy", copy);
+            iterate("UnrolledLinkedList", unrolled);
+        }
+    }
+
+    private static void iterate(String name, List<Integer> list) {
+        final int loops = 20;
+        long sum = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            for (Integer e : list) {
+                sum += e;
+            }
+        }
+        log.info("{} : {} M elements/s (sum {})", name, rate(start, loops * list.size()), sum);
+    }
+
+    private static String rate(long start) {
+        return rate(start, OPS);
+    }
+
+    private static String rate(long start, int ops) {
+        return String.format("%.2f", ops * 1e3 / (System.nanoTime() - start));
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.github.cosycode.common.override.java.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <b>Description : </b>
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class LinkedListCopyTest {
+
+    /**
+     * 节点游标测试: 通过节点移动和删除实现 LRU 顺序, 开启节点池后删除的节点被复用
+     */
+    @Test
+    public void cursorTest() {
+        final LinkedListCopy<String> list = new LinkedListCopy<String>().setMaxNodePoolSize(2);
+        final Map<String, LinkedListCopy.Node<String>> index = new HashMap<>();
+        for (String s : new String[]{"a", "b", "c", "d"}) {
+            index.put(s, list.addLastNode(s));
+        }
+        list.moveToLast(index.get("a"));
+        list.moveToFirst(index.get("c"));
+        Assert.assertEquals(Arrays.asList("c", "b", "d", "a"), new ArrayList<>(list));
+
+        final LinkedListCopy.Node<String> b = index.remove("b");
+        Assert.assertEquals("b", list.unlinkNode(b));
+        Assert.assertEquals(1, list.getNodePoolSize());
+        // 复用刚刚删除的节点
+        Assert.assertSame(b, list.addNodeBefore("e", index.get("a")));
+        Assert.assertEquals(0, list.getNodePoolSize());
+
+        final StringBuilder forward = new StringBuilder();
+        for (LinkedListCopy.Node<String> x = list.getFirstNode(); x != null; x = x.getNext()) {
+            forward.append(x.getItem());
+        }
+        Assert.assertEquals("cdea", forward.toString());
+        Assert.assertEquals("a", list.getLastNode().getItem());
+        Assert.assertEquals("e", list.getLastNode().getPrev().getItem());
+        Assert.assertEquals(4, list.size());
+
+        list.clear();
+        Assert.assertEquals(2, list.getNodePoolSize());
+        list.setMaxNodePoolSize(0);
+        Assert.assertEquals(0, list.getNodePoolSize());
+        Assert.assertTrue(list.isEmpty());
+    }
+
+}
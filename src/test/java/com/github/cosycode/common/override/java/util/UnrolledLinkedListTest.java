@@ -0,0 +1,117 @@
+package com.github.cosycode.common.override.java.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.Random;
+
+/**
+ * <b>Description : </b>
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class UnrolledLinkedListTest {
+
+    /**
+     * 基础功能测试: 两端添加删除, 块拆分, 迭代器删除和插入
+     */
+    @Test
+    public void baseTest() {
+        final UnrolledLinkedList<Integer> list = new UnrolledLinkedList<>(4);
+        for (int i = 0; i < 5; i++) {
+            list.addLast(i);
+        }
+        list.addFirst(-1);
+        list.add(3, 100);
+        Assert.assertEquals(Arrays.asList(-1, 0, 1, 100, 2, 3, 4), list);
+        Assert.assertEquals(100, list.get(3).intValue());
+        Assert.assertEquals(100, list.remove(3).intValue());
+        final Iterator<Integer> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        Assert.assertEquals(Arrays.asList(-1, 1, 3), list);
+        final ListIterator<Integer> listIterator = list.listIterator(1);
+        listIterator.add(7);
+        Assert.assertEquals(1, listIterator.next().intValue());
+        listIterator.set(8);
+        Assert.assertEquals(Arrays.asList(-1, 7, 8, 3), list);
+        Assert.assertEquals(3, list.pollLast().intValue());
+        Assert.assertEquals(-1, list.pop().intValue());
+        Assert.assertEquals(7, list.peek().intValue());
+        list.clear();
+        Assert.assertNull(list.pollFirst());
+    }
+
+    /**
+     * 下标越界时 get, set, remove 都抛出 IndexOutOfBoundsException, 且不修改列表
+     */
+    @Test
+    public void indexOutOfBoundsTest() {
+        final UnrolledLinkedList<Integer> list = new UnrolledLinkedList<>(4);
+        for (int i = 0; i < 5; i++) {
+            list.addLast(i);
+        }
+        for (int index : new int[]{-1, 5, 6}) {
+            Assert.assertThrows(IndexOutOfBoundsException.class, () -> list.get(index));
+            Assert.assertThrows(IndexOutOfBoundsException.class, () -> list.set(index, 9));
+            Assert.assertThrows(IndexOutOfBoundsException.class, () -> list.remove(index));
+        }
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), list);
+        Assert.assertEquals(4, list.set(4, 9).intValue());
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 9), list);
+    }
+
+    /**
+     * 随机操作测试: 与 LinkedList 执行相同的随机操作, 结果应当一致
+     */
+    @Test
+    public void randomTest() {
+        final Random random = new Random(7);
+        final UnrolledLinkedList<Integer> list = new UnrolledLinkedList<>(8);
+        final LinkedList<Integer> expected = new LinkedList<>();
+        for (int op = 0; op < 20_000; op++) {
+            final int v = random.nextInt(100);
+            switch (random.nextInt(6)) {
+                case 0:
+                    list.addFirst(v);
+                    expected.addFirst(v);
+                    break;
+                case 1:
+                    list.addLast(v);
+                    expected.addLast(v);
+                    break;
+                case 2:
+                    Assert.assertEquals(expected.pollFirst(), list.pollFirst());
+                    break;
+                case 3:
+                    final int index = random.nextInt(expected.size() + 1);
+                    list.add(index, v);
+                    expected.add(index, v);
+                    break;
+                case 4:
+                    Assert.assertEquals(expected.removeFirstOccurrence(v), list.removeFirstOccurrence(v));
+                    break;
+                default:
+                    if (!expected.isEmpty()) {
+                        final int i = random.nextInt(expected.size());
+                        Assert.assertEquals(expected.remove(i), list.remove(i));
+                    }
+            }
+        }
+        Assert.assertEquals(expected, list);
+    }
+
+}
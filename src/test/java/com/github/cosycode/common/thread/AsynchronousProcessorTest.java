@@ -0,0 +1,323 @@
+package com.github.cosycode.common.thread;
+
+import com.github.cosycode.common.ext.hub.Throws;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <b>Description : </b>
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class AsynchronousProcessorTest {
+
+    /**
+     * 批量处理测试: 一次性放入 1000 条消息, 每批最多 100 条, 全部消息按顺序处理完毕, 且批次数远小于消息数
+     */
+    @Test
+    public void batchTest() {
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final AtomicInteger batchCount = new AtomicInteger();
+        final BatchAsynchronousProcessor<Integer> processor = BatchAsynchronousProcessor.<Integer>ofConsumer(100, list -> {
+            Assert.assertTrue(list.size() <= 100);
+            batchCount.incrementAndGet();
+            received.addAll(list);
+        }).setLinger(20, TimeUnit.MILLISECONDS).setName("批量处理测试");
+        for (int i = 0; i < 1000; i++) {
+            processor.add(i);
+        }
+        processor.start();
+        for (int i = 0; i < 100 && received.size() < 1000; i++) {
+            Throws.con(10, Thread::sleep).logThrowable();
+        }
+        processor.close();
+        log.info("共处理 {} 条消息, {} 批", received.size(), batchCount.get());
+        Assert.assertEquals(1000, received.size());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i, received.get(i).intValue());
+        }
+        Assert.assertTrue(batchCount.get() <= 20);
+    }
+
+    /**
+     * 多消费线程测试: 4 个消费线程按账户分配, 同一个账户的消息按添加顺序处理
+     */
+    @Test
+    public void parallelKeyOrderTest() {
+        final int accounts = 16;
+        final int[] lastSeq = new int[accounts];
+        final AtomicInteger disorder = new AtomicInteger();
+        final AtomicInteger counter = new AtomicInteger();
+        final ParallelAsynchronousProcessor<int[]> processor = ParallelAsynchronousProcessor.<int[]>ofConsumer(4, event -> event[0], event -> {
+            // 同一个账户只会由同一个线程处理, 因此这里无需同步
+            if (event[1] != lastSeq[event[0]] + 1) {
+                disorder.incrementAndGet();
+            }
+            lastSeq[event[0]] = event[1];
+            counter.incrementAndGet();
+        });
+        processor.start();
+        for (int seq = 1; seq <= 500; seq++) {
+            for (int account = 0; account < accounts; account++) {
+                processor.add(new int[]{account, seq});
+            }
+        }
+        for (int i = 0; i < 200 && counter.get() < accounts * 500; i++) {
+            Throws.con(10, Thread::sleep).logThrowable();
+        }
+        processor.close();
+        Assert.assertEquals(accounts * 500, counter.get());
+        Assert.assertEquals(0, disorder.get());
+    }
+
+    /**
+     * 共享队列测试: 第一个消费线程关闭之后, 消息仍然由其它消费线程接收并处理
+     */
+    @Test
+    public void parallelSharedQueueTest() throws InterruptedException {
+        final AtomicInteger counter = new AtomicInteger();
+        final ParallelAsynchronousProcessor<Integer> processor = ParallelAsynchronousProcessor.ofConsumer(3, i -> counter.incrementAndGet());
+        processor.start();
+        final AsynchronousProcessor<Integer> first = processor.getWorkers().get(0);
+        first.close();
+        Assert.assertTrue(first.awaitTermination(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            processor.add(i);
+        }
+        Assert.assertTrue(processor.offer(100));
+        Assert.assertTrue(processor.shutdown(Duration.ofSeconds(5)).isEmpty());
+        Assert.assertEquals(101, counter.get());
+        Assert.assertEquals(0, processor.getSize());
+        Assert.assertFalse(processor.offer(101));
+    }
+
+    /**
+     * 背压测试: 队列容量为 10, 消费线程未启动, 检查各个处理方式的行为和计数
+     */
+    @Test
+    public void overflowPolicyTest() {
+        final List<Integer> handled = new CopyOnWriteArrayList<>();
+        final AsynchronousProcessor<Integer> processor = AsynchronousProcessor.ofConsumer(10, AsynchronousProcessor.OverflowPolicy.DROP_NEWEST, handled::add);
+        for (int i = 0; i < 15; i++) {
+            processor.add(i);
+        }
+        Assert.assertEquals(10, processor.getSize());
+        Assert.assertEquals(5, processor.getOverflowCount(AsynchronousProcessor.OverflowPolicy.DROP_NEWEST));
+        Assert.assertEquals(0, processor.getBlockingQueue().peek().intValue());
+
+        processor.setOverflowPolicy(AsynchronousProcessor.OverflowPolicy.DROP_OLDEST);
+        for (int i = 15; i < 20; i++) {
+            Assert.assertTrue(processor.offer(i));
+        }
+        Assert.assertEquals(5, processor.getBlockingQueue().peek().intValue());
+        Assert.assertEquals(5, processor.getOverflowCount(AsynchronousProcessor.OverflowPolicy.DROP_OLDEST));
+
+        processor.setOverflowPolicy(AsynchronousProcessor.OverflowPolicy.CALLER_RUNS);
+        processor.add(20);
+        Assert.assertEquals(Collections.singletonList(20), handled);
+
+        processor.setOverflowPolicy(AsynchronousProcessor.OverflowPolicy.REJECT);
+        Assert.assertFalse(processor.offer(21));
+        Assert.assertThrows(IllegalStateException.class, () -> processor.add(22));
+        Assert.assertEquals(2, processor.getOverflowCount(AsynchronousProcessor.OverflowPolicy.REJECT));
+
+        processor.setOverflowPolicy(AsynchronousProcessor.OverflowPolicy.BLOCK).setBlockTimeout(10, TimeUnit.MILLISECONDS);
+        Assert.assertFalse(processor.offer(23));
+        Assert.assertEquals(1, processor.getBlockTimeoutCount());
+        Assert.assertEquals(10, processor.getSize());
+    }
+
+    /**
+     * 优雅关闭测试: 队列中的消息全部处理完毕之后停止, 超时则返回未处理的消息
+     */
+    @Test
+    public void shutdownTest() throws InterruptedException {
+        final AtomicInteger counter = new AtomicInteger();
+        final AsynchronousProcessor<Integer> processor = AsynchronousProcessor.<Integer>ofConsumer(i -> {
+            Throws.con(1, Thread::sleep).logThrowable();
+            counter.incrementAndGet();
+        }).setName("优雅关闭测试");
+        for (int i = 0; i < 50; i++) {
+            processor.add(i);
+        }
+        processor.start();
+        Assert.assertTrue(processor.shutdown(Duration.ofSeconds(5)).isEmpty());
+        Assert.assertTrue(processor.isTerminated());
+        Assert.assertEquals(50, counter.get());
+        Assert.assertFalse(processor.offer(50));
+
+        final AsynchronousProcessor<Integer> slow = AsynchronousProcessor.<Integer>ofConsumer(i -> Throws.con(20, Thread::sleep).logThrowable()).setName("超时关闭测试");
+        for (int i = 0; i < 100; i++) {
+            slow.add(i);
+        }
+        slow.start();
+        final List<Integer> rest = slow.shutdown(Duration.ofMillis(100));
+        log.info("超时未处理的消息数量 {}", rest.size());
+        Assert.assertTrue(rest.size() > 50);
+        Assert.assertTrue(slow.awaitTermination(1, TimeUnit.SECONDS));
+
+        // 空闲时阻塞在 take 上的处理器, close 之后应当立即终止
+        final AsynchronousProcessor<Integer> idle = AsynchronousProcessor.<Integer>ofConsumer(counter::addAndGet).setName("空闲关闭测试");
+        idle.start();
+        Throws.con(20, Thread::sleep).logThrowable();
+        idle.close();
+        Assert.assertTrue(idle.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 与无参 shutdown 并发添加消息: offer 返回 true 的消息都必须被处理
+     */
+    @Test
+    public void shutdownRaceTest() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            final AtomicInteger handled = new AtomicInteger();
+            final AtomicInteger accepted = new AtomicInteger();
+            final AsynchronousProcessor<Integer> processor = AsynchronousProcessor.<Integer>ofConsumer(i -> handled.incrementAndGet()).setName("并发关闭测试");
+            processor.start();
+            final Thread[] producers = new Thread[4];
+            for (int p = 0; p < producers.length; p++) {
+                producers[p] = new Thread(() -> {
+                    for (int i = 0; ; i++) {
+                        if (processor.offer(i)) {
+                            accepted.incrementAndGet();
+                        } else if (processor.isShutdown()) {
+                            return;
+                        }
+                    }
+                });
+                producers[p].start();
+            }
+            Thread.sleep(5);
+            processor.shutdown();
+            for (Thread producer : producers) {
+                producer.join(5000);
+            }
+            Assert.assertTrue(processor.awaitTermination(5, TimeUnit.SECONDS));
+            Assert.assertEquals(accepted.get(), handled.get());
+        }
+    }
+
+    /**
+     * 关闭时不依赖队列的 remove(Object): 队列不支持按元素删除, 且消息全部相等时, 被接受的消息也要么被处理要么被返回
+     */
+    @Test
+    public void shutdownWithoutRemoveTest() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            final AtomicInteger handled = new AtomicInteger();
+            final AtomicInteger accepted = new AtomicInteger();
+            final LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<Integer>() {
+                @Override
+                public boolean remove(Object o) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+            final AsynchronousProcessor<Integer> processor = new AsynchronousProcessor<Integer>(queue, i -> {
+                handled.incrementAndGet();
+                return true;
+            }, null, 0).setName("无remove关闭测试");
+            processor.start();
+            final Thread[] producers = new Thread[4];
+            for (int p = 0; p < producers.length; p++) {
+                producers[p] = new Thread(() -> {
+                    while (true) {
+                        if (processor.offer(1)) {
+                            accepted.incrementAndGet();
+                        } else if (processor.isShutdown()) {
+                            return;
+                        }
+                    }
+                });
+                producers[p].start();
+            }
+            Thread.sleep(5);
+            final List<Integer> rest = processor.shutdown(Duration.ofMillis(round % 2 == 0 ? 0 : 5000));
+            for (Thread producer : producers) {
+                producer.join(5000);
+            }
+            Assert.assertTrue(processor.awaitTermination(5, TimeUnit.SECONDS));
+            Assert.assertEquals(accepted.get(), handled.get() + rest.size());
+        }
+    }
+
+    /**
+     * 统计测试: 先放入 100 条消息再启动, 等待时间应当不小于启动前的睡眠时间, 偶数消息处理失败, 值为 99 的消息抛出异常
+     */
+    @Test
+    public void processorMetricsTest() throws InterruptedException {
+        final AsynchronousProcessor<Integer> processor = new AsynchronousProcessor<Integer>(new LinkedBlockingQueue<>(), i -> {
+            if (i == 99) {
+                throw new IllegalStateException("test exception");
+            }
+            return i % 2 == 1;
+        }, i -> {
+        }, 0).setContinueIfException(true).setName("统计测试").enableProcessorMetrics(true);
+        for (int i = 0; i < 100; i++) {
+            processor.add(i);
+        }
+        Throws.con(50, Thread::sleep).logThrowable();
+        processor.start();
+        Assert.assertTrue(processor.shutdown(Duration.ofSeconds(5)).isEmpty());
+        final AsynchronousProcessorMetrics metrics = processor.getProcessorMetrics();
+        log.info("{}", metrics);
+        Assert.assertEquals(100, metrics.getEnqueuedCount());
+        Assert.assertEquals(49, metrics.getSuccessCount());
+        Assert.assertEquals(50, metrics.getFailureCount());
+        Assert.assertEquals(1, metrics.getExceptionCount());
+        Assert.assertEquals(100, metrics.getQueueDepthHighWaterMark());
+        Assert.assertEquals(0, metrics.getQueueDepth());
+        Assert.assertTrue(metrics.getQueueWaitP50Nanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertEquals(100, Arrays.stream(metrics.getQueueWaitHistogram()).sum());
+    }
+
+    /**
+     * 等待时间统计在时钟超过 44 位(约 203 天)之后仍然有效; 时间戳晚于取出时间时按 0 统计
+     */
+    @Test
+    public void queueWaitClockWrapTest() {
+        final AtomicLong clock = new AtomicLong((1L << 44) + 10);
+        final AsynchronousProcessorMetrics metrics = new AsynchronousProcessorMetrics(true) {
+            @Override
+            long elapsedMicros() {
+                return clock.get();
+            }
+        };
+        metrics.recordEnqueued();
+        clock.addAndGet(100);
+        metrics.recordDequeued(1);
+        Assert.assertEquals(1, Arrays.stream(metrics.getQueueWaitHistogram()).sum());
+        Assert.assertEquals(TimeUnit.MICROSECONDS.toNanos(100), metrics.getQueueWaitMaxNanos());
+
+        // 跨过回绕点
+        clock.set((1L << 44) * 3 - 50);
+        metrics.recordEnqueued();
+        clock.addAndGet(100);
+        metrics.recordDequeued(1);
+        Assert.assertEquals(2, Arrays.stream(metrics.getQueueWaitHistogram()).sum());
+        Assert.assertEquals(TimeUnit.MICROSECONDS.toNanos(100), metrics.getQueueWaitMaxNanos());
+
+        // 生产者记录时间戳晚于消费者读取时间
+        metrics.recordEnqueued();
+        clock.addAndGet(-5);
+        metrics.recordDequeued(1);
+        Assert.assertEquals(3, Arrays.stream(metrics.getQueueWaitHistogram()).sum());
+        Assert.assertEquals(1, metrics.getQueueWaitHistogram()[0]);
+        Assert.assertEquals(TimeUnit.MICROSECONDS.toNanos(100), metrics.getQueueWaitMaxNanos());
+    }
+
+}
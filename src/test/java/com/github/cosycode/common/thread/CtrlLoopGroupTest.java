@@ -0,0 +1,62 @@
+package com.github.cosycode.common.thread;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.cosycode.common.thread.CtrlLoopThreadCompModeTest.await;
+
+/**
+ * <b>Description : </b> CtrlLoopGroup 测试
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class CtrlLoopGroupTest {
+
+    /**
+     * 分组测试: 500 个循环分片到 4 个工作线程上, 批量暂停, 唤醒, 关闭
+     */
+    @Test
+    public void groupTest() throws InterruptedException {
+        final int size = 500;
+        final AtomicInteger counter = new AtomicInteger();
+        final CtrlLoopGroup group = new CtrlLoopGroup("分组测试", 4);
+        try {
+            for (int i = 0; i < size; i++) {
+                group.add(CtrlLoopThreadComp.ofRunnable(counter::incrementAndGet, true, 10).setName("循环-" + i).enableMetrics());
+            }
+            group.startAll();
+            Assert.assertTrue(await(() -> counter.get() >= size, 10_000));
+            log.info(" ======> {}", group.getHealth());
+
+            group.pauseAll();
+            Assert.assertEquals(size, group.getHealth().getPaused());
+            // 所有循环都停在暂停上之后, 计数不再变化
+            for (CtrlLoopThreadComp loop : group.getLoops()) {
+                Assert.assertTrue(await(() -> loop.getThreadState() == Thread.State.WAITING, 5_000));
+            }
+            final int pausedCount = counter.get();
+            Thread.sleep(100);
+            Assert.assertEquals(pausedCount, counter.get());
+            Assert.assertEquals(pausedCount, group.getHealth().getLoopCount());
+
+            group.wakeAll();
+            Assert.assertTrue(await(() -> counter.get() >= pausedCount + size, 10_000));
+            Assert.assertEquals(size, group.getHealth().getRunning());
+        } finally {
+            group.close();
+        }
+        Assert.assertTrue(group.awaitTermination(5, TimeUnit.SECONDS));
+        log.info(" ======> {}", group.getHealth());
+        Assert.assertEquals(size, group.getHealth().getTerminated());
+    }
+
+}
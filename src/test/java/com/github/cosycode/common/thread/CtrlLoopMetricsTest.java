@@ -0,0 +1,124 @@
+package com.github.cosycode.common.thread;
+
+import com.github.cosycode.common.ext.hub.Throws;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.cosycode.common.thread.CtrlLoopThreadCompModeTest.await;
+
+/**
+ * <b>Description : </b> CtrlLoopMetrics 测试
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class CtrlLoopMetricsTest {
+
+    /**
+     * 运行 100 次循环: 第 10 的倍数次抛出异常, 其余第 4 的倍数次返回 false, 第 50 次睡眠 20 毫秒;
+     * 检查各项计数, 以及通过 JMX 读取到的值, 循环终止后自动从 JMX 中注销
+     */
+    @Test
+    public void loopMetricsTest() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final CtrlLoopThreadComp comp = CtrlLoopThreadComp.ofSupplier(() -> {
+            final int i = counter.incrementAndGet();
+            if (i == 50) {
+                Throws.con(20, Thread::sleep).runtimeExp();
+            }
+            if (i % 10 == 0) {
+                throw new IllegalStateException("loop " + i);
+            }
+            return i % 4 != 0;
+        }, true, 1).setName("统计测试").enableMetrics();
+        final CtrlLoopMetrics metrics = comp.getMetrics();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        metrics.registerMBean(comp.getName());
+        final ObjectName objectName = metrics.getObjectName();
+        Assert.assertNotNull(objectName);
+        Assert.assertTrue(server.isRegistered(objectName));
+        // 重复注册不会报错
+        Assert.assertSame(metrics, metrics.registerMBean(comp.getName()));
+
+        comp.pauseAfterLoopTime(100);
+        comp.start();
+        Assert.assertTrue(await(() -> comp.getThreadState() == Thread.State.WAITING && metrics.getLoopCount() == 100, 10_000));
+        Assert.assertEquals(100, counter.get());
+        Assert.assertEquals(100, metrics.getLoopCount());
+        Assert.assertEquals(20, metrics.getFalseCount());
+        Assert.assertEquals(10, metrics.getExceptionCount());
+        Assert.assertTrue(metrics.getLatencyMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        Assert.assertTrue(metrics.getLoopNanos() >= metrics.getLatencyMaxNanos());
+        Assert.assertTrue(metrics.getLatencyP50Nanos() <= metrics.getLatencyP99Nanos());
+        Assert.assertTrue(metrics.getLatencyP99Nanos() <= metrics.getLatencyMaxNanos());
+        Assert.assertTrue(metrics.getPacingNanos() > 0);
+        long total = 0;
+        for (long c : metrics.getLatencyHistogram()) {
+            total += c;
+        }
+        Assert.assertEquals(100, total);
+
+        // 通过 JMX 读取
+        Assert.assertEquals(100L, server.getAttribute(objectName, "LoopCount"));
+        Assert.assertEquals(20L, server.getAttribute(objectName, "FalseCount"));
+        Assert.assertEquals(10L, server.getAttribute(objectName, "ExceptionCount"));
+        Assert.assertEquals(metrics.getLatencyMaxNanos(), server.getAttribute(objectName, "LatencyMaxNanos"));
+        Assert.assertArrayEquals(metrics.getLatencyHistogram(), (long[]) server.getAttribute(objectName, "LatencyHistogram"));
+
+        // 暂停时间在唤醒之后统计
+        comp.wake();
+        Assert.assertTrue(await(() -> metrics.getPausedNanos() > 0, 5_000));
+
+        comp.close();
+        Assert.assertTrue(comp.awaitTermination(5, TimeUnit.SECONDS));
+        Assert.assertNull(metrics.getObjectName());
+        Assert.assertFalse(server.isRegistered(objectName));
+
+        // 重新注册后通过 JMX 清空
+        metrics.registerMBean(comp.getName());
+        server.invoke(objectName, "reset", null, null);
+        Assert.assertEquals(0, metrics.getLoopCount());
+        Assert.assertEquals(0, metrics.getLatencyMaxNanos());
+        metrics.unregisterMBean();
+        Assert.assertFalse(server.isRegistered(objectName));
+    }
+
+    /**
+     * 98 次耗时 1 微秒, 2 次耗时 1 毫秒: 中位数落在 [512, 1024) 区间, 99 分位落在最大值所在区间, 不超过最大值
+     */
+    @Test
+    public void percentileTest() {
+        final CtrlLoopMetrics metrics = new CtrlLoopMetrics();
+        Assert.assertEquals(0, metrics.getLatencyP50Nanos());
+        for (int i = 0; i < 98; i++) {
+            metrics.recordLoop(1000);
+        }
+        metrics.recordLoop(1_000_000);
+        metrics.recordLoop(1_000_000);
+
+        final long[] histogram = metrics.getLatencyHistogram();
+        Assert.assertEquals(98, histogram[9]);
+        Assert.assertEquals(2, histogram[19]);
+        Assert.assertEquals(100, metrics.getLoopCount());
+        Assert.assertEquals(98 * 1000 + 2 * 1_000_000, metrics.getLoopNanos());
+        Assert.assertEquals(1023, metrics.getLatencyP50Nanos());
+        Assert.assertEquals(1023, metrics.getLatencyPercentile(0.98));
+        Assert.assertEquals(1_000_000, metrics.getLatencyP99Nanos());
+        Assert.assertEquals(1_000_000, metrics.getLatencyMaxNanos());
+
+        metrics.reset();
+        Assert.assertEquals(0, metrics.getLoopCount());
+        Assert.assertEquals(0, metrics.getLatencyP99Nanos());
+        Assert.assertArrayEquals(new long[Long.SIZE], metrics.getLatencyHistogram());
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.github.cosycode.common.thread;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <b>Description : </b> CtrlLoopThreadComp 单次循环开销的简单基准测试, 手动运行
+ * <p>
+ * 对比裸的 while 循环与 CtrlLoopThreadComp(millisecond = 0) 执行空 loop 时每次循环的耗时, 以及有线程持续调用 wake 时的耗时.
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+@Ignore
+public class CtrlLoopThreadCompBenchmark {
+
+    private static final long MEASURE_MILLIS = 2000;
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * 防止 JIT 将空循环优化掉
+     */
+    private volatile long sink;
+
+    @Test
+    public void bareWhileLoop() throws InterruptedException {
+        for (int i = 0; i < ROUNDS; i++) {
+            final AtomicBoolean stop = new AtomicBoolean();
+            final long[] count = new long[1];
+            final Thread thread = new Thread(() -> {
+                long c = 0;
+                while (!stop.get()) {
+                    c++;
+                }
+                count[0] = c;
+            });
+            thread.start();
+            TimeUnit.MILLISECONDS.sleep(MEASURE_MILLIS);
+            stop.set(true);
+            thread.join();
+            log.info("bare while loop : {} ns/loop", String.format("%.2f", MEASURE_MILLIS * 1e6 / count[0]));
+        }
+    }
+
+    @Test
+    public void ctrlLoopWithoutControl() throws InterruptedException {
+        for (int i = 0; i < ROUNDS; i++) {
+            log.info("CtrlLoopThreadComp without control call : {} ns/loop", String.format("%.2f", measure(false)));
+        }
+    }
+
+    @Test
+    public void ctrlLoopWithWakeStorm() throws InterruptedException {
+        for (int i = 0; i < ROUNDS; i++) {
+            log.info("CtrlLoopThreadComp with wake storm : {} ns/loop", String.format("%.2f", measure(true)));
+        }
+    }
+
+    /**
+     * @param wakeStorm 是否开启一个线程不停的调用 wake
+     * @return 每次循环平均耗时(纳秒)
+     */
+    private double measure(boolean wakeStorm) throws InterruptedException {
+        final long[] count = new long[1];
+        final CtrlLoopThreadComp comp = CtrlLoopThreadComp.ofSupplier(() -> {
+            count[0]++;
+            return true;
+        });
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread controller = new Thread(() -> {
+            while (!stop.get()) {
+                comp.wake();
+            }
+        });
+        comp.start();
+        if (wakeStorm) {
+            controller.start();
+        }
+        TimeUnit.MILLISECONDS.sleep(MEASURE_MILLIS);
+        comp.pause();
+        stop.set(true);
+        if (wakeStorm) {
+            controller.join();
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        final long loops = count[0];
+        sink = loops;
+        comp.close();
+        return MEASURE_MILLIS * 1e6 / loops;
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.github.cosycode.common.thread;
+
+import com.github.cosycode.common.ext.hub.Throws;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <b>Description : </b> CtrlLoopThreadComp 执行模式测试, 所有等待都有上限, 以状态而不是固定的睡眠时间作为判断依据
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+@Slf4j
+public class CtrlLoopThreadCompModeTest {
+
+    /**
+     * 在 timeout 毫秒内轮询等待条件成立
+     *
+     * @return 条件是否成立, 超时返回 false
+     */
+    static boolean await(BooleanSupplier condition, long timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    /**
+     * 执行器模式测试: 1000 个循环共用 2 个线程
+     */
+    @Test
+    public void executorModeTest() throws InterruptedException {
+        final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+        final AtomicInteger counter = new AtomicInteger();
+        final CtrlLoopThreadComp[] comps = new CtrlLoopThreadComp[1000];
+        try {
+            for (int i = 0; i < comps.length; i++) {
+                comps[i] = CtrlLoopThreadComp.ofRunnable(counter::incrementAndGet, false, 10)
+                        .useExecutor(executor)
+                        .setName("执行器循环 " + i);
+                comps[i].start();
+            }
+            Assert.assertTrue(await(() -> counter.get() >= comps.length, 10_000));
+
+            log.info(" ======> 暂停所有循环, 当前共执行 {} 次", counter.get());
+            for (CtrlLoopThreadComp comp : comps) {
+                comp.pause();
+            }
+            // 所有循环都进入暂停之后, 计数不再变化
+            for (CtrlLoopThreadComp comp : comps) {
+                Assert.assertTrue(await(() -> comp.getThreadState() == Thread.State.WAITING, 5_000));
+            }
+            final int pausedCount = counter.get();
+            Thread.sleep(100);
+            Assert.assertEquals(pausedCount, counter.get());
+
+            log.info(" ======> 唤醒所有循环");
+            for (CtrlLoopThreadComp comp : comps) {
+                comp.wake();
+            }
+            Assert.assertTrue(await(() -> counter.get() >= pausedCount + comps.length, 10_000));
+
+            for (CtrlLoopThreadComp comp : comps) {
+                comp.close();
+            }
+            for (CtrlLoopThreadComp comp : comps) {
+                Assert.assertTrue(comp.awaitTermination(5, TimeUnit.SECONDS));
+                Assert.assertEquals(Thread.State.TERMINATED, comp.getThreadState());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 固定频率测试: loop 耗时 8 毫秒, 间隔 10 毫秒; 固定频率下 50 次循环约 500 毫秒, 而固定延迟需要约 900 毫秒
+     */
+    @Test
+    public void fixedRateTest() throws InterruptedException {
+        final int loops = 50;
+        final long period = TimeUnit.MILLISECONDS.toNanos(10);
+        final long[] starts = new long[loops];
+        final AtomicInteger counter = new AtomicInteger();
+        final CtrlLoopThreadComp threadComp = CtrlLoopThreadComp.ofRunnable(() -> {
+                    final int i = counter.getAndIncrement();
+                    if (i < loops) {
+                        starts[i] = System.nanoTime();
+                    }
+                    Throws.con(8, Thread::sleep).runtimeExp();
+                })
+                .setPeriod(10, TimeUnit.MILLISECONDS)
+                .setPacingMode(CtrlLoopThreadComp.PacingMode.FIXED_RATE)
+                .setOverrunPolicy(CtrlLoopThreadComp.OverrunPolicy.SKIP)
+                .setName("固定频率循环线程");
+        threadComp.start();
+        try {
+            Assert.assertTrue(await(() -> counter.get() > loops, 10_000));
+        } finally {
+            threadComp.close();
+        }
+        Assert.assertTrue(threadComp.awaitTermination(5, TimeUnit.SECONDS));
+        final long elapsed = starts[loops - 1] - starts[0];
+        log.info("{} 次循环共耗时 {} 毫秒", loops, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        // 不会比固定频率更快; SKIP 策略下每次开始时间都对齐到周期上
+        Assert.assertTrue(elapsed >= (loops - 1) * period - TimeUnit.MILLISECONDS.toNanos(2));
+        // 循环耗时不计入间隔, 明显快于固定延迟
+        Assert.assertTrue(elapsed < (loops - 1) * (period + TimeUnit.MILLISECONDS.toNanos(8)));
+    }
+
+}
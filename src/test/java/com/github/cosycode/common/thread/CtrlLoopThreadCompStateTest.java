@@ -0,0 +1,147 @@
+package com.github.cosycode.common.thread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.cosycode.common.thread.CtrlLoopThreadCompModeTest.await;
+
+/**
+ * <b>Description : </b> CtrlLoopThreadComp 控制字测试: 多个线程同时调用控制方法, 状态转换不丢失, 最终状态正确
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class CtrlLoopThreadCompStateTest {
+
+    private static final int THREADS = 4;
+
+    private static final int ROUNDS = 2000;
+
+    @Test
+    public void threadModeRaceTest() throws InterruptedException {
+        final AtomicInteger counter = new AtomicInteger();
+        final CtrlLoopThreadComp comp = CtrlLoopThreadComp.ofRunnable(counter::incrementAndGet, true, 1).setName("控制字竞争");
+        raceControl(comp, counter);
+    }
+
+    @Test
+    public void executorModeRaceTest() throws InterruptedException {
+        final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+        try {
+            final AtomicInteger counter = new AtomicInteger();
+            final CtrlLoopThreadComp comp = CtrlLoopThreadComp.ofRunnable(counter::incrementAndGet, true, 1)
+                    .useExecutor(executor).setName("控制字竞争-执行器");
+            raceControl(comp, counter);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 多个线程同时调用 pause / wake / startOrWake 等控制方法, 之后检查:
+     * 最后一次 wake 不会丢失, 最后一次 pause 能够让循环停下, pauseAfterLoopTime 精确执行指定次数,
+     * 与控制方法并发调用的 close 最终一定让循环终止, 且终止后状态不再改变
+     */
+    private static void raceControl(CtrlLoopThreadComp comp, AtomicInteger counter) throws InterruptedException {
+        comp.start();
+        race(comp, null);
+
+        // 竞争之后, 最后一次 wake 生效
+        comp.wake();
+        Assert.assertFalse(comp.isPaused());
+        final int woken = counter.get();
+        Assert.assertTrue(await(() -> counter.get() > woken + 10, 5_000));
+
+        // 最后一次 pause 生效, 循环停在暂停上, 计数不再变化
+        comp.pause();
+        Assert.assertTrue(comp.isPaused());
+        Assert.assertTrue(await(() -> comp.getThreadState() == Thread.State.WAITING, 5_000));
+        final int paused = counter.get();
+        Thread.sleep(50);
+        Assert.assertEquals(paused, counter.get());
+
+        // 暂停中指定次数运行, 精确执行 5 次后再次暂停
+        comp.pauseAfterLoopTime(5);
+        Assert.assertTrue(await(() -> counter.get() == paused + 5 && comp.getThreadState() == Thread.State.WAITING, 5_000));
+        Thread.sleep(50);
+        Assert.assertEquals(paused + 5, counter.get());
+        Assert.assertTrue(comp.isPaused());
+
+        // close 与其它控制方法竞争, close 总是最终生效
+        race(comp, comp::close);
+        Assert.assertTrue(comp.isClosed());
+        Assert.assertTrue(comp.awaitTermination(5, TimeUnit.SECONDS));
+        Assert.assertTrue(comp.isTerminated());
+        // 线程模式下内置线程在释放 awaitTermination 之后才真正退出
+        Assert.assertTrue(await(() -> comp.getThreadState() == Thread.State.TERMINATED, 5_000));
+        Assert.assertFalse(comp.isPaused());
+
+        // 终止之后的控制方法不再生效
+        final int closed = counter.get();
+        comp.wake();
+        comp.startOrWake();
+        comp.pause();
+        Assert.assertFalse(comp.isPaused());
+        Thread.sleep(50);
+        Assert.assertEquals(closed, counter.get());
+    }
+
+    /**
+     * THREADS 个线程同时随机调用控制方法; closer 不为空时, 在竞争进行到一半时由另一个线程调用
+     */
+    private static void race(CtrlLoopThreadComp comp, Runnable closer) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final AtomicInteger progress = new AtomicInteger();
+        final Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < ROUNDS; j++) {
+                        switch (random.nextInt(5)) {
+                            case 0:
+                                comp.pause();
+                                break;
+                            case 1:
+                                comp.pause(1);
+                                break;
+                            case 2:
+                                comp.pauseAfterLoopTime(random.nextInt(3));
+                                break;
+                            case 3:
+                                comp.wake();
+                                break;
+                            default:
+                                comp.startOrWake();
+                        }
+                        progress.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "控制线程-" + i);
+            threads[i].start();
+        }
+        start.countDown();
+        if (closer != null) {
+            Assert.assertTrue(await(() -> progress.get() >= THREADS * ROUNDS / 2, 10_000));
+            closer.run();
+        }
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+}
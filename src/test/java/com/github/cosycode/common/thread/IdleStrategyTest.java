@@ -0,0 +1,124 @@
+package com.github.cosycode.common.thread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.cosycode.common.thread.CtrlLoopThreadCompModeTest.await;
+
+/**
+ * <b>Description : </b> IdleStrategy 测试
+ * <p>
+ * <b>created in </b> 2026/10/18
+ * </p>
+ *
+ * @author CPF
+ * @since 1.13
+ **/
+public class IdleStrategyTest {
+
+    @Test
+    public void factoryTest() {
+        for (int idleCount : new int[]{1, 2, 100, Integer.MAX_VALUE}) {
+            Assert.assertEquals(IdleStrategy.SPIN, IdleStrategy.busySpin().idleNanos(idleCount));
+            Assert.assertEquals(IdleStrategy.YIELD, IdleStrategy.yielding().idleNanos(idleCount));
+            Assert.assertEquals(IdleStrategy.UNTIL_WOKEN, IdleStrategy.untilWoken().idleNanos(idleCount));
+        }
+    }
+
+    /**
+     * 自旋 2 次, 让出 1 次, 之后从 100 纳秒开始翻倍, 最多 1000 纳秒
+     */
+    @Test
+    public void backoffSequenceTest() {
+        final IdleStrategy strategy = IdleStrategy.backoff(2, 1, 100, 1000);
+        final long[] expected = {IdleStrategy.SPIN, IdleStrategy.SPIN, IdleStrategy.YIELD, 100, 200, 400, 800, 1000, 1000};
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals("idleCount " + (i + 1), expected[i], strategy.idleNanos(i + 1));
+        }
+        Assert.assertEquals(1000, strategy.idleNanos(64));
+        Assert.assertEquals(1000, strategy.idleNanos(Integer.MAX_VALUE));
+
+        // 默认自旋 10 次, 让出 5 次
+        final IdleStrategy defaults = IdleStrategy.backoff(100, 1000);
+        Assert.assertEquals(IdleStrategy.SPIN, defaults.idleNanos(10));
+        Assert.assertEquals(IdleStrategy.YIELD, defaults.idleNanos(11));
+        Assert.assertEquals(IdleStrategy.YIELD, defaults.idleNanos(15));
+        Assert.assertEquals(100, defaults.idleNanos(16));
+    }
+
+    /**
+     * minParkNanos 较大时, 左移会在到达 maxParkNanos 之前溢出, 此时直接返回 maxParkNanos
+     */
+    @Test
+    public void backoffShiftOverflowTest() {
+        final long min = 1L << 40;
+        final long max = IdleStrategy.UNTIL_WOKEN - 1;
+        final IdleStrategy strategy = IdleStrategy.backoff(0, 0, min, max);
+        Assert.assertEquals(min, strategy.idleNanos(1));
+        Assert.assertEquals(1L << 61, strategy.idleNanos(22));
+        Assert.assertEquals(max, strategy.idleNanos(23));
+        Assert.assertEquals(max, strategy.idleNanos(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void backoffValidateTest() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> IdleStrategy.backoff(-1, 0, 1, 1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> IdleStrategy.backoff(0, -1, 1, 1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> IdleStrategy.backoff(0, 0, 0, 1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> IdleStrategy.backoff(0, 0, 2, 1));
+        // 上限等于 UNTIL_WOKEN 时退避到上限后将一直等待, 不允许
+        Assert.assertThrows(IllegalArgumentException.class, () -> IdleStrategy.backoff(0, 0, 1, IdleStrategy.UNTIL_WOKEN));
+    }
+
+    /**
+     * 连续空闲次数到达上限后不再增加, 不会溢出为负数后退回到自旋
+     */
+    @Test
+    public void idleCountSaturateTest() {
+        Assert.assertEquals(1, CtrlLoopThreadComp.nextIdleCount(0));
+        Assert.assertEquals(Integer.MAX_VALUE, CtrlLoopThreadComp.nextIdleCount(Integer.MAX_VALUE - 1));
+        Assert.assertEquals(Integer.MAX_VALUE, CtrlLoopThreadComp.nextIdleCount(Integer.MAX_VALUE));
+        final IdleStrategy strategy = IdleStrategy.backoff(100, 1000);
+        Assert.assertEquals(1000, strategy.idleNanos(CtrlLoopThreadComp.nextIdleCount(Integer.MAX_VALUE)));
+    }
+
+    /**
+     * 空闲后一直等待, 放入数据后调用 wake, 循环马上处理; 空闲期间不会空转
+     */
+    @Test
+    public void untilWokenTest() throws InterruptedException {
+        final ConcurrentLinkedQueue<Integer> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger handled = new AtomicInteger();
+        final AtomicInteger loops = new AtomicInteger();
+        final CtrlLoopThreadComp comp = CtrlLoopThreadComp.ofSupplier(() -> {
+            loops.incrementAndGet();
+            final Integer i = queue.poll();
+            if (i == null) {
+                return false;
+            }
+            handled.addAndGet(i);
+            return true;
+        }).setIdleStrategy(IdleStrategy.untilWoken()).setName("空闲等待");
+        comp.start();
+        try {
+            Assert.assertTrue(await(() -> loops.get() > 0 && comp.getThreadState() == Thread.State.WAITING, 5_000));
+            final int idleLoops = loops.get();
+            Thread.sleep(50);
+            Assert.assertEquals(idleLoops, loops.get());
+
+            for (int i = 1; i <= 10; i++) {
+                queue.add(i);
+                comp.wake();
+            }
+            Assert.assertTrue(await(() -> handled.get() == 55, 5_000));
+        } finally {
+            comp.close();
+        }
+        Assert.assertTrue(comp.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+}